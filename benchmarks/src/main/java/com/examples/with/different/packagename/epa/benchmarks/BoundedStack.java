@@ -0,0 +1,65 @@
+package com.examples.with.different.packagename.epa.benchmarks;
+
+import org.evosuite.epa.EpaAction;
+import org.evosuite.epa.EpaActionPrecondition;
+import org.evosuite.epa.EpaState;
+
+/**
+ * A bounded stack annotated with its EPA (see epas/BoundedStack.xml). It lives
+ * outside the org.evosuite packages so that it is instrumented.
+ */
+public class BoundedStack {
+
+	public static final int CAPACITY = 3;
+
+	private final Object[] elements = new Object[CAPACITY];
+
+	private int size = 0;
+
+	@EpaAction(name = "BoundedStack()")
+	public BoundedStack() {
+	}
+
+	@EpaAction(name = "push()")
+	public void push(Object object) {
+		if (size == CAPACITY) {
+			throw new IllegalStateException();
+		}
+		elements[size++] = object;
+	}
+
+	@EpaAction(name = "pop()")
+	public Object pop() {
+		if (size == 0) {
+			throw new IllegalStateException();
+		}
+		final Object object = elements[--size];
+		elements[size] = null;
+		return object;
+	}
+
+	@EpaActionPrecondition(name = "push()")
+	public boolean isPushEnabled() {
+		return size != CAPACITY;
+	}
+
+	@EpaActionPrecondition(name = "pop()")
+	public boolean isPopEnabled() {
+		return size != 0;
+	}
+
+	@EpaState(name = "S1")
+	public boolean isEmpty() {
+		return isPushEnabled() && !isPopEnabled();
+	}
+
+	@EpaState(name = "S2")
+	public boolean isPartiallyFull() {
+		return isPushEnabled() && isPopEnabled();
+	}
+
+	@EpaState(name = "S3")
+	public boolean isFull() {
+		return !isPushEnabled() && isPopEnabled();
+	}
+}
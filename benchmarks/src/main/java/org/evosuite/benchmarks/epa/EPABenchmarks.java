@@ -0,0 +1,30 @@
+package org.evosuite.benchmarks.epa;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the EPA benchmarks and writes their results in JSON, so that the
+ * results of different builds can be compared (e.g. with a JMH visualizer).
+ */
+public class EPABenchmarks {
+
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	private static final String DEFAULT_INCLUDE = EPABenchmarks.class.getPackage().getName();
+
+	public static void main(String[] args) throws RunnerException {
+		if (args.length > 2) {
+			System.out.println("Usage: [<JSON result file> [<benchmark regexp>]]");
+			return;
+		}
+		final String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+		final String include = args.length > 1 ? args[1] : DEFAULT_INCLUDE;
+		final Options options = new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON)
+				.result(resultFile).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,116 @@
+package org.evosuite.benchmarks.epa;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.evosuite.coverage.epa.EPA;
+import org.evosuite.coverage.epa.EPAAdjacentEdgesIndex;
+import org.evosuite.coverage.epa.EPAGoalRegistry;
+import org.evosuite.coverage.epa.EPATrace;
+import org.evosuite.coverage.epa.EPATransition;
+import org.evosuite.coverage.epa.EPATransitionGoalIndex;
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.execution.ExecutionTraceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching of the EPA traces of an execution result against the coverage
+ * goals, as the EPA suite fitness functions do for each changed test: the
+ * transition goals (as in the EPATRANSITION criterion) and the adjacent-edges
+ * pairs (as in the EPAADJACENTEDGES criterion).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EPAGoalMatchingBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int stateCount;
+
+	@Param({ "10" })
+	public int objectCount;
+
+	@Param({ "100" })
+	public int traceLength;
+
+	private EPATransitionGoalIndex<String> transitionGoals;
+
+	private final EPAGoalRegistry<String> pairGoals = new EPAGoalRegistry<>();
+
+	private final EPAAdjacentEdgesIndex pairIndex = EPAAdjacentEdgesIndex.getInstance();
+
+	private ExecutionTraceImpl trace;
+
+	private ExecutionResult result;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final EPA automata = SyntheticEPAs.buildEPA(stateCount, 5);
+		transitionGoals = new EPATransitionGoalIndex<>();
+		for (EPATransition transition : automata.getTransitions()) {
+			transitionGoals.addGoal(transition, transition.toString());
+		}
+		pairIndex.addTransitions(automata);
+
+		final Random random = new Random(42);
+		trace = new ExecutionTraceImpl();
+		for (int i = 0; i < objectCount; i++) {
+			final Object object = new Object();
+			for (EPATransition transition : SyntheticEPAs.randomWalk(automata, traceLength, random)) {
+				trace.appendNewEpaTransition(object, transition);
+			}
+		}
+		// the goals are known in advance, as after the first generations
+		for (EPATrace epaTrace : trace.getEPATraces()) {
+			for (int i = 0; i < epaTrace.getEpaTransitions().size() - 1; i++) {
+				final long pairKey = pairIndex.getPairKey(epaTrace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
+					break;
+				}
+				pairGoals.addGoal(pairKey, Long.toString(pairKey), Long.toString(pairKey));
+			}
+		}
+		result = new ExecutionResult(new DefaultTestCase());
+	}
+
+	@Benchmark
+	public BitSet matchTransitionGoals() {
+		// drops the goals cached in the result
+		result.setTrace(trace);
+		return transitionGoals.getCoveredGoals(result);
+	}
+
+	@Benchmark
+	public BitSet matchAdjacentEdgesGoals() {
+		final BitSet coveredGoals = new BitSet(pairGoals.size());
+		for (EPATrace epaTrace : trace.getEPATraces()) {
+			for (int i = 0; i < epaTrace.getEpaTransitions().size() - 1; i++) {
+				final long pairKey = pairIndex.getPairKey(epaTrace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
+					break;
+				}
+				final int goalId = pairGoals.getGoalId(pairKey);
+				if (goalId >= 0) {
+					coveredGoals.set(goalId);
+				}
+			}
+		}
+		return coveredGoals;
+	}
+}
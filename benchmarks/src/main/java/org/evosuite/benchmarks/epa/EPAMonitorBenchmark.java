@@ -0,0 +1,154 @@
+package org.evosuite.benchmarks.epa;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.evosuite.Properties;
+import org.evosuite.Properties.Criterion;
+import org.evosuite.TestGenerationContext;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.coverage.epa.EPAMonitor;
+import org.evosuite.runtime.classhandling.ResetManager;
+import org.evosuite.testcase.execution.ExecutionTracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examples.with.different.packagename.epa.benchmarks.BoundedStack;
+
+/**
+ * Overhead of the {@link EPAMonitor} callbacks per EPA action call: each
+ * operation creates a {@link BoundedStack}, fills it and empties it, and then
+ * drops the collected EPA traces as the executor does before each test.
+ *
+ * The BASELINE mode calls the class without instrumentation. The other modes
+ * load it with the instrumenting class loader, so they also include the cost
+ * of the rest of the instrumentation used with EPA criteria (e.g. branch
+ * tracing).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EPAMonitorBenchmark {
+
+	/**
+	 * The number of actions called by each operation
+	 */
+	private static final int ACTIONS = 1 + 2 * BoundedStack.CAPACITY;
+
+	public enum MonitorMode {
+		/** Not instrumented */
+		BASELINE,
+		/** EPATRANSITION criterion with a given EPA */
+		EPA,
+		/** EPATRANSITION criterion, reusing states while nothing is written */
+		EPA_STATE_QUERY_CACHE,
+		/** EPATRANSITIONMINING criterion (states inferred from preconditions) */
+		MINING
+	}
+
+	@Param
+	public MonitorMode mode;
+
+	private Path epaXMLFile;
+
+	private MethodHandle constructor;
+
+	private MethodHandle push;
+
+	private MethodHandle pop;
+
+	private final Object element = new Object();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		ClassPathHandler.getInstance().changeTargetCPtoTheSameAsEvoSuite();
+		Properties.getInstance().resetToDefaults();
+		Properties.TARGET_CLASS = BoundedStack.class.getName();
+		Properties.TEST_ARCHIVE = false;
+		Properties.EPA_STATE_QUERY_CACHE = mode == MonitorMode.EPA_STATE_QUERY_CACHE;
+		if (mode == MonitorMode.MINING) {
+			Properties.CRITERION = new Criterion[] { Criterion.EPATRANSITIONMINING };
+		} else {
+			epaXMLFile = copyResource("/epas/BoundedStack.xml");
+			Properties.EPA_XML_PATH = epaXMLFile.toString();
+			Properties.CRITERION = new Criterion[] { Criterion.EPATRANSITION };
+		}
+		TestGenerationContext.getInstance().resetContext();
+		ResetManager.getInstance().clearManager();
+		EPAMonitor.reset();
+
+		final Class<?> clazz;
+		if (mode == MonitorMode.BASELINE) {
+			clazz = BoundedStack.class;
+		} else {
+			clazz = TestGenerationContext.getInstance().getClassLoaderForSUT().loadClass(Properties.TARGET_CLASS);
+		}
+		final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class))
+				.asType(MethodType.methodType(Object.class));
+		push = lookup.findVirtual(clazz, "push", MethodType.methodType(void.class, Object.class))
+				.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		pop = lookup.findVirtual(clazz, "pop", MethodType.methodType(Object.class))
+				.asType(MethodType.methodType(Object.class, Object.class));
+
+		ExecutionTracer.setThread(Thread.currentThread());
+		ExecutionTracer.enable();
+		ExecutionTracer.enableTraceCalls();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		ExecutionTracer.disable();
+		TestGenerationContext.getInstance().resetContext();
+		Properties.getInstance().resetToDefaults();
+		if (epaXMLFile != null) {
+			Files.delete(epaXMLFile);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ACTIONS)
+	public Object fillAndEmptyStack() throws Throwable {
+		EPAMonitor.startNewTest();
+		ExecutionTracer.getExecutionTracer().clear();
+		final Object stack = (Object) constructor.invokeExact();
+		for (int i = 0; i < BoundedStack.CAPACITY; i++) {
+			push.invokeExact(stack, element);
+		}
+		Object last = null;
+		for (int i = 0; i < BoundedStack.CAPACITY; i++) {
+			last = (Object) pop.invokeExact(stack);
+		}
+		return last;
+	}
+
+	private static Path copyResource(String resource) throws IOException {
+		final Path file = Files.createTempFile("epa", ".xml");
+		try (InputStream in = EPAMonitorBenchmark.class.getResourceAsStream(resource)) {
+			Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+}
@@ -0,0 +1,101 @@
+package org.evosuite.benchmarks.epa;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.evosuite.coverage.epa.EPA;
+import org.evosuite.coverage.epa.EPATrace;
+import org.evosuite.coverage.epa.EPATraceBuffer;
+import org.evosuite.coverage.epa.EPATransition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Collection of the EPA traces of a test: the transitions of several objects
+ * are appended interleaved, as the {@link org.evosuite.coverage.epa.EPAMonitor}
+ * reports them, and the traces are then built.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EPATraceBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int stateCount;
+
+	@Param({ "10" })
+	public int objectCount;
+
+	@Param({ "100" })
+	public int traceLength;
+
+	private Object[] objects;
+
+	/**
+	 * The walk of each object over the EPA
+	 */
+	private EPATransition[][] walks;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final EPA automata = SyntheticEPAs.buildEPA(stateCount, 5);
+		final Random random = new Random(42);
+		objects = new Object[objectCount];
+		walks = new EPATransition[objectCount][];
+		for (int i = 0; i < objectCount; i++) {
+			objects[i] = new Object();
+			final List<EPATransition> walk = SyntheticEPAs.randomWalk(automata, traceLength, random);
+			walks[i] = walk.toArray(new EPATransition[0]);
+		}
+	}
+
+	@Benchmark
+	public Set<EPATrace> collectTraces() {
+		final EPATraceBuffer buffer = new EPATraceBuffer();
+		for (int step = 0; step < traceLength; step++) {
+			for (int i = 0; i < objects.length; i++) {
+				buffer.append(objects[i], walks[i][step]);
+			}
+		}
+		return buffer.getEPATraces();
+	}
+
+	@Benchmark
+	public EPATraceBuffer copyTraces(CollectedTraces collected) {
+		return collected.buffer.copy();
+	}
+
+	/**
+	 * The traces of a test, already collected
+	 */
+	@State(Scope.Thread)
+	public static class CollectedTraces {
+
+		private EPATraceBuffer buffer;
+
+		@Setup(Level.Trial)
+		public void setUp(EPATraceBenchmark benchmark) {
+			buffer = new EPATraceBuffer();
+			for (int step = 0; step < benchmark.traceLength; step++) {
+				for (int i = 0; i < benchmark.objects.length; i++) {
+					buffer.append(benchmark.objects[i], benchmark.walks[i][step]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.evosuite.benchmarks.epa;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.evosuite.coverage.epa.EPA;
+import org.evosuite.coverage.epa.EPABinaryFormat;
+import org.evosuite.coverage.epa.EPAFactory;
+import org.evosuite.coverage.epa.EPAXMLPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Loading and saving of EPAs of growing size. The XML is parsed from memory,
+ * and written to a writer that discards it, so that only the EPA handling is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EPAXMLBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int stateCount;
+
+	@Param({ "5" })
+	public int actionCount;
+
+	private EPA automata;
+
+	private byte[] xml;
+
+	private Path binaryFile;
+
+	private final EPAXMLPrinter printer = new EPAXMLPrinter();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		automata = SyntheticEPAs.buildEPA(stateCount, actionCount);
+		xml = printer.toXML(automata).getBytes(StandardCharsets.UTF_8);
+		binaryFile = Files.createTempFile("epa", ".bin");
+		EPABinaryFormat.write(automata, binaryFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.delete(binaryFile);
+	}
+
+	@Benchmark
+	public EPA loadXML() throws ParserConfigurationException, SAXException, IOException {
+		return EPAFactory.buildEPA(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public EPA loadBinary() throws IOException {
+		return EPABinaryFormat.read(binaryFile);
+	}
+
+	@Benchmark
+	public long saveXML() throws IOException {
+		final CountingWriter writer = new CountingWriter();
+		printer.write(automata, writer);
+		return writer.count;
+	}
+
+	/**
+	 * Discards everything written to it, but counts the characters so that the
+	 * writes cannot be optimized away
+	 */
+	private static final class CountingWriter extends Writer {
+
+		long count = 0;
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			count += len;
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			count += len;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
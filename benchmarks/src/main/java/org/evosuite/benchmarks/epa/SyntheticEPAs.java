@@ -0,0 +1,90 @@
+package org.evosuite.benchmarks.epa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.evosuite.coverage.epa.EPA;
+import org.evosuite.coverage.epa.EPAExceptionalTransition;
+import org.evosuite.coverage.epa.EPANormalTransition;
+import org.evosuite.coverage.epa.EPAState;
+import org.evosuite.coverage.epa.EPATransition;
+
+/**
+ * Deterministic EPAs and traces of any size, so that benchmarks can measure
+ * how the EPA handling scales with the number of states.
+ */
+public abstract class SyntheticEPAs {
+
+	public static final String CONSTRUCTOR_ACTION_NAME = "Synthetic()";
+
+	/**
+	 * The exception thrown by the exceptional transitions
+	 */
+	private static final String EXCEPTION_NAME = IllegalStateException.class.getName();
+
+	/**
+	 * Builds an EPA where every state enables the same actions. Each action
+	 * leads to a pseudo-random state, and the first action of each state may
+	 * also fail without changing the state.
+	 *
+	 * @param stateCount
+	 * @param actionCount
+	 * @return
+	 */
+	public static EPA buildEPA(int stateCount, int actionCount) {
+		final EPAState[] states = new EPAState[stateCount];
+		for (int i = 0; i < stateCount; i++) {
+			states[i] = new EPAState("S" + i);
+		}
+		final Map<EPAState, Set<EPATransition>> map = new HashMap<>();
+		final Set<EPATransition> constructors = new LinkedHashSet<>();
+		constructors.add(new EPANormalTransition(EPAState.INITIAL_STATE, CONSTRUCTOR_ACTION_NAME, states[0]));
+		map.put(EPAState.INITIAL_STATE, constructors);
+		for (int i = 0; i < stateCount; i++) {
+			final Set<EPATransition> transitions = new LinkedHashSet<>();
+			for (int j = 0; j < actionCount; j++) {
+				final String actionName = "action" + j + "()";
+				final EPAState destination = states[(i * 31 + j * 17 + 1) % stateCount];
+				transitions.add(new EPANormalTransition(states[i], actionName, destination));
+				if (j == 0) {
+					transitions.add(new EPAExceptionalTransition(states[i], actionName, states[i], EXCEPTION_NAME));
+				}
+			}
+			map.put(states[i], transitions);
+		}
+		return new EPA("Synthetic" + stateCount, map, EPAState.INITIAL_STATE);
+	}
+
+	/**
+	 * Returns the transitions of a random walk over the EPA, starting with the
+	 * construction of the object. Only normal transitions are taken, since the
+	 * adjacent-edges pairs of a trace end at its first exceptional transition.
+	 *
+	 * @param automata
+	 * @param length
+	 *            the number of transitions of the walk
+	 * @param random
+	 * @return
+	 */
+	public static List<EPATransition> randomWalk(EPA automata, int length, Random random) {
+		final List<EPATransition> walk = new ArrayList<>(length);
+		EPAState state = automata.getInitialState();
+		while (walk.size() < length) {
+			final List<EPATransition> outgoing = new ArrayList<>();
+			for (EPATransition transition : automata.getTransitions(state)) {
+				if (!(transition instanceof EPAExceptionalTransition)) {
+					outgoing.add(transition);
+				}
+			}
+			final EPATransition transition = outgoing.get(random.nextInt(outgoing.size()));
+			walk.add(transition);
+			state = transition.getDestinationState();
+		}
+		return walk;
+	}
+}
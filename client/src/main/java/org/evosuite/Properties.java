@@ -716,6 +716,12 @@ public class Properties {
 
 	@Parameter(key = "inferred_epa_xml_path", group = "EPA", description = "This option can be enabled only and only if the EPAMINING criterion is enabled")
 	public static String INFERRED_EPA_XML_PATH = null;
+
+	@Parameter(key = "inferred_epa_store_path", group = "EPA", description = "Path of a binary store where the EPA transitions inferred for the target class are accumulated across runs. Known transitions are loaded as mining goals at startup")
+	public static String INFERRED_EPA_STORE_PATH = null;
+
+	@Parameter(key = "inferred_epa_gzip", group = "EPA", description = "Compress the XML and DOT files of the inferred EPA with gzip (a .gz suffix is appended to their names)")
+	public static boolean INFERRED_EPA_GZIP = false;
 	
 	@Parameter(key = "force_inferred_epa", group = "EPA", description = "This option can be enabled only and only if the EPAMINING criterion is enabled. Used to save inferred epa from a test suite not generated by Evosuite (Ex: Randoop)")
 	public static boolean FORCE_INFERRED_EPA = false;
@@ -723,6 +729,15 @@ public class Properties {
 	@Parameter(key = "allows_actions_violates_precondition", group = "EPA", description = "This option can be enabled only and only if the EPAMINING criterion is enabled. This option can allows or not actions that violates its precondition")
 	public static boolean ALLOWS_ACTION_VIOLATES_PRE = false;
 
+	@Parameter(key = "epa_compiled_state_queries", group = "EPA", description = "Bind EPA state and precondition queries as method handles instead of invoking them reflectively")
+	public static boolean EPA_COMPILED_STATE_QUERIES = true;
+
+	@Parameter(key = "epa_transition_graph_distance", group = "EPA", description = "Guide the search of uncovered EPA transitions by the distance (in the EPA) from the states reached by a test to the origin of the transition, instead of a binary covered/not covered fitness. Applies to the goal and the suite fitness")
+	public static boolean EPA_TRANSITION_GRAPH_DISTANCE = false;
+
+	@Parameter(key = "epa_state_query_cache", group = "EPA", description = "Track the field writes of the instrumented classes, and reuse the last EPA state computed for an object instead of evaluating its state queries again if nothing was written since then")
+	public static boolean EPA_STATE_QUERY_CACHE = false;
+
 	
 	//----------------------------------------------------------------
 	// Continuous Test Generation
@@ -1349,6 +1364,9 @@ public class Properties {
 	@Parameter(key = "concolic_timeout", group = "Test Execution", description = "Milliseconds allowed per test during concolic execution")
 	public static int CONCOLIC_TIMEOUT = 15000;
 
+	@Parameter(key = "same_thread_execution", group = "Test Execution", description = "Execute tests on the calling thread, enforcing the timeout with a watchdog. The first test that times out turns same-thread execution off for the rest of the run. A test that ignores both the kill switch and the interrupt blocks the search")
+	public static boolean SAME_THREAD_EXECUTION = false;
+
 	/** Constant <code>SHUTDOWN_TIMEOUT=1000</code> */
 	@Parameter(key = "shutdown_timeout", group = "Test Execution", description = "Milliseconds grace time to shut down test cleanly")
 	public static int SHUTDOWN_TIMEOUT = 1000;
@@ -41,6 +41,9 @@ public class OutputTrace<T extends OutputTraceEntry> implements Cloneable {
 	/** One entry per statement and per variable */
 	protected Map<Integer, Map<Integer, T>> trace = new HashMap<Integer, Map<Integer, T>>();
 
+	/** A frozen trace is shared by execution results and cannot be modified */
+	private boolean frozen = false;
+
 	/**
 	 * Insert a new entry into the trace
 	 * 
@@ -54,6 +57,7 @@ public class OutputTrace<T extends OutputTraceEntry> implements Cloneable {
 	 *            a T object.
 	 */
 	public synchronized void addEntry(int position, VariableReference var, T entry) {
+		checkNotFrozen();
 		if (!trace.containsKey(position))
 			trace.put(position, new HashMap<Integer, T>());
 
@@ -71,7 +75,6 @@ public class OutputTrace<T extends OutputTraceEntry> implements Cloneable {
 	 */
 	public synchronized T getEntry(int position, VariableReference var) {
 		if (!trace.containsKey(position)) {
-			trace.put(position, new HashMap<Integer, T>());
 			return null;
 		}
 
@@ -92,7 +95,6 @@ public class OutputTrace<T extends OutputTraceEntry> implements Cloneable {
 	 */
 	public boolean containsEntry(int position, VariableReference var) {
 		if (!trace.containsKey(position)) {
-			trace.put(position, new HashMap<Integer, T>());
 			return false;
 		}
 
@@ -250,9 +252,28 @@ public class OutputTrace<T extends OutputTraceEntry> implements Cloneable {
 	 * Reset the trace
 	 */
 	public synchronized void clear() {
+		checkNotFrozen();
 		trace.clear();
 	}
 
+	/**
+	 * Prevents further modifications of the trace, e.g. once it is shared by
+	 * several execution results. A clone of a frozen trace can be modified.
+	 */
+	public synchronized void freeze() {
+		frozen = true;
+	}
+
+	public synchronized boolean isFrozen() {
+		return frozen;
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new IllegalStateException("Output trace is frozen");
+		}
+	}
+
 	/** {@inheritDoc} */
 	@SuppressWarnings("unchecked")
 	@Override
@@ -21,6 +21,7 @@ package org.evosuite.coverage.branch;
 
 import org.evosuite.graphs.cfg.BytecodeInstruction;
 import org.evosuite.setup.DependencyAnalysis;
+import org.evosuite.testcase.execution.BranchDistanceTable;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.LabelNode;
 import org.objectweb.asm.tree.LookupSwitchInsnNode;
@@ -157,6 +158,7 @@ public class BranchPool {
 		Branch b = new Branch(v, branchCounter);
 		addBranchToMap(b);
 		branchIdMap.put(branchCounter, b);
+		BranchDistanceTable.branchRegistered(branchCounter);
 
 		logger.info("Branch " + branchCounter + " at line " + v.getLineNumber());
 	}
@@ -236,6 +238,7 @@ public class BranchPool {
 		registerSwitchBranch(v, switchBranch);
 		addBranchToMap(switchBranch);
 		branchIdMap.put(branchCounter, switchBranch);
+		BranchDistanceTable.branchRegistered(branchCounter);
 
 		registerSwitchLabel(switchBranch, targetLabel);
 
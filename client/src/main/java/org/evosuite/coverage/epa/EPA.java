@@ -2,23 +2,32 @@ package org.evosuite.coverage.epa;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 /**
  * This class is a Enabledness Preservation Automata (EPA).
- * 
+ *
+ * An EPA is immutable. All states, actions and transitions are indexed once at
+ * construction time, and each one is assigned a dense integer id (starting
+ * from 0) so that clients can keep coverage information in arrays or bitsets.
+ *
  * @author galeotti
  *
  */
 public class EPA implements Serializable {
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = 7496754070047070624L;
 
@@ -28,10 +37,166 @@ public class EPA implements Serializable {
 
 	private final EPAState initialState;
 
+	/**
+	 * States sorted by name (the position is the state id)
+	 */
+	private transient EPAState[] states;
+
+	/**
+	 * Actions sorted by name (the position is the action id)
+	 */
+	private transient String[] actions;
+
+	/**
+	 * Transitions sorted by origin, action and destination (the position is the
+	 * transition id)
+	 */
+	private transient EPATransition[] transitions;
+
+	private transient Map<String, EPAState> stateByName;
+
+	private transient Map<EPAState, Integer> stateIds;
+
+	private transient Map<String, Integer> actionIds;
+
+	private transient Map<EPATransition, Integer> transitionIds;
+
+	/**
+	 * Outgoing transitions of each state, grouped by action
+	 */
+	private transient Map<EPAState, Map<String, Set<EPATransition>>> outgoingTransitions;
+
+	/**
+	 * Unmodifiable set of the outgoing transitions of each state
+	 */
+	private transient Map<EPAState, Set<EPATransition>> outgoingTransitionSets;
+
+	private transient Set<EPAState> stateSet;
+
+	private transient Set<String> actionSet;
+
+	private transient Set<EPATransition> transitionSet;
+
+	private transient int hashCode;
+
+	private transient volatile EPAStateDistances stateDistances;
+
 	public EPA(String name, Map<EPAState, Set<EPATransition>> map, EPAState initialState) {
 		this.name = name;
-		this.map = map;
+		this.map = copyOf(map);
 		this.initialState = initialState;
+		buildIndex();
+	}
+
+	private static Map<EPAState, Set<EPATransition>> copyOf(Map<EPAState, Set<EPATransition>> map) {
+		final Map<EPAState, Set<EPATransition>> copy = new HashMap<>();
+		for (Map.Entry<EPAState, Set<EPATransition>> entry : map.entrySet()) {
+			copy.put(entry.getKey(), Collections.unmodifiableSet(new LinkedHashSet<>(entry.getValue())));
+		}
+		return Collections.unmodifiableMap(copy);
+	}
+
+	private void buildIndex() {
+		// states
+		final Set<EPAState> allStates = new TreeSet<>(STATE_COMPARATOR);
+		if (initialState != null) {
+			allStates.add(initialState);
+		}
+		allStates.addAll(map.keySet());
+		final Set<String> allActions = new TreeSet<>();
+		for (Set<EPATransition> stateTransitions : map.values()) {
+			for (EPATransition t : stateTransitions) {
+				allStates.add(t.getDestinationState());
+				allActions.add(t.getActionName());
+			}
+		}
+		this.states = allStates.toArray(new EPAState[0]);
+		this.stateIds = new HashMap<>();
+		this.stateByName = new HashMap<>();
+		for (int i = 0; i < states.length; i++) {
+			stateIds.put(states[i], i);
+			stateByName.put(states[i].getName(), states[i]);
+		}
+
+		// actions
+		this.actions = allActions.toArray(new String[0]);
+		this.actionIds = new HashMap<>();
+		for (int i = 0; i < actions.length; i++) {
+			actionIds.put(actions[i], i);
+		}
+
+		// transitions
+		final List<EPATransition> allTransitions = new ArrayList<>();
+		for (Set<EPATransition> stateTransitions : map.values()) {
+			allTransitions.addAll(stateTransitions);
+		}
+		Collections.sort(allTransitions, new Comparator<EPATransition>() {
+			@Override
+			public int compare(EPATransition t1, EPATransition t2) {
+				int cmp = Integer.compare(stateIds.get(t1.getOriginState()), stateIds.get(t2.getOriginState()));
+				if (cmp == 0)
+					cmp = Integer.compare(actionIds.get(t1.getActionName()), actionIds.get(t2.getActionName()));
+				if (cmp == 0)
+					cmp = Integer.compare(stateIds.get(t1.getDestinationState()),
+							stateIds.get(t2.getDestinationState()));
+				if (cmp == 0)
+					cmp = t1.toString().compareTo(t2.toString());
+				return cmp;
+			}
+		});
+		this.transitionIds = new HashMap<>();
+		final List<EPATransition> uniqueTransitions = new ArrayList<>();
+		for (EPATransition t : allTransitions) {
+			if (!transitionIds.containsKey(t)) {
+				transitionIds.put(t, uniqueTransitions.size());
+				uniqueTransitions.add(t);
+			}
+		}
+		this.transitions = uniqueTransitions.toArray(new EPATransition[0]);
+
+		// successors
+		this.outgoingTransitions = new HashMap<>();
+		for (EPATransition t : transitions) {
+			Map<String, Set<EPATransition>> byAction = outgoingTransitions.get(t.getOriginState());
+			if (byAction == null) {
+				byAction = new LinkedHashMap<>();
+				outgoingTransitions.put(t.getOriginState(), byAction);
+			}
+			Set<EPATransition> transitionsForAction = byAction.get(t.getActionName());
+			if (transitionsForAction == null) {
+				transitionsForAction = new LinkedHashSet<>();
+				byAction.put(t.getActionName(), transitionsForAction);
+			}
+			transitionsForAction.add(t);
+		}
+		this.outgoingTransitionSets = new HashMap<>();
+		for (Map.Entry<EPAState, Map<String, Set<EPATransition>>> entry : outgoingTransitions.entrySet()) {
+			final Set<EPATransition> outgoing = new LinkedHashSet<>();
+			for (Set<EPATransition> transitionsForAction : entry.getValue().values()) {
+				outgoing.addAll(transitionsForAction);
+			}
+			outgoingTransitionSets.put(entry.getKey(), Collections.unmodifiableSet(outgoing));
+		}
+
+		this.stateSet = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(states)));
+		this.actionSet = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(actions)));
+		this.transitionSet = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(transitions)));
+		this.hashCode = computeHashCode();
+	}
+
+	private static final Comparator<EPAState> STATE_COMPARATOR = new Comparator<EPAState>() {
+		@Override
+		public int compare(EPAState s1, EPAState s2) {
+			return s1.getName().compareTo(s2.getName());
+		}
+	};
+
+	/**
+	 * Returns true if the state was given (possibly with no outgoing transitions)
+	 * when the EPA was built
+	 */
+	boolean isOriginState(EPAState state) {
+		return map.containsKey(state);
 	}
 
 	public EPAState getInitialState() {
@@ -39,9 +204,7 @@ public class EPA implements Serializable {
 	}
 
 	public EPAState getStateByName(String stateName) {
-		final Optional<EPAState> epaStateOptional = map.keySet().stream()
-				.filter(state -> state.getName().equals(stateName)).findFirst();
-		return epaStateOptional.orElse(null);
+		return stateByName.get(stateName);
 	}
 
 	public String getName() {
@@ -49,13 +212,15 @@ public class EPA implements Serializable {
 	}
 
 	public EPAState temp_anyPossibleDestinationState(EPAState originState, String actionName) {
-		return map.get(originState).stream().filter(epaTransition -> epaTransition.getActionName().equals(actionName))
-				.map(EPATransition::getDestinationState).findFirst().orElse(null);
+		final Set<EPATransition> transitionsForAction = getTransitions(originState, actionName);
+		if (transitionsForAction.isEmpty()) {
+			return null;
+		}
+		return transitionsForAction.iterator().next().getDestinationState();
 	}
 
 	public boolean containsAction(String actionName) {
-		return map.values().stream().flatMap(Collection::stream)
-				.filter(epaTransition -> epaTransition.getActionName().equals(actionName)).findAny().isPresent();
+		return actionIds.containsKey(actionName);
 	}
 
 	private void writeObject(java.io.ObjectOutputStream out) throws IOException {
@@ -64,37 +229,133 @@ public class EPA implements Serializable {
 
 	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
 		in.defaultReadObject();
+		buildIndex();
 	}
 
+	/**
+	 * Returns an unmodifiable set of all action names (sorted)
+	 */
 	public Set<String> getActions() {
-		final Set<String> actions = map.values().stream().flatMap(Set::stream).map(t -> t.getActionName())
-				.collect(Collectors.toSet());
-		return actions;
+		return actionSet;
 	}
 
+	/**
+	 * Returns an unmodifiable set of all states, including the initial state and
+	 * the states without outgoing transitions (sorted by name)
+	 */
 	public Set<EPAState> getStates() {
-		final Set<EPAState> states = new HashSet<EPAState>();
-		states.add(initialState);
-		states.addAll(map.keySet());
-		final Set<EPAState> destination_states = map.values().stream().flatMap(Set::stream)
-				.map(t -> t.getDestinationState()).collect(Collectors.toSet());
-		states.addAll(destination_states);
-		return states;
+		return stateSet;
 	}
 
+	/**
+	 * Returns an unmodifiable set of all transitions (sorted by id)
+	 */
 	public Set<EPATransition> getTransitions() {
-		final Set<EPATransition> epaTransitions = map.values().stream().flatMap(Collection::stream)
-				.collect(Collectors.toSet());
-		return epaTransitions;
+		return transitionSet;
 	}
 
+	/**
+	 * Returns an unmodifiable set of the outgoing transitions of the given state
+	 *
+	 * @param originState
+	 * @return
+	 */
 	public Set<EPATransition> getTransitions(EPAState originState) {
-		return getTransitions().stream().filter(t -> t.getOriginState().equals(originState))
-				.collect(Collectors.toSet());
+		final Set<EPATransition> outgoing = outgoingTransitionSets.get(originState);
+		if (outgoing == null) {
+			return Collections.emptySet();
+		}
+		return outgoing;
 	}
 
-	@Override
-	public int hashCode() {
+	/**
+	 * Returns the outgoing transitions of the given state labelled with the given
+	 * action
+	 *
+	 * @param originState
+	 * @param actionName
+	 * @return
+	 */
+	public Set<EPATransition> getTransitions(EPAState originState, String actionName) {
+		final Map<String, Set<EPATransition>> byAction = outgoingTransitions.get(originState);
+		if (byAction == null) {
+			return Collections.emptySet();
+		}
+		final Set<EPATransition> transitionsForAction = byAction.get(actionName);
+		if (transitionsForAction == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(transitionsForAction);
+	}
+
+	public int getStateCount() {
+		return states.length;
+	}
+
+	public int getActionCount() {
+		return actions.length;
+	}
+
+	public int getTransitionCount() {
+		return transitions.length;
+	}
+
+	/**
+	 * Returns the id of the state, or -1 if the state does not belong to the EPA
+	 */
+	public int getStateId(EPAState state) {
+		final Integer id = stateIds.get(state);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the id of the action, or -1 if the action does not belong to the
+	 * EPA
+	 */
+	public int getActionId(String actionName) {
+		final Integer id = actionIds.get(actionName);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the id of the transition, or -1 if the transition does not belong
+	 * to the EPA
+	 */
+	public int getTransitionId(EPATransition transition) {
+		final Integer id = transitionIds.get(transition);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the shortest distances between the states of the EPA
+	 */
+	public EPAStateDistances getStateDistances() {
+		EPAStateDistances distances = stateDistances;
+		if (distances == null) {
+			synchronized (this) {
+				distances = stateDistances;
+				if (distances == null) {
+					distances = new EPAStateDistances(this);
+					stateDistances = distances;
+				}
+			}
+		}
+		return distances;
+	}
+
+	public EPAState getState(int stateId) {
+		return states[stateId];
+	}
+
+	public String getAction(int actionId) {
+		return actions[actionId];
+	}
+
+	public EPATransition getTransition(int transitionId) {
+		return transitions[transitionId];
+	}
+
+	private int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((initialState == null) ? 0 : initialState.hashCode());
@@ -103,6 +364,11 @@ public class EPA implements Serializable {
 		return result;
 	}
 
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -112,6 +378,8 @@ public class EPA implements Serializable {
 		if (getClass() != obj.getClass())
 			return false;
 		EPA other = (EPA) obj;
+		if (hashCode != other.hashCode)
+			return false;
 		if (initialState == null) {
 			if (other.initialState != null)
 				return false;
@@ -129,7 +397,5 @@ public class EPA implements Serializable {
 			return false;
 		return true;
 	}
-	
-
 
 }
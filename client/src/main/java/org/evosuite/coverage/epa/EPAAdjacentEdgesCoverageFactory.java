@@ -1,10 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.evosuite.Properties;
@@ -22,49 +20,75 @@ public class EPAAdjacentEdgesCoverageFactory extends AbstractFitnessFactory<EPAA
 		long maxNumOfEdges = numOfStates * numOfActions * numOfStates;
 		long maxNumOfDepartingEdges = numOfActions * numOfStates;
 		UPPER_BOUND_OF_GOALS = (maxNumOfEdges * maxNumOfDepartingEdges) * 2;
+		EPAAdjacentEdgesIndex.getInstance().addTransitions(epaAutomata);
 	}
 
-	private static Map<String, EPAAdjacentEdgesCoverageTestFitness> goals = new LinkedHashMap<>();
+	private static final EPAGoalRegistry<EPAAdjacentEdgesCoverageTestFitness> goals = new EPAGoalRegistry<>();
 
-	public static Map<String, EPAAdjacentEdgesCoverageTestFitness> getGoals() {
-		return goals;
+	public static List<EPAAdjacentEdgesCoverageTestFitness> getGoals() {
+		return goals.getGoals();
 	}
 
 	@Override
 	public List<EPAAdjacentEdgesCoverageTestFitness> getCoverageGoals() {
-		return new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(goals.values());
+		return new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(goals.getGoals());
 	}
 	
 	public static Set<EPAAdjacentEdgesCoverageTestFitness> calculateEPAAdjacentEdgesInfo(List<ExecutionResult> results,
 			EPAAdjacentEdgesCoverageSuiteFitness contextFitness) {
+		return goals.getGoals(getCoveredGoals(results, contextFitness));
+	}
 
-		Set<EPAAdjacentEdgesCoverageTestFitness> goalsCoveredByResults = new HashSet<>();
-
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result, so only the results
+	 * of changed tests need to be analysed.
+	 * 
+	 * @param results
+	 * @param contextFitness
+	 * @return
+	 */
+	public static BitSet getCoveredGoals(List<ExecutionResult> results, EPAAdjacentEdgesCoverageSuiteFitness contextFitness) {
+		final BitSet coveredGoals = new BitSet(goals.size());
 		for (ExecutionResult result : results) {
-			Set<EPAAdjacentEdgesPair> adjacentPairsForResult = EPAAdjacentEdgesPair.getAdjacentEdgesPairsExecuted(result);
-			for (EPAAdjacentEdgesPair pair : adjacentPairsForResult) {
-				EPATransition firstTransition = pair.getFirstEpaTransition();
-				EPATransition secondTransition = pair.getSecondEpaTransition();
-				EPAAdjacentEdgesCoverageGoal edgesGoal = new EPAAdjacentEdgesCoverageGoal(Properties.TARGET_CLASS, firstTransition, secondTransition);
-				EPAAdjacentEdgesCoverageTestFitness goal = new EPAAdjacentEdgesCoverageTestFitness(edgesGoal);
-				
-				if (!goalsCoveredByResults.contains(goal)) {
-					goalsCoveredByResults.add(goal);
-				}
-
-				String key = goal.getKey();
+			coveredGoals.or(getCoveredGoals(result, contextFitness));
+		}
+		return coveredGoals;
+	}
 
-				if (!EPAAdjacentEdgesCoverageFactory.getGoals().containsKey(key)) {
-					EPAAdjacentEdgesCoverageFactory.getGoals().put(key, goal);
-					if (Properties.TEST_ARCHIVE && contextFitness != null) {
+	private static BitSet getCoveredGoals(ExecutionResult result, EPAAdjacentEdgesCoverageSuiteFitness contextFitness) {
+		BitSet coveredGoals = goals.getCachedCoveredGoals(result);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet();
+		final EPAAdjacentEdgesIndex index = EPAAdjacentEdgesIndex.getInstance();
+		for (EPATrace epaTrace : result.getTrace().getEPATraces()) {
+			final int size = epaTrace.getEpaTransitions().size();
+			for (int i = 0; i < size - 1; i++) {
+				final long pairKey = index.getPairKey(epaTrace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
+					// same pairs as EPAAdjacentEdgesPair.getAdjacentEdgesPairsExecuted(result)
+					break;
+				}
+				// the goal is only built the first time the pair is observed
+				int goalId = goals.getGoalId(pairKey);
+				if (goalId < 0) {
+					EPATransition firstTransition = epaTrace.getEpaTransitions().get(i);
+					EPATransition secondTransition = epaTrace.getEpaTransitions().get(i + 1);
+					EPAAdjacentEdgesCoverageGoal edgesGoal = new EPAAdjacentEdgesCoverageGoal(Properties.TARGET_CLASS,
+							firstTransition, secondTransition);
+					EPAAdjacentEdgesCoverageTestFitness goal = new EPAAdjacentEdgesCoverageTestFitness(edgesGoal);
+					goalId = goals.addGoal(pairKey, goal.getKey(), goal);
+					if (goals.getGoal(goalId) == goal && Properties.TEST_ARCHIVE && contextFitness != null) {
 						TestsArchive.instance.addGoalToCover(contextFitness, goal);
 						TestsArchive.instance.putTest(contextFitness, goal, result);
 					}
 				}
+				coveredGoals.set(goalId);
 			}
 		}
-
-		return goalsCoveredByResults;
+		goals.cacheCoveredGoals(result, coveredGoals);
+		return coveredGoals;
 	}
-
 }
@@ -15,6 +15,10 @@ public class EPAAdjacentEdgesCoverageGoal implements Serializable, Comparable<EP
 	private final String className;
 	private EPAAdjacentEdgesPair epaAdjacentEdgesPair;
 
+	private transient long pairKey;
+
+	private transient volatile boolean hasPairKey = false;
+
 	public EPAAdjacentEdgesCoverageGoal(String className, EPATransition firstTransition, EPATransition secondTransition) {
 		this.className = className;
 		this.epaAdjacentEdgesPair = new EPAAdjacentEdgesPair(firstTransition, secondTransition);
@@ -41,30 +45,50 @@ public class EPAAdjacentEdgesCoverageGoal implements Serializable, Comparable<EP
 	}
 
 	/**
-	 * Returns 0.0 if the execution trace covers the adjacent edges, 1.0 otherwise If
-	 * the execution trace has a INVALID_OBJECT_STATE, the rest of the trace is
-	 * discarded.
+	 * Returns 0.0 if the execution trace covers the adjacent edges, 1.0 otherwise.
+	 * The pairs of the execution trace are the ones of
+	 * {@link EPAAdjacentEdgesPair#getAdjacentEdgesPairsExecuted(ExecutionResult)}
+	 * (e.g. if the execution trace has a INVALID_OBJECT_STATE, the rest of the
+	 * trace is discarded).
 	 * 
 	 * @param result
 	 * @return
 	 */
 	public double getDistance(ExecutionResult result) {
-		for (EPATrace epa_trace : result.getTrace().getEPATraces())
-			for (int i = 0; i < epa_trace.getEpaTransitions().size()-1; i++) {
-				EPATransition firstEpaTransition = epa_trace.getEpaTransitions().get(i);
-				EPATransition secondEpaTransition = epa_trace.getEpaTransitions().get(i + 1);
-				if (firstEpaTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)
-						|| secondEpaTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-					// discard the rest of the trace if an invalid object state is reached
+		final long goalPairKey = getPairKey();
+		if (goalPairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
+			return 1.0;
+		}
+		final EPAAdjacentEdgesIndex index = EPAAdjacentEdgesIndex.getInstance();
+		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
+			final int size = epa_trace.getEpaTransitions().size();
+			for (int i = 0; i < size - 1; i++) {
+				final long pairKey = index.getPairKey(epa_trace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
 					break;
 				}
-				
-				if (isCoveredBy(firstEpaTransition, secondEpaTransition)) {
+				if (pairKey == goalPairKey) {
 					return 0.0;
 				}
 			}
+		}
 		return 1.0;
 	}
+
+	/**
+	 * The key of the pair in the {@link EPAAdjacentEdgesIndex}. Transition ids
+	 * are only valid within a process, so the key is not serialized.
+	 */
+	private long getPairKey() {
+		if (!hasPairKey) {
+			final EPATransitionDictionary dictionary = EPATransitionDictionary.getInstance();
+			pairKey = EPAAdjacentEdgesIndex.getInstance().getPairKey(
+					dictionary.getId(epaAdjacentEdgesPair.getFirstEpaTransition()),
+					dictionary.getId(epaAdjacentEdgesPair.getSecondEpaTransition()));
+			hasPairKey = true;
+		}
+		return pairKey;
+	}
 	
 	public boolean isCoveredBy(EPATransition firstEpaTransition, EPATransition secondEpaTransition)
 	{
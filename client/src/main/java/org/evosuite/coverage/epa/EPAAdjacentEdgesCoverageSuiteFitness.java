@@ -1,8 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -36,7 +36,7 @@ public class EPAAdjacentEdgesCoverageSuiteFitness extends TestSuiteFitnessFuncti
 		final List<ExecutionResult> executionResults = runTestSuite(suite);
 		EPAAdjacentEdgesCoverageSuiteFitness contextFitness = this;
 
-		Set<EPAAdjacentEdgesCoverageTestFitness> goalsCoveredByResult = EPAAdjacentEdgesCoverageFactory.calculateEPAAdjacentEdgesInfo(executionResults, contextFitness);
+		BitSet goalsCoveredByResult = EPAAdjacentEdgesCoverageFactory.getCoveredGoals(executionResults, contextFitness);
 		
 		if (Properties.TEST_ARCHIVE) {
 			// If we are using the archive, then fitness is by definition 0
@@ -47,13 +47,9 @@ public class EPAAdjacentEdgesCoverageSuiteFitness extends TestSuiteFitnessFuncti
 			return 0.0;
 		}
 		
-		int numCoveredGoals = goalsCoveredByResult.size();
-		int numUncoveredGoals = 0;
-		for (EPAAdjacentEdgesCoverageTestFitness knownCoverageGoal : EPAAdjacentEdgesCoverageFactory.getGoals().values()) {
-			if (!goalsCoveredByResult.contains(knownCoverageGoal)) {
-				numUncoveredGoals++;
-			}
-		}
+		final int numCoveredGoals = goalsCoveredByResult.cardinality();
+		// every covered goal is a known goal
+		final int numUncoveredGoals = EPAAdjacentEdgesCoverageFactory.getGoals().size() - numCoveredGoals;
 
 		if (numCoveredGoals > maxEPAAdjacentEdgesGoalsCovered) {
 			logger.info("(Adjacent Edges pairs) Best individual covers " + numCoveredGoals + " transitions");
@@ -0,0 +1,221 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide successor index used to extract the adjacent-edges pairs of EPA
+ * traces in a single pass over their transition ids (see
+ * {@link EPATransitionDictionary}). For each transition id the index keeps the
+ * ids of its origin and destination states, so checking whether a transition
+ * can follow another one compares two ints, and each pair is encoded in a
+ * long.
+ *
+ * As in {@link EPAAdjacentEdgesPair#equals(Object)}, the second transition of
+ * a pair is compared regardless of the exception it throws. Pairs are encoded
+ * with the id of the first transition and the id of the first transition
+ * observed that is equal to the second one in that sense.
+ */
+public class EPAAdjacentEdgesIndex {
+
+	/**
+	 * Returned instead of a pair key when the transitions are not an adjacent
+	 * pair. Pair keys are never negative.
+	 */
+	public static final long NO_PAIR = -1L;
+
+	private static final byte EXCEPTIONAL = 1;
+
+	private static final byte INVALID_DESTINATION = 2;
+
+	private static final EPAAdjacentEdgesIndex instance = new EPAAdjacentEdgesIndex(
+			EPATransitionDictionary.getInstance());
+
+	private final EPATransitionDictionary dictionary;
+
+	/**
+	 * Only accessed while holding the lock of the index
+	 */
+	private final Map<EPAState, Integer> stateIds = new HashMap<>();
+
+	/**
+	 * Only accessed while holding the lock of the index
+	 */
+	private final Map<String, Integer> successorIds = new HashMap<>();
+
+	private volatile Table table = new Table(0, new int[64], new int[64], new int[64], new byte[64]);
+
+	/**
+	 * The entries of the first <code>size</code> transition ids. Entries are
+	 * never modified once written, so a table can share its arrays with the
+	 * previous one.
+	 */
+	private static final class Table {
+
+		final int size;
+
+		final int[] originStateIds;
+
+		final int[] destinationStateIds;
+
+		final int[] successorIds;
+
+		final byte[] flags;
+
+		Table(int size, int[] originStateIds, int[] destinationStateIds, int[] successorIds, byte[] flags) {
+			this.size = size;
+			this.originStateIds = originStateIds;
+			this.destinationStateIds = destinationStateIds;
+			this.successorIds = successorIds;
+			this.flags = flags;
+		}
+	}
+
+	public static EPAAdjacentEdgesIndex getInstance() {
+		return instance;
+	}
+
+	EPAAdjacentEdgesIndex(EPATransitionDictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Indexes all the transitions of the EPA in advance, so that traces over the
+	 * EPA never need to extend the index
+	 *
+	 * @param automata
+	 */
+	public void addTransitions(EPA automata) {
+		int maxTransitionId = -1;
+		for (EPATransition transition : automata.getTransitions()) {
+			maxTransitionId = Math.max(maxTransitionId, dictionary.getId(transition));
+		}
+		if (maxTransitionId >= 0) {
+			getTable(maxTransitionId);
+		}
+	}
+
+	/**
+	 * Returns the key of the pair formed by the transitions at positions
+	 * <code>index</code> and <code>index + 1</code> of the trace, or
+	 * {@link #NO_PAIR} if they are not an adjacent pair. As in
+	 * {@link EPAAdjacentEdgesPair#getAdjacentEdgesPairsExecuted(org.evosuite.testcase.execution.ExecutionResult)},
+	 * the rest of the trace should be discarded once NO_PAIR is returned (the
+	 * first transition is exceptional, an invalid object state is reached, or
+	 * the second transition does not start where the first one ends).
+	 *
+	 * @param trace
+	 * @param index
+	 * @return
+	 */
+	public long getPairKey(EPATrace trace, int index) {
+		return getPairKey(trace.getEpaTransitionId(index), trace.getEpaTransitionId(index + 1));
+	}
+
+	/**
+	 * Returns the key of the pair of transitions, or {@link #NO_PAIR} if they are
+	 * not an adjacent pair
+	 *
+	 * @param firstTransitionId
+	 * @param secondTransitionId
+	 * @return
+	 */
+	public long getPairKey(int firstTransitionId, int secondTransitionId) {
+		final Table t = getTable(Math.max(firstTransitionId, secondTransitionId));
+		if ((t.flags[firstTransitionId] & (EXCEPTIONAL | INVALID_DESTINATION)) != 0
+				|| (t.flags[secondTransitionId] & INVALID_DESTINATION) != 0
+				|| t.destinationStateIds[firstTransitionId] != t.originStateIds[secondTransitionId]) {
+			return NO_PAIR;
+		}
+		return ((long) firstTransitionId << 32) | t.successorIds[secondTransitionId];
+	}
+
+	/**
+	 * Returns the id of the first transition of the pair
+	 *
+	 * @param pairKey
+	 * @return
+	 */
+	public static int getFirstTransitionId(long pairKey) {
+		return (int) (pairKey >>> 32);
+	}
+
+	/**
+	 * Returns the id of a transition equal to the second transition of the pair
+	 * (except maybe for the exception it throws)
+	 *
+	 * @param pairKey
+	 * @return
+	 */
+	public static int getSecondTransitionId(long pairKey) {
+		return (int) pairKey;
+	}
+
+	private Table getTable(int transitionId) {
+		final Table t = table;
+		if (transitionId < t.size) {
+			return t;
+		}
+		return extend(transitionId);
+	}
+
+	private synchronized Table extend(int transitionId) {
+		final Table t = table;
+		if (transitionId < t.size) {
+			return t;
+		}
+		final int newSize = dictionary.size();
+		if (transitionId >= newSize) {
+			throw new IllegalArgumentException("Unknown transition id: " + transitionId);
+		}
+		int[] originStateIds = t.originStateIds;
+		int[] destinationStateIds = t.destinationStateIds;
+		int[] successorIds = t.successorIds;
+		byte[] flags = t.flags;
+		if (newSize > flags.length) {
+			final int capacity = Math.max(newSize, flags.length * 2);
+			originStateIds = Arrays.copyOf(originStateIds, capacity);
+			destinationStateIds = Arrays.copyOf(destinationStateIds, capacity);
+			successorIds = Arrays.copyOf(successorIds, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+		}
+		for (int id = t.size; id < newSize; id++) {
+			final EPATransition transition = dictionary.getTransition(id);
+			originStateIds[id] = getStateId(transition.getOriginState());
+			destinationStateIds[id] = getStateId(transition.getDestinationState());
+			byte f = 0;
+			if (transition instanceof EPAExceptionalTransition) {
+				f |= EXCEPTIONAL;
+			}
+			if (transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+				f |= INVALID_DESTINATION;
+			}
+			flags[id] = f;
+			successorIds[id] = getSuccessorId(transition, id);
+		}
+		final Table newTable = new Table(newSize, originStateIds, destinationStateIds, successorIds, flags);
+		table = newTable;
+		return newTable;
+	}
+
+	private int getStateId(EPAState state) {
+		Integer stateId = stateIds.get(state);
+		if (stateId == null) {
+			stateId = stateIds.size();
+			stateIds.put(state, stateId);
+		}
+		return stateId;
+	}
+
+	private int getSuccessorId(EPATransition transition, int transitionId) {
+		final String key = transition.getClass().getName() + '\0' + transition.getOriginState().getName() + '\0'
+				+ transition.getActionName() + '\0' + transition.getDestinationState().getName();
+		final Integer successorId = successorIds.get(key);
+		if (successorId != null) {
+			return successorId;
+		}
+		successorIds.put(key, transitionId);
+		return transitionId;
+	}
+}
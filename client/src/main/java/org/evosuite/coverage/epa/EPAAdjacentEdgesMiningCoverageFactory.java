@@ -1,10 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import org.evosuite.Properties;
 import org.evosuite.coverage.archive.TestsArchive;
@@ -13,59 +11,82 @@ import org.evosuite.testsuite.AbstractFitnessFactory;
 
 public class EPAAdjacentEdgesMiningCoverageFactory extends AbstractFitnessFactory<EPAAdjacentEdgesCoverageTestFitness> {
 
-    private static Map<String, EPAAdjacentEdgesCoverageTestFitness> goals = new LinkedHashMap<>();
+    private static final EPAGoalRegistry<EPAAdjacentEdgesCoverageTestFitness> goals = new EPAGoalRegistry<>();
     
     public EPAAdjacentEdgesMiningCoverageFactory() {
     	EPAUtils.checkActionAndPreconditionsAnnotationsForMiningAndgetActionsSize();
 	}
 
-    public static Map<String, EPAAdjacentEdgesCoverageTestFitness> getGoals() {
-        return goals;
+    public static List<EPAAdjacentEdgesCoverageTestFitness> getGoals() {
+        return goals.getGoals();
     }
 
     /** {@inheritDoc} */
 	@Override
 	public List<EPAAdjacentEdgesCoverageTestFitness> getCoverageGoals() {
-		return new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(goals.values());
+		return new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(goals.getGoals());
 	}
 	
 	public static Set<EPAAdjacentEdgesCoverageTestFitness> calculateEPAAdjacentEdgesMiningInfo(List<ExecutionResult> results,
 			EPAAdjacentEdgesMiningCoverageSuiteFitness contextFitness) {
+		return goals.getGoals(getCoveredGoals(results, contextFitness));
+	}
 
-		Set<EPAAdjacentEdgesCoverageTestFitness> goalsCoveredByResults = new HashSet<>();
-
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result, so only the results
+	 * of changed tests need to be analysed.
+	 * 
+	 * @param results
+	 * @param contextFitness
+	 * @return
+	 */
+	public static BitSet getCoveredGoals(List<ExecutionResult> results, EPAAdjacentEdgesMiningCoverageSuiteFitness contextFitness) {
+		final BitSet coveredGoals = new BitSet(goals.size());
 		for (ExecutionResult result : results) {
-			
-			Set<EPAAdjacentEdgesPair> adjacentPairsForResult = EPAAdjacentEdgesPair.getAdjacentEdgesPairsExecuted(result);
-			for (EPAAdjacentEdgesPair pair : adjacentPairsForResult) {
-				EPATransition firstTransition = pair.getFirstEpaTransition();
-				EPATransition secondTransition = pair.getSecondEpaTransition();
-				
-				if (firstTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)
-						|| secondTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-					// discard the rest of the trace if an invalid object state is reached
+			coveredGoals.or(getCoveredGoals(result, contextFitness));
+		}
+		return coveredGoals;
+	}
+
+	private static BitSet getCoveredGoals(ExecutionResult result, EPAAdjacentEdgesMiningCoverageSuiteFitness contextFitness) {
+		BitSet coveredGoals = goals.getCachedCoveredGoals(result);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet();
+		final EPAAdjacentEdgesIndex index = EPAAdjacentEdgesIndex.getInstance();
+		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
+			final List<EPATransition> epa_transitions = epa_trace.getEpaTransitions();
+			for (int i = 0; i < epa_transitions.size() - 1; i++) {
+				final long pairKey = index.getPairKey(epa_trace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
+					// same pairs as EPAAdjacentEdgesPair.getAdjacentEdgesPairsExecuted(result)
 					break;
 				}
-				EPAAdjacentEdgesCoverageGoal g = new EPAAdjacentEdgesCoverageGoal(Properties.TARGET_CLASS,
-						firstTransition, secondTransition);
-				EPAAdjacentEdgesCoverageTestFitness goal = new EPAAdjacentEdgesCoverageTestFitness(g);
-				
-				if (!goalsCoveredByResults.contains(goal)) {
-					goalsCoveredByResults.add(goal);
-				}
 
-				String key = goal.getKey();
-
-				if (!EPAAdjacentEdgesMiningCoverageFactory.getGoals().containsKey(key)) {
-					EPAAdjacentEdgesMiningCoverageFactory.getGoals().put(key, goal);
-					if (Properties.TEST_ARCHIVE && contextFitness != null) {
-						TestsArchive.instance.addGoalToCover(contextFitness, goal);
-						TestsArchive.instance.putTest(contextFitness, goal, result);
+				// the goal is only built the first time the pair is observed
+				int goalId = goals.getGoalId(pairKey);
+				if (goalId < 0) {
+					EPATransition firstTransition = epa_transitions.get(i);
+					EPATransition secondTransition = epa_transitions.get(i + 1);
+					EPAAdjacentEdgesCoverageGoal g = new EPAAdjacentEdgesCoverageGoal(Properties.TARGET_CLASS,
+							firstTransition, secondTransition);
+					EPAAdjacentEdgesCoverageTestFitness goal = new EPAAdjacentEdgesCoverageTestFitness(g);
+					goalId = goals.addGoal(pairKey, goal.getKey(), goal);
+					if (goals.getGoal(goalId) == goal) {
+						EPAUtils.addInferredTransition(firstTransition);
+						EPAUtils.addInferredTransition(secondTransition);
+						if (Properties.TEST_ARCHIVE && contextFitness != null) {
+							TestsArchive.instance.addGoalToCover(contextFitness, goal);
+							TestsArchive.instance.putTest(contextFitness, goal, result);
+						}
 					}
 				}
+				coveredGoals.set(goalId);
 			}
 		}
-
-		return goalsCoveredByResults;
+		goals.cacheCoveredGoals(result, coveredGoals);
+		return coveredGoals;
 	}
 }
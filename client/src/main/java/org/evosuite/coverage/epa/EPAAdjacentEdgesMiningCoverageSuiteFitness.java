@@ -19,8 +19,8 @@
  */
 package org.evosuite.coverage.epa;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 import org.evosuite.Properties;
 import org.evosuite.testcase.ExecutableChromosome;
 import org.evosuite.testcase.execution.ExecutionResult;
@@ -47,7 +47,7 @@ public class EPAAdjacentEdgesMiningCoverageSuiteFitness extends TestSuiteFitness
 
 		List<ExecutionResult> results = runTestSuite(suite);
 		EPAAdjacentEdgesMiningCoverageSuiteFitness contextFitness = this;
-		Set<EPAAdjacentEdgesCoverageTestFitness> goalsCoveredByResult = EPAAdjacentEdgesMiningCoverageFactory.calculateEPAAdjacentEdgesMiningInfo(results, contextFitness);
+		BitSet goalsCoveredByResult = EPAAdjacentEdgesMiningCoverageFactory.getCoveredGoals(results, contextFitness);
 
 		if (Properties.TEST_ARCHIVE) {
 			// If we are using the archive, then fitness is by definition 0
@@ -58,13 +58,9 @@ public class EPAAdjacentEdgesMiningCoverageSuiteFitness extends TestSuiteFitness
 			return 0.0;
 		}
 
-		int numCoveredGoals = goalsCoveredByResult.size();
-		int numUncoveredGoals = 0;
-		for (EPAAdjacentEdgesCoverageTestFitness knownCoverageGoal : EPAAdjacentEdgesMiningCoverageFactory.getGoals().values()) {
-			if (!goalsCoveredByResult.contains(knownCoverageGoal)) {
-				numUncoveredGoals++;
-			}
-		}
+		final int numCoveredGoals = goalsCoveredByResult.cardinality();
+		// every covered goal is a known goal
+		final int numUncoveredGoals = EPAAdjacentEdgesMiningCoverageFactory.getGoals().size() - numCoveredGoals;
 
 		if (numCoveredGoals > maxEPAAdjacentEdgesMiningGoalsCovered) {
 			logger.info("(Adjacent Edges Pairs Mining) Best individual covers " + numCoveredGoals + " transitions");
@@ -86,31 +86,30 @@ public class EPAAdjacentEdgesPair implements Serializable {
 	}
 
 	/**
-	 * Returns a set of adjacent pairs for the execution result
+	 * Returns a set of adjacent pairs for the execution result. The rest of a
+	 * trace is discarded once an exceptional transition is followed, an invalid
+	 * object state is reached, or two consecutive transitions are not adjacent.
 	 * 
 	 * @param executionResult
 	 * @return
 	 */
 	public static Set<EPAAdjacentEdgesPair> getAdjacentEdgesPairsExecuted(ExecutionResult executionResult) {
+		final EPAAdjacentEdgesIndex index = EPAAdjacentEdgesIndex.getInstance();
+		final EPATransitionDictionary dictionary = EPATransitionDictionary.getInstance();
+		final Set<Long> pairKeys = new HashSet<>();
 		Set<EPAAdjacentEdgesPair> pairsOfExecutionResult = new HashSet<>();
 		for (EPATrace epaTrace : executionResult.getTrace().getEPATraces()) {
-			for (int i = 0; i < epaTrace.getEpaTransitions().size() - 1; i++) {
-				EPATransition firstEpaTransition = epaTrace.getEpaTransitions().get(i);
-				// first transition can only be a normal transition
-				if(firstEpaTransition instanceof EPAExceptionalTransition)
-					break;
-				EPATransition secondEpaTransition = epaTrace.getEpaTransitions().get(i + 1);
-				if (firstEpaTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)
-						|| secondEpaTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-					// discard the rest of the trace if an invalid object state is reached
+			final int size = epaTrace.getEpaTransitions().size();
+			for (int i = 0; i < size - 1; i++) {
+				final long pairKey = index.getPairKey(epaTrace, i);
+				if (pairKey == EPAAdjacentEdgesIndex.NO_PAIR) {
 					break;
 				}
-				// final state first transition == initial state second transition. Ex:
-				// first transition  = EPANormalTransition{EPAState{name='S0'},Socket,EPAState{name='S1'}}
-				// second transition = EPANormalTransition{EPAState{name='S0'},Socket,EPAState{name='S1'}}
-				if(!firstEpaTransition.getDestinationState().equals(secondEpaTransition.getOriginState()))
-					break;
-				pairsOfExecutionResult.add(new EPAAdjacentEdgesPair(firstEpaTransition, secondEpaTransition));
+				if (pairKeys.add(pairKey)) {
+					pairsOfExecutionResult.add(new EPAAdjacentEdgesPair(
+							dictionary.getTransition(EPAAdjacentEdgesIndex.getFirstTransitionId(pairKey)),
+							epaTrace.getEpaTransitions().get(i + 1)));
+				}
 			}
 		}
 		return pairsOfExecutionResult;
@@ -0,0 +1,284 @@
+package org.evosuite.coverage.epa;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Compact binary encoding of an EPA: a table with the state names, a table
+ * with the action names, a table with the exception names, and an array of
+ * transitions (four ints each). Binary EPAs are decoded straight from a memory
+ * map of the file into the {@link EPA}, which is much faster than building
+ * the DOM of the XML encoding. The decoded EPA is the same as the one built
+ * from the XML, so it takes as much memory.
+ *
+ * {@link EPAFactory#buildEPA(String)} accepts both encodings. The
+ * {@link InferredEPAStore} uses the same encoding for its file.
+ */
+public abstract class EPABinaryFormat {
+
+	/**
+	 * "EPAB"
+	 */
+	private static final int MAGIC = 0x45504142;
+
+	private static final int VERSION = 1;
+
+	private static final int NO_NAME = -1;
+
+	private static final int NORMAL_TRANSITION = -1;
+
+	/**
+	 * The state has outgoing transitions (or is listed in the EPA even if it has
+	 * none)
+	 */
+	private static final byte ORIGIN_STATE = 1;
+
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out.println("Usage: <XML EPA file> <binary EPA file>");
+			return;
+		}
+		try {
+			convert(args[0], args[1]);
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			System.out.println("An exception has occured!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Converts an EPA in XML format to the binary format
+	 *
+	 * @param xmlFilename
+	 * @param binaryFilename
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static void convert(String xmlFilename, String binaryFilename)
+			throws ParserConfigurationException, SAXException, IOException {
+		final EPA automata;
+		try (InputStream xml = Files.newInputStream(Paths.get(xmlFilename))) {
+			automata = EPAFactory.buildEPA(xml);
+		}
+		write(automata, Paths.get(binaryFilename));
+	}
+
+	/**
+	 * Returns true if the file starts as a binary EPA
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isBinaryEPA(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final ByteBuffer header = ByteBuffer.allocate(4);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+			}
+			return !header.hasRemaining() && header.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Writes the EPA in binary format
+	 *
+	 * @param automata
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void write(EPA automata, Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			write(automata, out);
+		}
+	}
+
+	/**
+	 * Writes the EPA in binary format to the stream, without closing it
+	 *
+	 * @param automata
+	 * @param out
+	 * @throws IOException
+	 */
+	static void write(EPA automata, OutputStream out) throws IOException {
+		final Map<String, Integer> exceptions = new LinkedHashMap<>();
+		for (EPATransition transition : automata.getTransitions()) {
+			if (transition instanceof EPAExceptionalTransition) {
+				final String exception = ((EPAExceptionalTransition) transition).getExceptionThrown();
+				if (!exceptions.containsKey(exception)) {
+					exceptions.put(exception, exceptions.size());
+				}
+			}
+		}
+
+		final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		writeString(data, automata.getName());
+		data.writeInt(automata.getInitialState() == null ? NO_NAME : automata.getStateId(automata.getInitialState()));
+
+		data.writeInt(automata.getStateCount());
+		for (EPAState state : automata.getStates()) {
+			writeString(data, state.getName());
+			data.writeByte(automata.isOriginState(state) ? ORIGIN_STATE : 0);
+		}
+		data.writeInt(automata.getActionCount());
+		for (String action : automata.getActions()) {
+			writeString(data, action);
+		}
+		data.writeInt(exceptions.size());
+		for (String exception : exceptions.keySet()) {
+			writeString(data, exception);
+		}
+
+		data.writeInt(automata.getTransitionCount());
+		for (EPATransition transition : automata.getTransitions()) {
+			data.writeInt(automata.getStateId(transition.getOriginState()));
+			data.writeInt(automata.getActionId(transition.getActionName()));
+			data.writeInt(automata.getStateId(transition.getDestinationState()));
+			if (transition instanceof EPAExceptionalTransition) {
+				data.writeInt(exceptions.get(((EPAExceptionalTransition) transition).getExceptionThrown()));
+			} else {
+				data.writeInt(NORMAL_TRANSITION);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a binary EPA by memory-mapping the file
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 *             if the file is not a binary EPA
+	 */
+	public static EPA read(Path path) throws IOException {
+		final MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			return read(buffer);
+		} catch (RuntimeException e) {
+			// e.g. a truncated file
+			throw new IOException("Malformed binary EPA " + path, e);
+		}
+	}
+
+	/**
+	 * Reads a binary EPA from the buffer
+	 *
+	 * @param buffer
+	 * @return
+	 * @throws IOException
+	 *             if the buffer does not hold a binary EPA
+	 */
+	static EPA read(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a binary EPA");
+		}
+		final int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary EPA version " + version);
+		}
+		final String name = readString(buffer);
+		final int initialStateId = buffer.getInt();
+
+		final EPAState[] states = new EPAState[buffer.getInt()];
+		final Map<EPAState, Set<EPATransition>> map = new HashMap<>();
+		for (int i = 0; i < states.length; i++) {
+			states[i] = toState(readString(buffer));
+			if (buffer.get() == ORIGIN_STATE) {
+				map.put(states[i], new LinkedHashSet<EPATransition>());
+			}
+		}
+		final String[] actions = new String[buffer.getInt()];
+		for (int i = 0; i < actions.length; i++) {
+			actions[i] = readString(buffer);
+		}
+		final String[] exceptions = new String[buffer.getInt()];
+		for (int i = 0; i < exceptions.length; i++) {
+			exceptions[i] = readString(buffer);
+		}
+
+		final int transitionCount = buffer.getInt();
+		for (int i = 0; i < transitionCount; i++) {
+			final EPAState originState = states[buffer.getInt()];
+			final String actionName = actions[buffer.getInt()];
+			final EPAState destinationState = states[buffer.getInt()];
+			final int exception = buffer.getInt();
+			final EPATransition transition;
+			if (exception == NORMAL_TRANSITION) {
+				transition = new EPANormalTransition(originState, actionName, destinationState);
+			} else {
+				// the action name already has the prefix of exceptional actions
+				transition = new EPAExceptionalTransition(originState,
+						actionName.substring(EPAExceptionalTransition.EXCEPTION_PREFIX_ACTION_ID.length()),
+						destinationState, exceptions[exception]);
+			}
+			Set<EPATransition> outgoing = map.get(originState);
+			if (outgoing == null) {
+				outgoing = new LinkedHashSet<>();
+				map.put(originState, outgoing);
+			}
+			outgoing.add(transition);
+		}
+		final EPAState initialState = initialStateId == NO_NAME ? null : states[initialStateId];
+		return new EPA(name, map, initialState);
+	}
+
+	/**
+	 * Returns the constants for the initial and invalid states, which are
+	 * compared by identity
+	 */
+	private static EPAState toState(String name) {
+		if (name.equals(EPAState.INITIAL_STATE.getName())) {
+			return EPAState.INITIAL_STATE;
+		}
+		if (name.equals(EPAState.INVALID_OBJECT_STATE.getName())) {
+			return EPAState.INVALID_OBJECT_STATE;
+		}
+		return new EPAState(name);
+	}
+
+	private static void writeString(DataOutputStream data, String string) throws IOException {
+		if (string == null) {
+			data.writeInt(NO_NAME);
+			return;
+		}
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length == NO_NAME) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,77 @@
+package org.evosuite.coverage.epa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide table of the methods and constructors instrumented to notify
+ * the {@link EPAMonitor}. Each one gets a constant int id when its class is
+ * instrumented, and the instrumented code passes that id to the monitor, so
+ * no names need to be passed (or hashed) when a method is entered or exited.
+ * Ids are never reused.
+ */
+public class EPACallSites {
+
+	private static final String INIT = "<init>";
+
+	private static final Map<String, Integer> callSiteIds = new HashMap<>();
+
+	private static final List<String> classNames = new ArrayList<>();
+
+	private static final List<String> fullMethodNames = new ArrayList<>();
+
+	private static volatile boolean[] constructors = new boolean[16];
+
+	private EPACallSites() {
+	}
+
+	/**
+	 * Returns the id of the method (or constructor) of the given class. A new id
+	 * is assigned if it was not registered before.
+	 *
+	 * @param className
+	 * @param fullMethodName
+	 *            the method name followed by its descriptor
+	 * @return
+	 */
+	public static synchronized int getCallSiteId(String className, String fullMethodName) {
+		final String callName = className + "." + fullMethodName;
+		final Integer id = callSiteIds.get(callName);
+		if (id != null) {
+			return id;
+		}
+		final int newId = classNames.size();
+		boolean[] isConstructor = constructors;
+		if (newId == isConstructor.length) {
+			isConstructor = Arrays.copyOf(isConstructor, isConstructor.length * 2);
+		}
+		isConstructor[newId] = fullMethodName.startsWith(INIT);
+		constructors = isConstructor;
+		classNames.add(className);
+		fullMethodNames.add(fullMethodName);
+		callSiteIds.put(callName, newId);
+		return newId;
+	}
+
+	public static boolean isConstructor(int callSiteId) {
+		return constructors[callSiteId];
+	}
+
+	public static synchronized String getClassName(int callSiteId) {
+		return classNames.get(callSiteId);
+	}
+
+	/**
+	 * Returns the method name followed by its descriptor
+	 */
+	public static synchronized String getFullMethodName(int callSiteId) {
+		return fullMethodNames.get(callSiteId);
+	}
+
+	public static synchronized int size() {
+		return classNames.size();
+	}
+}
@@ -1,35 +1,57 @@
 package org.evosuite.coverage.epa;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Computes the EPA coverage of traces of method calls. Each line of a trace
+ * file is <code>&lt;id&gt;-&lt;call&gt;</code>, where the id identifies the
+ * object (i.e. the trace) the call belongs to, and the calls of different
+ * objects may be interleaved.
+ *
+ * Trace files are streamed: only the current state of each trace is kept in
+ * memory, not its calls, and several trace files are analysed in parallel.
+ */
 public class EPACoverageFromTraceFileAnalyzer {
-	
+
+	private static final Logger logger = LoggerFactory.getLogger(EPACoverageFromTraceFileAnalyzer.class);
+
 	public static void main(String[] args) throws IOException, ParserConfigurationException, SAXException {
+		if (args.length < 3) {
+			System.out.println("Usage: <EPA file> <trace file>... <result file>");
+			return;
+		}
 		final String epaXMLfilePath = args[0];
-		final String traceFilePath = args[1];
-		final String resultFilePath = args[2];
-		
-		// Gather all different traces
-		final Map<String, List<String>> idToTraceMap = getIdToTraceMap(Files.lines(Paths.get(traceFilePath)));
-		
+		final String resultFilePath = args[args.length - 1];
+		final List<Path> traceFiles = new ArrayList<>();
+		for (int i = 1; i < args.length - 1; i++) {
+			traceFiles.add(Paths.get(args[i]));
+		}
+
 		EPA epa = EPAFactory.buildEPA(epaXMLfilePath);
 
-		final Collection<List<String>> traces = idToTraceMap.values();
-		final float coverage = getCoverage(epa, traces);
+		final float coverage = getTraceFilesCoverage(epa, traceFiles);
 
 		final PrintWriter printWriter = new PrintWriter(resultFilePath);
 		printWriter.println(coverage);
@@ -37,24 +59,107 @@ public class EPACoverageFromTraceFileAnalyzer {
 	}
 
 	public static float getCoverage(EPA epa, Collection<List<String>> traces) {
-		final Set<EPATransition> tracedEpaTransitions = getTracedEPATransitions(epa, traces);
-		final int epaTransitionSize = epa.getTransitions().size();
-		return (float) tracedEpaTransitions.size() / epaTransitionSize;
+		final TracedTransitions tracedTransitions = new TracedTransitions();
+		for (List<String> trace : traces) {
+			final TraceState traceState = new TraceState(epa);
+			for (String call : trace) {
+				if (!traceState.accept(call)) {
+					break;
+				}
+			}
+			traceState.addTo(tracedTransitions);
+		}
+		return tracedTransitions.getCoverage(epa);
+	}
+
+	/**
+	 * Streams the trace files, in parallel, and returns the fraction of the EPA
+	 * transitions they cover
+	 *
+	 * @param epa
+	 * @param traceFiles
+	 * @return
+	 * @throws IOException
+	 */
+	public static float getTraceFilesCoverage(EPA epa, Collection<Path> traceFiles) throws IOException {
+		return getTracedTransitions(epa, traceFiles).getCoverage(epa);
+	}
+
+	/**
+	 * Streams the trace files, in parallel, and returns the transitions they
+	 * contain
+	 *
+	 * @param epa
+	 * @param traceFiles
+	 * @return
+	 * @throws IOException
+	 */
+	public static Set<EPATransition> getTracedEPATransitions(EPA epa, Collection<Path> traceFiles)
+			throws IOException {
+		return getTracedTransitions(epa, traceFiles).toSet(epa);
+	}
+
+	/**
+	 * Returns the transitions contained in the traces read from the reader
+	 *
+	 * @param epa
+	 * @param reader
+	 * @return
+	 * @throws IOException
+	 */
+	public static Set<EPATransition> getTracedEPATransitions(EPA epa, BufferedReader reader) throws IOException {
+		return getTracedTransitions(epa, reader).toSet(epa);
 	}
 
-	private static Set<EPATransition> getTracedEPATransitions(EPA epa, Collection<List<String>> traces) {
-		return traces.stream()
-				.map(trace -> {
-					try {
-						return EPATraceFactory.buildEPATrace(trace, epa);
-					} catch (MalformedEPATraceException e) {
-						e.printStackTrace();
-						return null;
-					}
-				})
-				.map(EPATrace::getEpaTransitions)
-				.flatMap(Collection::stream)
-				.collect(Collectors.toSet());
+	private static TracedTransitions getTracedTransitions(EPA epa, Collection<Path> traceFiles)
+			throws IOException {
+		try {
+			return traceFiles.parallelStream().map(traceFile -> {
+				try (BufferedReader reader = Files.newBufferedReader(traceFile, StandardCharsets.UTF_8)) {
+					return getTracedTransitions(epa, reader);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).reduce(new TracedTransitions(), TracedTransitions::merge);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static TracedTransitions getTracedTransitions(EPA epa, BufferedReader reader) throws IOException {
+		final TracedTransitions tracedTransitions = new TracedTransitions();
+		final Map<String, TraceState> traces = new HashMap<>();
+		String lastId = null;
+		TraceState lastTrace = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final int idEnd = line.indexOf('-');
+			if (idEnd < 0) {
+				continue;
+			}
+			final int callEnd = line.indexOf('-', idEnd + 1);
+			final String call = line.substring(idEnd + 1, callEnd < 0 ? line.length() : callEnd);
+
+			// consecutive lines usually belong to the same trace
+			final TraceState trace;
+			if (lastId != null && lastId.length() == idEnd && line.startsWith(lastId)) {
+				trace = lastTrace;
+			} else {
+				lastId = line.substring(0, idEnd);
+				TraceState traceState = traces.get(lastId);
+				if (traceState == null) {
+					traceState = new TraceState(epa);
+					traces.put(lastId, traceState);
+				}
+				trace = traceState;
+				lastTrace = trace;
+			}
+			trace.accept(call);
+		}
+		for (TraceState trace : traces.values()) {
+			trace.addTo(tracedTransitions);
+		}
+		return tracedTransitions;
 	}
 
 	public static Map<String, List<String>> getIdToTraceMap(Stream<String> lines) throws IOException {
@@ -72,4 +177,96 @@ public class EPACoverageFromTraceFileAnalyzer {
 		});
 		return idToTrace;
 	}
+
+	/**
+	 * The distinct transitions of one or more traces: the transitions of the EPA
+	 * are kept as a bitset of transition ids
+	 */
+	private static class TracedTransitions {
+
+		private final BitSet epaTransitionIds = new BitSet();
+
+		private final Set<EPATransition> otherTransitions = new HashSet<>();
+
+		void add(EPA epa, EPATransition transition) {
+			final int transitionId = epa.getTransitionId(transition);
+			if (transitionId >= 0) {
+				epaTransitionIds.set(transitionId);
+			} else {
+				otherTransitions.add(transition);
+			}
+		}
+
+		TracedTransitions merge(TracedTransitions other) {
+			final TracedTransitions merged = new TracedTransitions();
+			merged.addAll(this);
+			merged.addAll(other);
+			return merged;
+		}
+
+		void addAll(TracedTransitions other) {
+			epaTransitionIds.or(other.epaTransitionIds);
+			otherTransitions.addAll(other.otherTransitions);
+		}
+
+		float getCoverage(EPA epa) {
+			final int size = epaTransitionIds.cardinality() + otherTransitions.size();
+			return (float) size / epa.getTransitionCount();
+		}
+
+		Set<EPATransition> toSet(EPA epa) {
+			final Set<EPATransition> transitions = new LinkedHashSet<>();
+			for (int id = epaTransitionIds.nextSetBit(0); id >= 0; id = epaTransitionIds.nextSetBit(id + 1)) {
+				transitions.add(epa.getTransition(id));
+			}
+			transitions.addAll(otherTransitions);
+			return transitions;
+		}
+	}
+
+	/**
+	 * The state of a trace being read, and the distinct transitions found so far.
+	 * The transitions of a malformed trace are discarded.
+	 */
+	private static class TraceState {
+
+		private final EPA epa;
+
+		private final EPATraceParser parser;
+
+		private final TracedTransitions transitions = new TracedTransitions();
+
+		private boolean malformed = false;
+
+		TraceState(EPA epa) {
+			this.epa = epa;
+			this.parser = new EPATraceParser(epa);
+		}
+
+		/**
+		 * @return false if the rest of the trace can be skipped
+		 */
+		boolean accept(String call) {
+			if (malformed || parser.isFinished()) {
+				return false;
+			}
+			try {
+				final EPATransition transition = parser.accept(call);
+				if (transition != null) {
+					transitions.add(epa, transition);
+				}
+				return true;
+			} catch (MalformedEPATraceException e) {
+				logger.warn("Discarding malformed trace: " + e.getMessage());
+				malformed = true;
+				return false;
+			}
+		}
+
+		void addTo(TracedTransitions tracedTransitions) {
+			if (!malformed) {
+				tracedTransitions.addAll(transitions);
+			}
+		}
+	}
 }
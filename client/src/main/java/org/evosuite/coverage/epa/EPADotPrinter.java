@@ -1,13 +1,16 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 
@@ -63,7 +66,7 @@ public class EPADotPrinter {
 			}
 			KeyPair other = (KeyPair) arg0;
 			if (this.fromState.equals(other.fromState)) {
-				return this.toString().compareTo(other.toState);
+				return this.toState.compareTo(other.toState);
 			} else {
 				return this.fromState.compareTo(other.fromState);
 			}
@@ -71,64 +74,104 @@ public class EPADotPrinter {
 		}
 	}
 
+	/**
+	 * Returns the DOT encoding of the EPA. Use {@link #write(EPA, Path)} for large
+	 * automata.
+	 *
+	 * @param automata
+	 * @return
+	 */
 	public String toDot(EPA automata) {
+		StringWriter writer = new StringWriter();
+		try {
+			write(automata, writer);
+		} catch (IOException e) {
+			// a StringWriter does not throw
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
 
-		Map<KeyPair, Set<String>> edges = new HashMap<KeyPair, Set<String>>();
-		Map<String, Set<String>> enabledActions = new HashMap<String, Set<String>>();
-		for (EPATransition transition : automata.getTransitions()) {
-			String fromState = transition.getOriginState().getName();
-			String escapedFromState = escapeStateId(fromState);
+	/**
+	 * Writes the DOT encoding of the EPA to the file, compressed with gzip if the
+	 * file name ends with ".gz"
+	 *
+	 * @param automata
+	 * @param path
+	 * @throws IOException
+	 */
+	public void write(EPA automata, Path path) throws IOException {
+		try (Writer writer = EPAUtils.newBufferedWriter(path)) {
+			write(automata, writer);
+		}
+	}
 
-			String toState = transition.getDestinationState().getName();
-			String escapedToState = escapeStateId(toState);
+	/**
+	 * Streams the DOT encoding of the EPA to the writer. Nodes and edges are
+	 * written in sorted order.
+	 *
+	 * @param automata
+	 * @param writer
+	 * @throws IOException
+	 */
+	public void write(EPA automata, Writer writer) throws IOException {
+
+		Map<EPAState, String> escapedStateIds = new HashMap<EPAState, String>();
+		SortedMap<KeyPair, SortedSet<String>> edges = new TreeMap<KeyPair, SortedSet<String>>();
+		SortedMap<String, SortedSet<String>> enabledActions = new TreeMap<String, SortedSet<String>>();
+		for (EPATransition transition : automata.getTransitions()) {
+			String escapedFromState = getEscapedStateId(escapedStateIds, transition.getOriginState());
+			String escapedToState = getEscapedStateId(escapedStateIds, transition.getDestinationState());
 			String actionId = transition.getActionName();
 
 			KeyPair key = new KeyPair(escapedFromState, escapedToState);
 			if (!edges.containsKey(key)) {
-				edges.put(key, new HashSet<String>());
+				edges.put(key, new TreeSet<String>());
 			}
 			if (!enabledActions.containsKey(escapedFromState)) {
-				enabledActions.put(escapedFromState, new HashSet<String>());
+				enabledActions.put(escapedFromState, new TreeSet<String>());
 			}
 			edges.get(key).add(actionId);
 			enabledActions.get(escapedFromState).add(actionId);
 		}
 
-		List<KeyPair> listOfKeys = new LinkedList<KeyPair>(edges.keySet());
-		Collections.sort(listOfKeys);
-
-		StringBuffer buff = new StringBuffer();
-		String automataName = automata.getName();
-		buff.append(String.format("digraph epa {", automataName));
-		buff.append("fontsize=22;");
-		buff.append("\n");
-		buff.append("labelloc=top;");
-		buff.append("\n");
-		buff.append("labeljust=center;");
-		buff.append("\n");
-
-		for (String stateId : enabledActions.keySet()) {
-			List<String> enabledActionsList = new LinkedList<String>(enabledActions.get(stateId));
-			Collections.sort(enabledActionsList);
-			String enabledActionsStr = String.join("\\n", enabledActionsList);
-			buff.append(String.format("%s[label=\"%s\"]", stateId, stateId + ":\\n" + enabledActionsStr));
-			buff.append("\n");
+		writer.write("digraph epa {");
+		writer.write("fontsize=22;\n");
+		writer.write("labelloc=top;\n");
+		writer.write("labeljust=center;\n");
+
+		for (Map.Entry<String, SortedSet<String>> entry : enabledActions.entrySet()) {
+			String stateId = entry.getKey();
+			writer.write(stateId);
+			writer.write("[label=\"");
+			writer.write(stateId);
+			writer.write(":\\n");
+			writer.write(String.join("\\n", entry.getValue()));
+			writer.write("\"]\n");
 		}
 
-		for (KeyPair keyPair : listOfKeys) {
-			String fromStateId = keyPair.fromState;
-			String toStateId = keyPair.toState;
-			List<String> actionsInEdge = new LinkedList<String>(edges.get(keyPair));
-			Collections.sort(actionsInEdge);
-			String actions = String.join("\\n", actionsInEdge);
-
-			buff.append(String.format(" %s -> %s [label=\"%s\"];", fromStateId, toStateId, actions));
-			buff.append("\n");
+		for (Map.Entry<KeyPair, SortedSet<String>> entry : edges.entrySet()) {
+			KeyPair keyPair = entry.getKey();
+			writer.write(" ");
+			writer.write(keyPair.fromState);
+			writer.write(" -> ");
+			writer.write(keyPair.toState);
+			writer.write(" [label=\"");
+			writer.write(String.join("\\n", entry.getValue()));
+			writer.write("\"];\n");
 		}
 
-		buff.append("}");
-		buff.append("\n");
-		return buff.toString();
+		writer.write("}\n");
+		writer.flush();
+	}
+
+	private static String getEscapedStateId(Map<EPAState, String> escapedStateIds, EPAState state) {
+		String escapedStateId = escapedStateIds.get(state);
+		if (escapedStateId == null) {
+			escapedStateId = escapeStateId(state.getName());
+			escapedStateIds.put(state, escapedStateId);
+		}
+		return escapedStateId;
 	}
 
 	/**
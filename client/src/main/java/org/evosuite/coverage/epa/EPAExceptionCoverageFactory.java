@@ -1,10 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.evosuite.Properties;
@@ -28,53 +26,70 @@ public class EPAExceptionCoverageFactory extends AbstractFitnessFactory<EPAExcep
 
 	@Override
 	public List<EPAExceptionCoverageTestFitness> getCoverageGoals() {
-		return new ArrayList<EPAExceptionCoverageTestFitness>(goals.values());
+		return new ArrayList<EPAExceptionCoverageTestFitness>(goals.getGoals());
 	}
 	
-	private static Map<String, EPAExceptionCoverageTestFitness> goals = new LinkedHashMap<>();
+	private static final EPAGoalRegistry<EPAExceptionCoverageTestFitness> goals = new EPAGoalRegistry<>();
 	
-	public static Map<String, EPAExceptionCoverageTestFitness> getGoals() {
-        return goals;
+	public static List<EPAExceptionCoverageTestFitness> getGoals() {
+        return goals.getGoals();
     }
 	
 	public static Set<EPAExceptionCoverageTestFitness> calculateEPAExceptionInfo(List<ExecutionResult> results,
 			EPAExceptionCoverageSuiteFitness contextFitness) {
+		return goals.getGoals(getCoveredGoals(results, contextFitness));
+	}
 
-		Set<EPAExceptionCoverageTestFitness> goalsCoveredByResults = new HashSet<>();
-
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result, so only the results
+	 * of changed tests need to be analysed.
+	 * 
+	 * @param results
+	 * @param contextFitness
+	 * @return
+	 */
+	public static BitSet getCoveredGoals(List<ExecutionResult> results, EPAExceptionCoverageSuiteFitness contextFitness) {
+		final BitSet coveredGoals = new BitSet(goals.size());
 		for (ExecutionResult result : results) {
-			for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
-				for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
-					if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-						break;
-					}
-					
-					if(epa_transition instanceof EPANormalTransition && !EPA.getTransitions().contains(epa_transition))
-						break; // only consider normal actions in the EPA automata
+			coveredGoals.or(getCoveredGoals(result, contextFitness));
+		}
+		return coveredGoals;
+	}
 
-					String action_name = epa_transition.getActionName();
-					EPAExceptionCoverageGoal epaExceptionGoal = new EPAExceptionCoverageGoal(Properties.TARGET_CLASS, epa_transition.getOriginState(),
-							action_name, epa_transition.getDestinationState());
-					EPAExceptionCoverageTestFitness goal = new EPAExceptionCoverageTestFitness(epaExceptionGoal);
-					
-					if (!goalsCoveredByResults.contains(goal)) {
-						goalsCoveredByResults.add(goal);
-					}
+	private static BitSet getCoveredGoals(ExecutionResult result, EPAExceptionCoverageSuiteFitness contextFitness) {
+		BitSet coveredGoals = goals.getCachedCoveredGoals(result);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet();
+		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
+			for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
+				if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+					break;
+				}
+
+				if(epa_transition instanceof EPANormalTransition && !EPA.getTransitions().contains(epa_transition))
+					break; // only consider normal actions in the EPA automata
 
-					String key = goal.getGoalName();
+				String action_name = epa_transition.getActionName();
+				EPAExceptionCoverageGoal epaExceptionGoal = new EPAExceptionCoverageGoal(Properties.TARGET_CLASS, epa_transition.getOriginState(),
+						action_name, epa_transition.getDestinationState());
+				EPAExceptionCoverageTestFitness goal = new EPAExceptionCoverageTestFitness(epaExceptionGoal);
 
-					if (!EPAExceptionCoverageFactory.getGoals().containsKey(key)) {
-						EPAExceptionCoverageFactory.getGoals().put(key, goal);
-						if (Properties.TEST_ARCHIVE && contextFitness != null) {
-							TestsArchive.instance.addGoalToCover(contextFitness, goal);
-							TestsArchive.instance.putTest(contextFitness, goal, result);
-						}
+				String key = goal.getGoalName();
+				int goalId = goals.getGoalId(key);
+				if (goalId < 0) {
+					goalId = goals.addGoal(key, goal);
+					if (goals.getGoal(goalId) == goal && Properties.TEST_ARCHIVE && contextFitness != null) {
+						TestsArchive.instance.addGoalToCover(contextFitness, goal);
+						TestsArchive.instance.putTest(contextFitness, goal, result);
 					}
 				}
+				coveredGoals.set(goalId);
 			}
 		}
-
-		return goalsCoveredByResults;
+		goals.cacheCoveredGoals(result, coveredGoals);
+		return coveredGoals;
 	}
-	
 }
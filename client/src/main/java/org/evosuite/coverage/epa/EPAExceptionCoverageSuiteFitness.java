@@ -1,8 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -37,7 +37,7 @@ public class EPAExceptionCoverageSuiteFitness extends TestSuiteFitnessFunction {
 
 		List<ExecutionResult> results = runTestSuite(suite);
 		EPAExceptionCoverageSuiteFitness contextFitness = this;
-		Set<EPAExceptionCoverageTestFitness> goalsCoveredByResult = EPAExceptionCoverageFactory.calculateEPAExceptionInfo(results, contextFitness);
+		BitSet goalsCoveredByResult = EPAExceptionCoverageFactory.getCoveredGoals(results, contextFitness);
 
 		if (Properties.TEST_ARCHIVE) {
 			// If we are using the archive, then fitness is by definition 0
@@ -48,13 +48,9 @@ public class EPAExceptionCoverageSuiteFitness extends TestSuiteFitnessFunction {
 			return 0.0;
 		}
 
-		int numCoveredGoals = goalsCoveredByResult.size();
-		int numUncoveredGoals = 0;
-		for (EPAExceptionCoverageTestFitness knownCoverageGoal : EPAExceptionCoverageFactory.getGoals().values()) {
-			if (!goalsCoveredByResult.contains(knownCoverageGoal)) {
-				numUncoveredGoals++;
-			}
-		}
+		final int numCoveredGoals = goalsCoveredByResult.cardinality();
+		// every covered goal is a known goal
+		final int numUncoveredGoals = EPAExceptionCoverageFactory.getGoals().size() - numCoveredGoals;
 
 		if (numCoveredGoals > maxEPAExceptionGoalsCovered) {
 			logger.info("(Exceptions) Best individual covers " + numCoveredGoals + " transitions");
@@ -1,10 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.evosuite.Properties;
@@ -14,57 +12,98 @@ import org.evosuite.testsuite.AbstractFitnessFactory;
 
 public class EPAExceptionMiningCoverageFactory extends AbstractFitnessFactory<EPAExceptionMiningCoverageTestFitness> {
 
-    private static Map<String, EPAExceptionMiningCoverageTestFitness> goals = new LinkedHashMap<>();
+    private static final EPAGoalRegistry<EPAExceptionMiningCoverageTestFitness> goals = new EPAGoalRegistry<>();
     
     public EPAExceptionMiningCoverageFactory() {
     	EPAUtils.checkActionAndPreconditionsAnnotationsForMiningAndgetActionsSize();
+    	addKnownGoals();
 	}
 
-    public static Map<String, EPAExceptionMiningCoverageTestFitness> getGoals() {
-        return goals;
+	/**
+	 * Adds the transitions inferred by previous runs (if an inferred EPA store is
+	 * used) as goals
+	 */
+	private static void addKnownGoals() {
+		final InferredEPAStore store = InferredEPAStore.getInstance();
+		if (store == null) {
+			return;
+		}
+		for (EPATransition epa_transition : store.getTransitions()) {
+			EPAExceptionMiningCoverageTestFitness goal = new EPAExceptionMiningCoverageTestFitness(
+					Properties.TARGET_CLASS, epa_transition.getOriginState(), epa_transition.getActionName(),
+					epa_transition.getDestinationState());
+			goals.addKnownGoal(goal.getKey(), goal);
+		}
+	}
+
+    public static List<EPAExceptionMiningCoverageTestFitness> getGoals() {
+        return goals.getGoals();
     }
 
     /** {@inheritDoc} */
 	@Override
 	public List<EPAExceptionMiningCoverageTestFitness> getCoverageGoals() {
-		return new ArrayList<EPAExceptionMiningCoverageTestFitness>(goals.values());
+		return new ArrayList<EPAExceptionMiningCoverageTestFitness>(goals.getGoals());
 	}
 	
 	public static Set<EPAExceptionMiningCoverageTestFitness> calculateEPAExceptionMiningInfo(List<ExecutionResult> results,
 			EPAExceptionMiningCoverageSuiteFitness contextFitness) {
+		return goals.getGoals(getCoveredGoals(results, contextFitness));
+	}
 
-		Set<EPAExceptionMiningCoverageTestFitness> goalsCoveredByResults = new HashSet<>();
-
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result, so only the results
+	 * of changed tests need to be analysed.
+	 * 
+	 * @param results
+	 * @param contextFitness
+	 * @return
+	 */
+	public static BitSet getCoveredGoals(List<ExecutionResult> results, EPAExceptionMiningCoverageSuiteFitness contextFitness) {
+		final BitSet coveredGoals = new BitSet(goals.size());
 		for (ExecutionResult result : results) {
-			for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
-				for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
-					if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-						break;
-					}
-					 
-					String action_name = epa_transition.getActionName();
-					
-					EPAExceptionMiningCoverageTestFitness goal = new EPAExceptionMiningCoverageTestFitness(Properties.TARGET_CLASS,
-							epa_transition.getOriginState(), action_name,
-							epa_transition.getDestinationState());
-
-					if (!goalsCoveredByResults.contains(goal)) {
-						goalsCoveredByResults.add(goal);
-					}
+			coveredGoals.or(getCoveredGoals(result, contextFitness));
+		}
+		return coveredGoals;
+	}
 
-					String key = goal.getKey();
+	private static BitSet getCoveredGoals(ExecutionResult result, EPAExceptionMiningCoverageSuiteFitness contextFitness) {
+		BitSet coveredGoals = goals.getCachedCoveredGoals(result);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet();
+		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
+			final List<EPATransition> epa_transitions = epa_trace.getEpaTransitions();
+			for (int i = 0; i < epa_transitions.size(); i++) {
+				EPATransition epa_transition = epa_transitions.get(i);
+				if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+					break;
+				}
 
-					if (!EPAExceptionMiningCoverageFactory.getGoals().containsKey(key)) {
-						EPAExceptionMiningCoverageFactory.getGoals().put(key, goal);
-						if (Properties.TEST_ARCHIVE && contextFitness != null) {
-							TestsArchive.instance.addGoalToCover(contextFitness, goal);
-							TestsArchive.instance.putTest(contextFitness, goal, result);
-						}
+				// the goal is only built the first time the transition is observed
+				final int transitionId = epa_trace.getEpaTransitionId(i);
+				int goalId = goals.getGoalId(transitionId);
+				if (goalId < 0) {
+					EPAExceptionMiningCoverageTestFitness goal = new EPAExceptionMiningCoverageTestFitness(
+							Properties.TARGET_CLASS, epa_transition.getOriginState(), epa_transition.getActionName(),
+							epa_transition.getDestinationState());
+					goalId = goals.addGoal(transitionId, goal.getKey(), goal);
+					final boolean isNewGoal = goals.getGoal(goalId) == goal;
+					if (isNewGoal) {
+						EPAUtils.addInferredTransition(epa_transition);
+					}
+					if ((isNewGoal || goals.claimKnownGoal(goalId)) && Properties.TEST_ARCHIVE
+							&& contextFitness != null) {
+						TestsArchive.instance.addGoalToCover(contextFitness, goal);
+						TestsArchive.instance.putTest(contextFitness, goal, result);
 					}
 				}
+				coveredGoals.set(goalId);
 			}
 		}
-
-		return goalsCoveredByResults;
+		goals.cacheCoveredGoals(result, coveredGoals);
+		return coveredGoals;
 	}
 }
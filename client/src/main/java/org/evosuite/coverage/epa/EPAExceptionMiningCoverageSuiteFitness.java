@@ -19,8 +19,8 @@
  */
 package org.evosuite.coverage.epa;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import org.evosuite.Properties;
 import org.evosuite.testcase.ExecutableChromosome;
@@ -48,7 +48,7 @@ public class EPAExceptionMiningCoverageSuiteFitness extends TestSuiteFitnessFunc
 
 		List<ExecutionResult> results = runTestSuite(suite);
 		EPAExceptionMiningCoverageSuiteFitness contextFitness = this;
-		Set<EPAExceptionMiningCoverageTestFitness> goalsCoveredByResult = EPAExceptionMiningCoverageFactory.calculateEPAExceptionMiningInfo(results, contextFitness);
+		BitSet goalsCoveredByResult = EPAExceptionMiningCoverageFactory.getCoveredGoals(results, contextFitness);
 
 		if (Properties.TEST_ARCHIVE) {
 			// If we are using the archive, then fitness is by definition 0
@@ -59,13 +59,9 @@ public class EPAExceptionMiningCoverageSuiteFitness extends TestSuiteFitnessFunc
 			return 0.0;
 		}
 
-		int numCoveredGoals = goalsCoveredByResult.size();
-		int numUncoveredGoals = 0;
-		for (EPAExceptionMiningCoverageTestFitness knownCoverageGoal : EPAExceptionMiningCoverageFactory.getGoals().values()) {
-			if (!goalsCoveredByResult.contains(knownCoverageGoal)) {
-				numUncoveredGoals++;
-			}
-		}
+		final int numCoveredGoals = goalsCoveredByResult.cardinality();
+		// every covered goal is a known goal
+		final int numUncoveredGoals = EPAExceptionMiningCoverageFactory.getGoals().size() - numCoveredGoals;
 
 		if (numCoveredGoals > maxEPAExceptionMiningGoalsCovered) {
 			logger.info("(Exceptions) Best individual covers " + numCoveredGoals + " transitions");
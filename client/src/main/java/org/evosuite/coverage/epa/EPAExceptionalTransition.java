@@ -3,7 +3,7 @@ package org.evosuite.coverage.epa;
 public class EPAExceptionalTransition extends EPATransition {
 
 	private final String exceptionThrown;
-	private static final String EXCEPTION_PREFIX_ACTION_ID = "EXCEP_";
+	static final String EXCEPTION_PREFIX_ACTION_ID = "EXCEP_";
 
 	public EPAExceptionalTransition(EPAState originState, String actionName, EPAState destinationState,
 			String exceptionThrown) {
@@ -1,17 +1,19 @@
 package org.evosuite.coverage.epa;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -25,7 +27,8 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 /**
- * Creates a new EPA from an XML document
+ * Creates a new EPA from an XML document (or from a binary EPA, see
+ * {@link EPABinaryFormat})
  * 
  * @author galeotti
  *
@@ -39,6 +42,30 @@ public abstract class EPAFactory {
 	private static final String NAME = "name";
 	private static final String INITIAL_STATE = "initial_state";
 
+	/**
+	 * The EPAs loaded from files, by absolute path
+	 */
+	private static final Map<Path, CachedEPA> cache = new ConcurrentHashMap<>();
+
+	private static class CachedEPA {
+
+		private final EPA automata;
+
+		private final FileTime lastModifiedTime;
+
+		private final long size;
+
+		CachedEPA(EPA automata, BasicFileAttributes attributes) {
+			this.automata = automata;
+			this.lastModifiedTime = attributes.lastModifiedTime();
+			this.size = attributes.size();
+		}
+
+		boolean isUpToDate(BasicFileAttributes attributes) {
+			return lastModifiedTime.equals(attributes.lastModifiedTime()) && size == attributes.size();
+		}
+	}
+
 	public static EPA buildEPAOrError(String xmlFilename) {
 		try {
 			return buildEPA(xmlFilename);
@@ -47,8 +74,41 @@ public abstract class EPAFactory {
 		}
 	}
 
+	/**
+	 * Returns the EPA in the file, which can be either in XML format or in binary
+	 * format (see {@link EPABinaryFormat}). EPAs are immutable, so the EPA of
+	 * each file is loaded once and shared until the file is modified.
+	 * 
+	 * @param xmlFilename
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 */
 	public static EPA buildEPA(String xmlFilename) throws ParserConfigurationException, SAXException, IOException {
-		return buildEPA(new FileInputStream(xmlFilename));
+		final Path path = Paths.get(xmlFilename).toAbsolutePath().normalize();
+		final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		final CachedEPA cached = cache.get(path);
+		if (cached != null && cached.isUpToDate(attributes)) {
+			return cached.automata;
+		}
+		final EPA automata;
+		if (EPABinaryFormat.isBinaryEPA(path)) {
+			automata = EPABinaryFormat.read(path);
+		} else {
+			try (InputStream xml = Files.newInputStream(path)) {
+				automata = buildEPA(xml);
+			}
+		}
+		cache.put(path, new CachedEPA(automata, attributes));
+		return automata;
+	}
+
+	/**
+	 * Drops the EPAs loaded so far
+	 */
+	public static void clearCache() {
+		cache.clear();
 	}
 
 	/**
@@ -78,11 +138,16 @@ public abstract class EPAFactory {
 			epaStateMap.put(name, new EPAState(name));
 		}
 
-		// Populate list of transitions
-		final List<EPATransition> epaTransitions = new ArrayList<>();
+		// Populate the outgoing transitions of each state in a single pass
+		final Map<EPAState, Set<EPATransition>> map = new HashMap<>();
+		for (EPAState epaState : epaStateMap.values()) {
+			map.put(epaState, new HashSet<EPATransition>());
+		}
 		for (int i = 0; i < states.getLength(); i++) {
 			final Element state = (Element) states.item(i);
 			final String stateId = state.getAttribute(NAME);
+			final EPAState originState = epaStateMap.get(stateId);
+			final Set<EPATransition> epaStateTransitions = map.get(originState);
 
 			final NodeList stateChilds = states.item(i).getChildNodes();
 			for (int j = 0; j < stateChilds.getLength(); j++) {
@@ -91,20 +156,12 @@ public abstract class EPAFactory {
 					final Element transition = (Element) stateChild;
 					final String actionId = transition.getAttribute(LABEL);
 					final String destinationStateId = transition.getAttribute(DESTINATION);
-					EPAState originState = epaStateMap.get(stateId);
 					EPAState destinationState = epaStateMap.get(destinationStateId);
-					epaTransitions.add(new EPANormalTransition(originState, actionId, destinationState));
+					epaStateTransitions.add(new EPANormalTransition(originState, actionId, destinationState));
 				}
 			}
 		}
 
-		// Build map
-		final Map<EPAState, Set<EPATransition>> map = new HashMap<>();
-		epaStateMap.values().stream().forEach(epaState -> {
-			final Set<EPATransition> epaStateTransitions = epaTransitions.stream()
-					.filter(epaTransition -> epaTransition.getOriginState() == epaState).collect(Collectors.toSet());
-			map.put(epaState, epaStateTransitions);
-		});
 		EPAState initialState = epaStateMap.get(initialStateName);
 
 		EPA newEPA = new EPA(epaName, map, initialState);
@@ -0,0 +1,306 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.evosuite.testcase.execution.ExecutionResult;
+
+/**
+ * Registry of the goals discovered while executing tests (i.e. goals that are
+ * not known in advance). Each goal is identified by its key, and it is
+ * assigned a dense goal id in discovery order, so that the goals covered by an
+ * execution result can be kept in a bitset and cached in the result.
+ *
+ * Goals can also be looked up by a non-negative <i>probe</i> (e.g. the id of
+ * an EPA transition in the {@link EPATransitionDictionary}). Several probes may
+ * map to the same goal. Looking up a probe that was seen before neither locks
+ * nor allocates, so the key of a goal (and the goal itself) only needs to be
+ * built the first time one of its probes is observed.
+ *
+ * Lookups never block, and goals can be added concurrently by several threads.
+ *
+ * @param <T>
+ *            the type of the coverage goals
+ */
+public class EPAGoalRegistry<T> {
+
+	private final ConcurrentHashMap<String, Integer> goalIds = new ConcurrentHashMap<>();
+
+	private volatile Object[] goalsById = new Object[16];
+
+	private volatile int size = 0;
+
+	private volatile ProbeTable probes = new ProbeTable(64);
+
+	/**
+	 * Ids of the goals known in advance (e.g. loaded from a previous run) that
+	 * were not claimed yet
+	 */
+	private final Set<Integer> knownGoalIds = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Ordered snapshot of the goals, or null if a goal was added since it was
+	 * built
+	 */
+	private volatile List<T> snapshot = Collections.emptyList();
+
+	/**
+	 * Open addressing table from probes to goal ids. Only the thread holding the
+	 * lock of the registry writes to it, and a goal id is written before its
+	 * probe, so readers that find a probe always see its goal id. A full table
+	 * is replaced by a larger copy.
+	 */
+	private static final class ProbeTable {
+
+		private static final long EMPTY = -1L;
+
+		private final AtomicLongArray probes;
+
+		private final AtomicIntegerArray goalIds;
+
+		private final int mask;
+
+		private int count = 0;
+
+		ProbeTable(int capacity) {
+			probes = new AtomicLongArray(capacity);
+			goalIds = new AtomicIntegerArray(capacity);
+			mask = capacity - 1;
+			for (int i = 0; i < capacity; i++) {
+				probes.set(i, EMPTY);
+			}
+		}
+
+		private int indexOf(long probe) {
+			final long hash = probe * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+
+		int get(long probe) {
+			for (int i = indexOf(probe);; i = (i + 1) & mask) {
+				final long current = probes.get(i);
+				if (current == probe) {
+					return goalIds.get(i);
+				}
+				if (current == EMPTY) {
+					return -1;
+				}
+			}
+		}
+
+		void put(long probe, int goalId) {
+			for (int i = indexOf(probe);; i = (i + 1) & mask) {
+				final long current = probes.get(i);
+				if (current == EMPTY) {
+					goalIds.set(i, goalId);
+					probes.set(i, probe);
+					count++;
+					return;
+				}
+				if (current == probe) {
+					return;
+				}
+			}
+		}
+
+		boolean isHalfFull() {
+			return 2 * count >= probes.length();
+		}
+
+		ProbeTable grow() {
+			final ProbeTable table = new ProbeTable(probes.length() * 2);
+			for (int i = 0; i < probes.length(); i++) {
+				final long probe = probes.get(i);
+				if (probe != EMPTY) {
+					table.put(probe, goalIds.get(i));
+				}
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Returns an unmodifiable snapshot of the goals, in discovery order. Goals
+	 * added later are not included.
+	 *
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getGoals() {
+		List<T> goals = snapshot;
+		if (goals == null) {
+			synchronized (this) {
+				goals = snapshot;
+				if (goals == null) {
+					goals = Collections.unmodifiableList((List<T>) Arrays.asList(Arrays.copyOf(goalsById, size)));
+					snapshot = goals;
+				}
+			}
+		}
+		return goals;
+	}
+
+	/**
+	 * Returns the id of the goal with the given key, or -1 if no such goal was
+	 * added
+	 *
+	 * @param key
+	 * @return
+	 */
+	public int getGoalId(String key) {
+		final Integer goalId = goalIds.get(key);
+		return goalId == null ? -1 : goalId;
+	}
+
+	/**
+	 * Returns the id of the goal the probe was mapped to, or -1 if the probe was
+	 * not added yet
+	 *
+	 * @param probe
+	 *            a non-negative probe
+	 * @return
+	 */
+	public int getGoalId(long probe) {
+		return probes.get(probe);
+	}
+
+	/**
+	 * Adds a new goal and returns its id. If a goal with the same key was already
+	 * added, the id of the existing goal is returned.
+	 *
+	 * @param key
+	 * @param goal
+	 * @return
+	 */
+	public synchronized int addGoal(String key, T goal) {
+		final Integer goalId = goalIds.get(key);
+		if (goalId != null) {
+			return goalId;
+		}
+		final int newGoalId = size;
+		Object[] goals = goalsById;
+		if (newGoalId == goals.length) {
+			goals = Arrays.copyOf(goals, goals.length * 2);
+		}
+		goals[newGoalId] = goal;
+		goalsById = goals;
+		size = newGoalId + 1;
+		snapshot = null;
+		goalIds.put(key, newGoalId);
+		return newGoalId;
+	}
+
+	/**
+	 * Maps the probe to the goal with the given key, adding the goal if no goal
+	 * with that key was added before. Callers can check whether their goal was
+	 * added by comparing it to <code>getGoal(goalId)</code>.
+	 *
+	 * @param probe
+	 *            a non-negative probe
+	 * @param key
+	 * @param goal
+	 * @return the id of the goal the probe is mapped to
+	 */
+	public synchronized int addGoal(long probe, String key, T goal) {
+		if (probe < 0) {
+			throw new IllegalArgumentException("Probes cannot be negative: " + probe);
+		}
+		final int goalId = probes.get(probe);
+		if (goalId >= 0) {
+			return goalId;
+		}
+		final int newGoalId = addGoal(key, goal);
+		ProbeTable table = probes;
+		if (table.isHalfFull()) {
+			table = table.grow();
+		}
+		table.put(probe, newGoalId);
+		probes = table;
+		return newGoalId;
+	}
+
+	/**
+	 * Adds a goal that was not observed yet (e.g. a goal discovered by a previous
+	 * run). See {@link #claimKnownGoal(int)}.
+	 *
+	 * @param key
+	 * @param goal
+	 * @return the id of the goal
+	 */
+	public synchronized int addKnownGoal(String key, T goal) {
+		final int goalId = getGoalId(key);
+		if (goalId >= 0) {
+			return goalId;
+		}
+		final int newGoalId = addGoal(key, goal);
+		knownGoalIds.add(newGoalId);
+		return newGoalId;
+	}
+
+	/**
+	 * Returns true only the first time it is invoked for a goal added by
+	 * {@link #addKnownGoal(String, Object)}, i.e. when the goal is observed for
+	 * the first time. Known goals have no probes until they are observed, so
+	 * callers only need to check this when they add a probe.
+	 *
+	 * @param goalId
+	 * @return
+	 */
+	public boolean claimKnownGoal(int goalId) {
+		return !knownGoalIds.isEmpty() && knownGoalIds.remove(goalId);
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getGoal(int goalId) {
+		if (goalId < 0 || goalId >= size) {
+			throw new IndexOutOfBoundsException("Goal id: " + goalId + ", Size: " + size);
+		}
+		return (T) goalsById[goalId];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the goals with the given ids
+	 *
+	 * @param goalIds
+	 * @return
+	 */
+	public Set<T> getGoals(BitSet goalIds) {
+		final Set<T> goalSet = new LinkedHashSet<>();
+		for (int goalId = goalIds.nextSetBit(0); goalId >= 0; goalId = goalIds.nextSetBit(goalId + 1)) {
+			goalSet.add(getGoal(goalId));
+		}
+		return goalSet;
+	}
+
+	/**
+	 * Returns the ids of the goals covered by the result that were cached by this
+	 * registry, or null if they were not computed yet
+	 *
+	 * @param result
+	 * @return
+	 */
+	public BitSet getCachedCoveredGoals(ExecutionResult result) {
+		return result.getCachedCoveredGoalIds(this);
+	}
+
+	/**
+	 * Caches in the result the ids of the goals it covers
+	 *
+	 * @param result
+	 * @param coveredGoals
+	 */
+	public void cacheCoveredGoals(ExecutionResult result, BitSet coveredGoals) {
+		result.cacheCoveredGoalIds(this, coveredGoals);
+	}
+}
@@ -4,18 +4,21 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.IdentityHashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.evosuite.Properties;
 import org.evosuite.TestGenerationContext;
-import org.evosuite.runtime.LoopCounter;
+import org.evosuite.runtime.MonitorGuard;
 import org.evosuite.testcase.execution.EvosuiteError;
 import org.evosuite.testcase.execution.ExecutionTracer;
 import org.objectweb.asm.Type;
@@ -39,18 +42,91 @@ public class EPAMonitor {
 	 */
 	private final EPA automata;
 
-	private static EPAMonitor instance = null;
+	private static volatile EPAMonitor instance = null;
 
-	private boolean isEnabled = true;
+	/**
+	 * Incremented each time a new test is executed. The objects tracked by each
+	 * thread are dropped once a new test starts.
+	 */
+	private static volatile int currentTestNumber = 0;
+
+	/**
+	 * The maximum number of objects tracked by a single thread within a test
+	 */
+	private static final AtomicInteger maxTrackedObjectCount = new AtomicInteger(0);
+
+	/**
+	 * The monitoring state of each thread executing tests
+	 */
+	private final ThreadLocal<EPAMonitorContext> contexts = new ThreadLocal<EPAMonitorContext>() {
+		@Override
+		protected EPAMonitorContext initialValue() {
+			return new EPAMonitorContext();
+		}
+	};
 
-	private final Map<String, Method> actionToPredicateMap;
+	/**
+	 * The EPA states whose boolean queries are evaluated to compute the current
+	 * state (indexed as in <code>stateQueryEvaluator</code>)
+	 */
+	private final EPAState[] queriedEpaStates;
+
+	/**
+	 * Evaluates the @EpaState queries of <code>queriedEpaStates</code>
+	 */
+	private final EPAQueryEvaluator stateQueryEvaluator;
 
+	/**
+	 * The action ids whose preconditions are evaluated to build an inferred state
+	 * (indexed as in <code>preconditionQueryEvaluator</code>)
+	 */
+	private final String[] preconditionActionIds;
+
+	/**
+	 * Evaluates the @EpaActionPrecondition queries of
+	 * <code>preconditionActionIds</code>
+	 */
+	private final EPAQueryEvaluator preconditionQueryEvaluator;
+
+	/**
+	 * Interns the inferred states and normal transitions observed while mining.
+	 * It is null if the EPA is given or if there are too many actions to encode a
+	 * state as a bitmask.
+	 */
+	private final InferredEPAStateTable inferredStateTable;
+
+	/**
+	 * The bit of the inferred state that corresponds to each precondition query
+	 */
+	private final long[] preconditionActionBits;
+
+	/**
+	 * True if the field writes of the target class are tracked (see
+	 * {@link EPAWriteVersion}), so the last EPA state computed for an object can
+	 * be reused while nothing is written
+	 */
+	private final boolean stateQueryCacheEnabled;
+
+	/**
+	 * Enables (or disables) the monitor for the current thread
+	 * 
+	 * @param enabled
+	 */
 	public void setEnabled(boolean enabled) {
-		this.isEnabled = enabled;
+		getContext().setEnabled(enabled);
 	}
 
+	/**
+	 * Returns true if the monitor is enabled for the current thread
+	 * 
+	 * @return
+	 */
 	public boolean isMonitorEnabled() {
-		return isEnabled;
+		return getContext().isEnabled();
+	}
+
+	private EPAMonitorContext getContext() {
+		return contexts.get();
 	}
 
 	private EPAMonitor() {
@@ -63,17 +139,42 @@ public class EPAMonitor {
 		try {
 			targetClass = TestGenerationContext.getInstance().getClassLoaderForSUT().loadClass(Properties.TARGET_CLASS);
 			if (automata != null) {
-				this.epaStatesToMethodMap = createEpaStateToMethodMap(automata, targetClass);
+				final Map<EPAState, Method> epaStatesToMethodMap = createEpaStateToMethodMap(automata, targetClass);
+				this.queriedEpaStates = epaStatesToMethodMap.keySet().toArray(new EPAState[0]);
+				this.stateQueryEvaluator = createQueryEvaluator(targetClass, this.queriedEpaStates,
+						epaStatesToMethodMap);
 				this.methodToActionMap = createMethodToActionMap(automata, targetClass);
 				this.constructorToActionMap = createConstructorToActionMap(automata, targetClass);
-				this.actionToPredicateMap = null;
+				this.preconditionActionIds = null;
+				this.preconditionQueryEvaluator = null;
+				this.inferredStateTable = null;
+				this.preconditionActionBits = null;
 			} else {
-				this.epaStatesToMethodMap = null;
+				this.queriedEpaStates = null;
+				this.stateQueryEvaluator = null;
 				this.methodToActionMap = createMethodToActionMap(targetClass);
 				this.constructorToActionMap = createConstructorToActionMap(targetClass);
-				this.actionToPredicateMap = createActionToPredicateMap(targetClass);
-
+				final Map<String, Method> actionToPredicateMap = createActionToPredicateMap(targetClass);
+				this.preconditionActionIds = actionToPredicateMap.keySet().toArray(new String[0]);
+				this.preconditionQueryEvaluator = createQueryEvaluator(targetClass, this.preconditionActionIds,
+						actionToPredicateMap);
+				final Set<String> actionIds = new HashSet<String>(this.constructorToActionMap.values());
+				actionIds.addAll(Arrays.asList(this.preconditionActionIds));
+				if (actionIds.size() <= InferredEPAStateTable.MAX_ACTIONS
+						&& this.preconditionActionIds.length <= EPAQueryEvaluator.MAX_BITMASK_QUERIES) {
+					this.inferredStateTable = new InferredEPAStateTable(actionIds);
+					this.preconditionActionBits = new long[this.preconditionActionIds.length];
+					for (int i = 0; i < this.preconditionActionIds.length; i++) {
+						final int actionIndex = inferredStateTable.getActionIndex(this.preconditionActionIds[i]);
+						this.preconditionActionBits[i] = 1L << actionIndex;
+					}
+				} else {
+					this.inferredStateTable = null;
+					this.preconditionActionBits = null;
+				}
 			}
+			this.stateQueryCacheEnabled = Properties.EPA_STATE_QUERY_CACHE
+					&& EPAWriteVersion.isWriteTracked(targetClass);
 		} catch (ClassNotFoundException | NoSuchMethodException e) {
 			throw new EvosuiteError(e);
 		}
@@ -91,6 +192,15 @@ public class EPAMonitor {
 
 	}
 
+	private static <K> EPAQueryEvaluator createQueryEvaluator(Class<?> targetClass, K[] keys,
+			Map<K, Method> keyToQueryMap) {
+		final List<Method> queries = new ArrayList<Method>(keys.length);
+		for (K key : keys) {
+			queries.add(keyToQueryMap.get(key));
+		}
+		return EPAQueryEvaluator.getEvaluator(targetClass, queries);
+	}
+
 	/**
 	 * Populates a mapping from constructor names to EPA Actions using the
 	 * annotations on each Java constructor
@@ -196,12 +306,6 @@ public class EPAMonitor {
 		return epaStateMethods;
 	}
 
-	/**
-	 * A mapping from EPA states to boolean query methods to check if the object is
-	 * in the corresponding state.
-	 */
-	private final Map<EPAState, Method> epaStatesToMethodMap;
-
 	/**
 	 * A mapping from Java method names to EPA actions following the @EpaAction
 	 * annotations on the target class.
@@ -215,11 +319,25 @@ public class EPAMonitor {
 	private final Map<String, String> constructorToActionMap;
 
 	/**
-	 * This map keeps the last EPA state observed for each object
+	 * Marks the call sites that were resolved and are not EPA actions
+	 */
+	private static final String NOT_AN_ACTION = new String("<not an action>");
+
+	/**
+	 * The EPA action of each call site (indexed by call site id). An entry is
+	 * null until the call site is first resolved.
 	 */
-	private final IdentityHashMap<Object, EPAState> previousEpaState = new IdentityHashMap<>();
+	private volatile String[] callSiteActionNames = new String[0];
 
 	public static EPAMonitor getInstance() {
+		EPAMonitor monitor = instance;
+		if (monitor == null) {
+			monitor = createInstance();
+		}
+		return monitor;
+	}
+
+	private static synchronized EPAMonitor createInstance() {
 		if (instance == null) {
 			if (EPAUtils.currCriteriaRequireEPAXML() && Properties.EPA_XML_PATH == null) {
 				throw new IllegalStateException("EPA_XML_PATH should be configured before creating EPAMonitor!");
@@ -240,197 +358,347 @@ public class EPAMonitor {
 
 	public static void reset() {
 		instance = null;
+		maxTrackedObjectCount.set(0);
+		EPAQueryEvaluator.clearCache();
 	}
 
-	private static Logger logger = LoggerFactory.getLogger(EPAMonitor.class);
+	/**
+	 * Signals that a new test is about to be executed, so the previous EPA states
+	 * of the objects created by earlier tests can be dropped.
+	 */
+	public static void startNewTest() {
+		currentTestNumber++;
+	}
 
-	private static boolean wasLoopCounterActive;
+	/**
+	 * Returns the number of objects whose previous EPA state is tracked by the
+	 * current thread
+	 */
+	public static int getTrackedObjectCount() {
+		final EPAMonitor monitor = instance;
+		if (monitor == null) {
+			return 0;
+		}
+		return monitor.getContext().getTrackedObjectCount();
+	}
 
-	private static boolean wasExecutionTracerEnabled;
+	/**
+	 * Returns the maximum number of objects tracked by a single thread within a
+	 * test since the last reset
+	 */
+	public static int getMaxTrackedObjectCount() {
+		return maxTrackedObjectCount.get();
+	}
 
-	private static boolean wasTraceCallsEnabled;
+	private static Logger logger = LoggerFactory.getLogger(EPAMonitor.class);
 
+	/**
+	 * Callback for the entry of an @EpaAction method or constructor (see
+	 * {@link #enteredMethod(int, Object)})
+	 */
 	public static void enteredMethod(String className, String fullMethodName, Object object) {
-		logger.debug("Entering method " + className + "." + fullMethodName);
-		if (getInstance().isMonitorEnabled()) {
-			disableCallBacks();
+		enteredMethod(EPACallSites.getCallSiteId(className, fullMethodName), object);
+	}
+
+	/**
+	 * Callback for the entry of an @EpaAction method or constructor
+	 * 
+	 * @param callSiteId
+	 *            the id assigned by {@link EPACallSites} when the method was
+	 *            instrumented
+	 * @param object
+	 *            the callee object (<code>null</code> for static methods)
+	 */
+	public static void enteredMethod(int callSiteId, Object object) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Entering method " + EPACallSites.getClassName(callSiteId) + "."
+					+ EPACallSites.getFullMethodName(callSiteId));
+		}
+		final EPAMonitor monitor = getInstance();
+		final EPAMonitorContext context = monitor.getContext();
+		if (context.isEnabled()) {
+			final String actionName = monitor.getActionName(callSiteId);
+			if (actionName == null) {
+				// not an action
+				return;
+			}
+			EPAMonitorStatistics.actionCalled();
+			context.startTest(currentTestNumber);
+			disableCallBacks(context);
 			try {
-				if (fullMethodName.startsWith(INIT)) {
-					getInstance().beforeConstructor(className, fullMethodName, object);
+				if (EPACallSites.isConstructor(callSiteId)) {
+					monitor.beforeConstructor(context, callSiteId, object);
 				} else {
-					getInstance().beforeMethod(className, fullMethodName, object);
+					monitor.beforeMethod(context, callSiteId, object);
 				}
 			} catch (EvosuiteError e) {
 				throw e;
 			} finally {
-				enableCallBacks();
+				enableCallBacks(context);
 			}
 		}
 
 	}
 
-	private void beforeMethod(String className, String fullMethodName, Object calleeObject) {
-		if (this.methodToActionMap.containsKey(fullMethodName)) {
-			call_stack.push(className + "." + fullMethodName);
-			try {
-				EPAState epa_state = getCurrentState(calleeObject);
-				this.setPreviousEpaState(calleeObject, epa_state);
-			} catch (MalformedEPATraceException e) {
-				throw new EvosuiteError(e);
-			}
+	private void beforeMethod(EPAMonitorContext context, int callSiteId, Object calleeObject) {
+		context.pushCall(callSiteId);
+		try {
+			EPAState epa_state = getCurrentState(context, calleeObject);
+			setPreviousEpaState(context, calleeObject, epa_state);
+		} catch (MalformedEPATraceException e) {
+			throw new EvosuiteError(e);
 		}
 	}
 
-	private final Stack<String> call_stack = new Stack<>();
-
-	private void beforeConstructor(String className, String fullMethodName, Object object) {
-		if (this.constructorToActionMap.containsKey(fullMethodName)) {
-			call_stack.push(className + "." + fullMethodName);
-			EPAState epa_state;
-			if (this.automata == null) {
-				epa_state = EPAState.INITIAL_STATE;
-			} else {
-				epa_state = this.automata.getInitialState();
-			}
-			setPreviousEpaState(object, epa_state);
+	private void beforeConstructor(EPAMonitorContext context, int callSiteId, Object object) {
+		context.pushCall(callSiteId);
+		EPAState epa_state;
+		if (this.automata == null) {
+			epa_state = EPAState.INITIAL_STATE;
+		} else {
+			epa_state = this.automata.getInitialState();
 		}
+		setPreviousEpaState(context, object, epa_state);
 	}
 
-	private void setPreviousEpaState(Object object, EPAState epa_state) {
+	private static void setPreviousEpaState(EPAMonitorContext context, Object object, EPAState epa_state) {
 		if (epa_state == null)
 			throw new IllegalArgumentException("cannot add a null EPA state");
 
-		this.previousEpaState.put(object, epa_state);
+		context.setPreviousEpaState(object, epa_state);
+		final int trackedObjectCount = context.getTrackedObjectCount();
+		int maxCount = maxTrackedObjectCount.get();
+		while (trackedObjectCount > maxCount && !maxTrackedObjectCount.compareAndSet(maxCount, trackedObjectCount)) {
+			maxCount = maxTrackedObjectCount.get();
+		}
 	}
 
+	/**
+	 * Callback for the exit of an @EpaAction method or constructor (see
+	 * {@link #exitMethod(Exception, int, Object)})
+	 */
 	public static void exitMethod(Exception exceptionToBeThrown, String className, String fullMethodName,
 			Object object) {
-		if (exceptionToBeThrown == null) {
-			logger.debug("Exiting method " + className + "." + fullMethodName + " with no exception");
-		} else {
-			logger.debug("Exiting method " + className + "." + fullMethodName + " with exception of type "
-					+ exceptionToBeThrown.getClass().getName());
+		exitMethod(exceptionToBeThrown, EPACallSites.getCallSiteId(className, fullMethodName), object);
+	}
+
+	/**
+	 * Callback for the exit of an @EpaAction method or constructor
+	 * 
+	 * @param exceptionToBeThrown
+	 *            the exception being thrown, or <code>null</code> if the method
+	 *            returns normally
+	 * @param callSiteId
+	 *            the id assigned by {@link EPACallSites} when the method was
+	 *            instrumented
+	 * @param object
+	 *            the callee object (<code>null</code> for static methods)
+	 */
+	public static void exitMethod(Exception exceptionToBeThrown, int callSiteId, Object object) {
+		if (logger.isDebugEnabled()) {
+			final String methodName = EPACallSites.getClassName(callSiteId) + "."
+					+ EPACallSites.getFullMethodName(callSiteId);
+			if (exceptionToBeThrown == null) {
+				logger.debug("Exiting method " + methodName + " with no exception");
+			} else {
+				logger.debug("Exiting method " + methodName + " with exception of type "
+						+ exceptionToBeThrown.getClass().getName());
+			}
 		}
 
-		if (getInstance().isMonitorEnabled()) {
-			disableCallBacks();
+		final EPAMonitor monitor = getInstance();
+		final EPAMonitorContext context = monitor.getContext();
+		if (context.isEnabled()) {
+			final String actionName = monitor.getActionName(callSiteId);
+			if (actionName == null) {
+				// not an action
+				return;
+			}
+			disableCallBacks(context);
 			try {
-				if (fullMethodName.startsWith(INIT)) {
-					getInstance().afterConstructor(className, fullMethodName, object, exceptionToBeThrown);
+				if (EPACallSites.isConstructor(callSiteId)) {
+					monitor.afterConstructor(context, callSiteId, actionName, object, exceptionToBeThrown);
 				} else {
-					getInstance().afterMethod(className, fullMethodName, object, exceptionToBeThrown);
+					monitor.afterMethod(context, callSiteId, actionName, object, exceptionToBeThrown);
 				}
 			} catch (EvosuiteError e) {
 				throw e;
 			} finally {
-				enableCallBacks();
+				enableCallBacks(context);
 			}
 		}
 	}
 
-	private static void enableCallBacks() {
-		EPAMonitor.getInstance().setEnabled(true);
-		LoopCounter.getInstance().setActive(wasLoopCounterActive);
-		if (wasExecutionTracerEnabled) {
-			ExecutionTracer.enable();
+	/**
+	 * Returns the EPA action of the call site, or <code>null</code> if the
+	 * method (or constructor) is not an EPA action
+	 */
+	private String getActionName(int callSiteId) {
+		final String[] actionNames = this.callSiteActionNames;
+		if (callSiteId < actionNames.length) {
+			final String actionName = actionNames[callSiteId];
+			if (actionName != null) {
+				return actionName == NOT_AN_ACTION ? null : actionName;
+			}
+		}
+		return resolveActionName(callSiteId);
+	}
+
+	private synchronized String resolveActionName(int callSiteId) {
+		String[] actionNames = this.callSiteActionNames;
+		if (callSiteId >= actionNames.length) {
+			actionNames = Arrays.copyOf(actionNames, Math.max(callSiteId + 1, actionNames.length * 2));
 		}
-		if (wasTraceCallsEnabled) {
-			ExecutionTracer.enableTraceCalls();
+		final String fullMethodName = EPACallSites.getFullMethodName(callSiteId);
+		final String actionName;
+		if (EPACallSites.isConstructor(callSiteId)) {
+			actionName = this.constructorToActionMap.get(fullMethodName);
+		} else {
+			actionName = this.methodToActionMap.get(fullMethodName);
 		}
+		actionNames[callSiteId] = actionName == null ? NOT_AN_ACTION : actionName;
+		this.callSiteActionNames = actionNames;
+		return actionName;
 	}
 
-	private static void disableCallBacks() {
-		wasLoopCounterActive = LoopCounter.getInstance().isActivated();
-		wasExecutionTracerEnabled = ExecutionTracer.isEnabled();
-		wasTraceCallsEnabled = ExecutionTracer.isTraceCallsEnabled();
+	/**
+	 * Ends the handling of a callback. The calls made by the monitor were not
+	 * traced, and no global flag was changed
+	 */
+	private static void enableCallBacks(EPAMonitorContext context) {
+		MonitorGuard.exit();
+		context.setEnabled(true);
+	}
 
-		LoopCounter.getInstance().setActive(false);
-		ExecutionTracer.disable();
-		ExecutionTracer.disableTraceCalls();
-		EPAMonitor.getInstance().setEnabled(false);
+	/**
+	 * Starts the handling of a callback: until {@link #enableCallBacks} is
+	 * invoked, the calls made by the monitor in the current thread (e.g. to the
+	 * state queries) are neither monitored nor traced
+	 */
+	private static void disableCallBacks(EPAMonitorContext context) {
+		context.setEnabled(false);
+		MonitorGuard.enter();
+	}
+
+	/**
+	 * Removes the most recent call from the call stack and checks that it is the
+	 * call being exited
+	 */
+	private static void popCall(EPAMonitorContext context, int exitedCallSiteId, String callbackName) {
+		final int top = context.popCall();
+		if (top == exitedCallSiteId) {
+			return;
+		}
+		final String exitedCall = EPACallSites.getClassName(exitedCallSiteId) + "."
+				+ EPACallSites.getFullMethodName(exitedCallSiteId);
+		if (top < 0) {
+			throw new EvosuiteError(callbackName + " for " + exitedCall + " but call stack was empty");
+		}
+		throw new EvosuiteError(callbackName + " for " + exitedCall + " but last call on stack was "
+				+ EPACallSites.getClassName(top) + "." + EPACallSites.getFullMethodName(top));
 	}
 
-	private void afterConstructor(String className, String fullConstructorName, Object object,
+	private void afterConstructor(EPAMonitorContext context, int callSiteId, String actionName, Object object,
 			Exception exceptionToBeThrown) {
+		popCall(context, callSiteId, "afterConstructor()");
+		if (exceptionToBeThrown != null) {
+			// no object was created
+			return;
+		}
 		try {
-			// is the methodStmt defined as an EPA Action ?
-			if (exceptionToBeThrown == null && this.constructorToActionMap.containsKey(fullConstructorName)) {
-
-				String top = call_stack.pop();
-				final String classNameAndFullConstructorName = className + "." + fullConstructorName;
-				if (!top.equals(classNameAndFullConstructorName)) {
-					throw new EvosuiteError("afterConstructor() for " + classNameAndFullConstructorName
-							+ " but last call on stack was " + top);
-				}
-
-				final String actionName = this.constructorToActionMap.get(fullConstructorName);
-				EPAState initialState;
-				if (automata == null) {
-					initialState = EPAState.INITIAL_STATE;
-				} else {
-					initialState = automata.getInitialState();
-				}
-				if (!getPreviousEpaState(object).equals(initialState)) {
-					final EPAState previousEpaState = getPreviousEpaState(object);
-					throw new MalformedEPATraceException(
-							"New object cannot have a previous EPA State different than initial: " + previousEpaState);
-				}
-
-				EPAState initialEpaState = getPreviousEpaState(object);
-				final EPAState currentEpaState = getCurrentState(object);
-				final EPATransition transition = new EPANormalTransition(initialEpaState, actionName, currentEpaState);
-				this.appendNewEpaTransition(object, transition);
+			EPAState initialState;
+			if (automata == null) {
+				initialState = EPAState.INITIAL_STATE;
+			} else {
+				initialState = automata.getInitialState();
 			}
+			final EPAState initialEpaState = context.getPreviousEpaState(object);
+			if (!initialEpaState.equals(initialState)) {
+				throw new MalformedEPATraceException(
+						"New object cannot have a previous EPA State different than initial: " + initialEpaState);
+			}
+
+			final EPAState currentEpaState = getCurrentState(context, object);
+			final EPATransition transition = newNormalTransition(initialEpaState, actionName, currentEpaState);
+			this.appendNewEpaTransition(object, transition);
 		} catch (MalformedEPATraceException e) {
 			throw new EvosuiteError(e);
 		}
 
 	}
 
+	private EPATransition newNormalTransition(EPAState originState, String actionName, EPAState destinationState) {
+		if (inferredStateTable != null) {
+			return inferredStateTable.getNormalTransition(originState, actionName, destinationState);
+		}
+		return new EPANormalTransition(originState, actionName, destinationState);
+	}
+
 	private void appendNewEpaTransition(Object object, EPATransition transition) {
 		ExecutionTracer.getExecutionTracer().getTraceNoFinishCalls().appendNewEpaTransition(object, transition);
 	}
 
-	private void afterMethod(String className, String fullMethodName, Object calleeObject,
+	private void afterMethod(EPAMonitorContext context, int callSiteId, String actionName, Object calleeObject,
 			Exception exceptionToBeThrown) throws EvosuiteError {
-		// If method is not an action, then we don't consider it
-		if (this.methodToActionMap.containsKey(fullMethodName)) {
-			try {
+		try {
 
-				String top = call_stack.pop();
-				final String classNameAndFullMethodName = className + "." + fullMethodName;
-				if (!top.equals(classNameAndFullMethodName)) {
-					throw new EvosuiteError(
-							"afterMethod() for " + classNameAndFullMethodName + " but last call on stack was " + top);
-				}
+			popCall(context, callSiteId, "afterMethod()");
 
-				if (!hasPreviousEpaState(calleeObject)) {
-					// this object should have been seen previously!
-					throw new MalformedEPATraceException(
-							"Object has no previous EPA State! Class " + className + " action " + fullMethodName);
-				}
-
-				final String actionName = this.methodToActionMap.get(fullMethodName);
+			if (!context.hasPreviousEpaState(calleeObject)) {
+				// this object should have been seen previously!
+				throw new MalformedEPATraceException("Object has no previous EPA State! Class "
+						+ EPACallSites.getClassName(callSiteId) + " action " + EPACallSites.getFullMethodName(callSiteId));
+			}
 
-				final EPAState previousEpaState = getPreviousEpaState(calleeObject);
-				final EPAState currentEpaState = getCurrentState(calleeObject);
-				final EPATransition transition;
-				if (exceptionToBeThrown == null) {
-					if(!Properties.ALLOWS_ACTION_VIOLATES_PRE && !EPAUtils.isActionEnabledInInferredState(actionName, previousEpaState)) {
-						return;
-					}
-					transition = new EPANormalTransition(previousEpaState, actionName, currentEpaState);
-				} else {
-					String exceptionClassName = exceptionToBeThrown.getClass().getName();
-					transition = new EPAExceptionalTransition(previousEpaState, actionName, currentEpaState,
-							exceptionClassName);
+			final EPAState previousEpaState = context.getPreviousEpaState(calleeObject);
+			final EPAState currentEpaState = getCurrentState(context, calleeObject);
+			final EPATransition transition;
+			if (exceptionToBeThrown == null) {
+				if(!Properties.ALLOWS_ACTION_VIOLATES_PRE && !EPAUtils.isActionEnabledInInferredState(actionName, previousEpaState)) {
+					return;
 				}
-				this.appendNewEpaTransition(calleeObject, transition);
-
-			} catch (MalformedEPATraceException e) {
-				throw new EvosuiteError(e);
+				transition = newNormalTransition(previousEpaState, actionName, currentEpaState);
+			} else {
+				String exceptionClassName = exceptionToBeThrown.getClass().getName();
+				transition = new EPAExceptionalTransition(previousEpaState, actionName, currentEpaState,
+						exceptionClassName);
 			}
+			this.appendNewEpaTransition(calleeObject, transition);
+
+		} catch (MalformedEPATraceException e) {
+			throw new EvosuiteError(e);
+		}
+	}
+
+	/**
+	 * Returns the current EPA state of the object. The state computed last is
+	 * reused if it belongs to the same object and nothing was written since it
+	 * was computed (e.g. the "after" state of an action is the "before" state of
+	 * the next action on the same object).
+	 * 
+	 * @param context
+	 *            the monitoring state of the current thread
+	 * @param calleeObject
+	 *            the object instance
+	 * @return the current EPA state of the given object
+	 * @throws MalformedEPATraceException
+	 *             if object has multiple EPA states
+	 */
+	private EPAState getCurrentState(EPAMonitorContext context, Object calleeObject)
+			throws MalformedEPATraceException {
+		if (!stateQueryCacheEnabled) {
+			return getCurrentState(calleeObject);
 		}
+		// read before the queries, so writes made while they run invalidate the state
+		final long version = EPAWriteVersion.getVersion();
+		EPAState currentState = context.getCachedState(calleeObject, version);
+		if (currentState == null) {
+			currentState = getCurrentState(calleeObject);
+			context.setCachedState(calleeObject, version, currentState);
+		} else {
+			EPAMonitorStatistics.stateQueryCacheHit();
+		}
+		return currentState;
 	}
 
 	/**
@@ -447,6 +715,20 @@ public class EPAMonitor {
 	 * @throws InvocationTargetException
 	 */
 	private EPAState getCurrentState(Object calleeObject) throws MalformedEPATraceException {
+		final long startTime = System.nanoTime();
+		EPAState currentState = null;
+		try {
+			currentState = evaluateCurrentState(calleeObject);
+			return currentState;
+		} finally {
+			final int queryCount = this.automata == null ? preconditionQueryEvaluator.getQueryCount()
+					: stateQueryEvaluator.getQueryCount();
+			EPAMonitorStatistics.stateQueriesEvaluated(queryCount, System.nanoTime() - startTime,
+					currentState == EPAState.INVALID_OBJECT_STATE);
+		}
+	}
+
+	private EPAState evaluateCurrentState(Object calleeObject) throws MalformedEPATraceException {
 		try {
 			EPAState currentState = null;
 			if (this.automata == null) {
@@ -455,21 +737,7 @@ public class EPAMonitor {
 
 			} else {
 
-				for (EPAState epaState : this.automata.getStates()) {
-					if (this.automata.getInitialState().equals(epaState)) {
-						continue; // discard initial states (always false)
-					}
-
-					boolean executionResult = executeEpaStateMethod(epaState, calleeObject);
-					if (executionResult == true) {
-						if (currentState != null) {
-							throw new MalformedEPATraceException("Object found in multiple EPA states: " + currentState
-									+ " and " + epaState + " simultaneously");
-						} else {
-							currentState = epaState;
-						}
-					}
-				}
+				currentState = getCurrentAutomataState(calleeObject);
 			}
 			// if (currentState == null) {
 			// throw new MalformedEPATraceException("Neither EPA state query has returned
@@ -487,7 +755,53 @@ public class EPAMonitor {
 		}
 	}
 
+	/**
+	 * Evaluates all @EpaState queries and returns the only state whose query
+	 * holds, or <code>null</code> if no query holds.
+	 */
+	private EPAState getCurrentAutomataState(Object calleeObject)
+			throws MalformedEPATraceException, InvocationTargetException {
+		EPAState currentState = null;
+		if (stateQueryEvaluator.getQueryCount() <= EPAQueryEvaluator.MAX_BITMASK_QUERIES) {
+			final long queryResults = stateQueryEvaluator.evaluateAll(calleeObject);
+			if (Long.bitCount(queryResults) > 1) {
+				final int firstIndex = Long.numberOfTrailingZeros(queryResults);
+				final int secondIndex = Long.numberOfTrailingZeros(queryResults & (queryResults - 1));
+				throw new MalformedEPATraceException("Object found in multiple EPA states: "
+						+ queriedEpaStates[firstIndex] + " and " + queriedEpaStates[secondIndex] + " simultaneously");
+			}
+			if (queryResults != 0) {
+				currentState = queriedEpaStates[Long.numberOfTrailingZeros(queryResults)];
+			}
+		} else {
+			for (int i = 0; i < queriedEpaStates.length; i++) {
+				if (stateQueryEvaluator.evaluate(calleeObject, i)) {
+					if (currentState != null) {
+						throw new MalformedEPATraceException("Object found in multiple EPA states: " + currentState
+								+ " and " + queriedEpaStates[i] + " simultaneously");
+					}
+					currentState = queriedEpaStates[i];
+				}
+			}
+		}
+		return currentState;
+	}
+
 	private EPAState buildEPAState(Object calleeObject) {
+		if (inferredStateTable != null) {
+			try {
+				final long queryResults = preconditionQueryEvaluator.evaluateAll(calleeObject);
+				long enabledActions = 0L;
+				for (int i = 0; i < preconditionActionBits.length; i++) {
+					if ((queryResults & (1L << i)) != 0) {
+						enabledActions |= preconditionActionBits[i];
+					}
+				}
+				return inferredStateTable.getState(enabledActions);
+			} catch (InvocationTargetException ex) {
+				return EPAState.INVALID_OBJECT_STATE;
+			}
+		}
 
 		TreeMap<String, Boolean> actionEnabledness = new TreeMap<String, Boolean>();
 
@@ -496,14 +810,20 @@ public class EPAMonitor {
 			actionEnabledness.put(actionId, false);
 		}
 		// check enabledness for each actionId
-		for (String actionId : this.actionToPredicateMap.keySet()) {
-			Method booleanQueryMethod = this.actionToPredicateMap.get(actionId);
-			try {
-				boolean booleanQueryResult = executeBooleanQueryMethod(calleeObject, booleanQueryMethod);
-				actionEnabledness.put(actionId, booleanQueryResult);
-			} catch (InvocationTargetException ex) {
-				return EPAState.INVALID_OBJECT_STATE;
+		try {
+			if (preconditionQueryEvaluator.getQueryCount() <= EPAQueryEvaluator.MAX_BITMASK_QUERIES) {
+				final long queryResults = preconditionQueryEvaluator.evaluateAll(calleeObject);
+				for (int i = 0; i < preconditionActionIds.length; i++) {
+					actionEnabledness.put(preconditionActionIds[i], (queryResults & (1L << i)) != 0);
+				}
+			} else {
+				for (int i = 0; i < preconditionActionIds.length; i++) {
+					actionEnabledness.put(preconditionActionIds[i],
+							preconditionQueryEvaluator.evaluate(calleeObject, i));
+				}
 			}
+		} catch (InvocationTargetException ex) {
+			return EPAState.INVALID_OBJECT_STATE;
 		}
 		String epaStateName = buildEPAStateName(actionEnabledness);
 		return new EPAState(epaStateName);
@@ -524,47 +844,4 @@ public class EPAMonitor {
 		return epaStateName;
 	}
 
-	private boolean executeEpaStateMethod(EPAState epaState, Object calleeObject) throws InvocationTargetException {
-		final Method method = this.epaStatesToMethodMap.get(epaState);
-		if (!this.epaStatesToMethodMap.containsKey(epaState)) {
-			throw new EvosuiteError("Boolean query method for state " + epaState + " was not found in class "
-					+ calleeObject.getClass().getName() + " or any superclass");
-		}
-		return executeBooleanQueryMethod(calleeObject, method);
-	}
-
-	private boolean executeBooleanQueryMethod(Object calleeObject, final Method method)
-			throws InvocationTargetException, EvosuiteError {
-		try {
-			boolean isAccessible = method.isAccessible();
-			method.setAccessible(true);
-			Boolean result = (Boolean) method.invoke(calleeObject);
-			method.setAccessible(isAccessible);
-			return result.booleanValue();
-		} catch (SecurityException | IllegalAccessException | IllegalArgumentException e) {
-			throw new EvosuiteError(e);
-		}
-	}
-
-	/**
-	 * Previous state is the destination state in the most recently added transition
-	 * for the calleeObject.
-	 * 
-	 * @param calleeObject
-	 * @return
-	 */
-	private EPAState getPreviousEpaState(Object obj) {
-		return this.previousEpaState.get(obj);
-	}
-
-	/**
-	 * Returns tru if the given object has
-	 * 
-	 * @param obj
-	 * @return
-	 */
-	private boolean hasPreviousEpaState(Object obj) {
-		return this.previousEpaState.containsKey(obj);
-	}
-
 }
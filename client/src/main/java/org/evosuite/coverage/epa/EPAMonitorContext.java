@@ -0,0 +1,150 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * The mutable state of the {@link EPAMonitor} for a single thread. Each thread
+ * executing a test gets its own context, so tests executed concurrently do not
+ * share call stacks or previous states, and no synchronization is needed.
+ */
+class EPAMonitorContext {
+
+	/**
+	 * False while the monitor is handling a callback, so that the calls to the
+	 * state queries are not monitored
+	 */
+	private boolean isEnabled = true;
+
+	/**
+	 * The call sites (see {@link EPACallSites}) of the EPA actions that were
+	 * entered but not exited yet
+	 */
+	private int[] callStack = new int[16];
+
+	private int callStackSize = 0;
+
+	/**
+	 * This map keeps the last EPA state observed for each object
+	 */
+	private final IdentityHashMap<Object, EPAState> previousEpaState = new IdentityHashMap<>();
+
+	/**
+	 * The test whose objects are tracked in <code>previousEpaState</code>
+	 */
+	private int testNumber;
+
+	/**
+	 * The last object whose EPA state was computed (see
+	 * {@link #getCachedState(Object, long)})
+	 */
+	private Object cachedStateObject = null;
+
+	private EPAState cachedState = null;
+
+	/**
+	 * The {@link EPAWriteVersion} read before computing the cached state
+	 */
+	private long cachedStateVersion;
+
+	boolean isEnabled() {
+		return isEnabled;
+	}
+
+	void setEnabled(boolean enabled) {
+		this.isEnabled = enabled;
+	}
+
+	void pushCall(int callSiteId) {
+		if (callStackSize == callStack.length) {
+			callStack = Arrays.copyOf(callStack, callStack.length * 2);
+		}
+		callStack[callStackSize++] = callSiteId;
+	}
+
+	/**
+	 * Removes the most recent call, or returns -1 if the call stack is empty
+	 */
+	int popCall() {
+		if (callStackSize == 0) {
+			return -1;
+		}
+		return callStack[--callStackSize];
+	}
+
+	/**
+	 * Drops the calls and the objects tracked for a previous test. The calls of
+	 * actions left by a propagated exception (which are never exited) are
+	 * dropped too.
+	 *
+	 * @param currentTestNumber
+	 */
+	void startTest(int currentTestNumber) {
+		if (testNumber != currentTestNumber) {
+			callStackSize = 0;
+			previousEpaState.clear();
+			clearCachedState();
+			testNumber = currentTestNumber;
+		}
+	}
+
+	/**
+	 * Returns the number of actions entered but not exited yet
+	 */
+	int getCallDepth() {
+		return callStackSize;
+	}
+
+	/**
+	 * Returns the number of objects whose previous EPA state is tracked
+	 */
+	int getTrackedObjectCount() {
+		return previousEpaState.size();
+	}
+
+	EPAState getPreviousEpaState(Object obj) {
+		return previousEpaState.get(obj);
+	}
+
+	boolean hasPreviousEpaState(Object obj) {
+		return previousEpaState.containsKey(obj);
+	}
+
+	void setPreviousEpaState(Object obj, EPAState epaState) {
+		previousEpaState.put(obj, epaState);
+	}
+
+	/**
+	 * Returns the cached EPA state of the object if nothing was written since
+	 * it was computed, or null otherwise
+	 *
+	 * @param obj
+	 * @param version
+	 *            the current {@link EPAWriteVersion}
+	 */
+	EPAState getCachedState(Object obj, long version) {
+		if (cachedState != null && cachedStateObject == obj && cachedStateVersion == version) {
+			return cachedState;
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the EPA state of the object
+	 *
+	 * @param obj
+	 * @param version
+	 *            the {@link EPAWriteVersion} read before computing the state
+	 * @param epaState
+	 */
+	void setCachedState(Object obj, long version, EPAState epaState) {
+		cachedStateObject = obj;
+		cachedStateVersion = version;
+		cachedState = epaState;
+	}
+
+	void clearCachedState() {
+		cachedStateObject = null;
+		cachedState = null;
+	}
+}
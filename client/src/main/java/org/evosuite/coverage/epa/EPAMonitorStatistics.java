@@ -0,0 +1,182 @@
+package org.evosuite.coverage.epa;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of the work done by the {@link EPAMonitor}, reported
+ * as output variables by {@link org.evosuite.statistics.StatisticsSender}.
+ * Counters are striped (see {@link LongAdder}), so threads executing tests
+ * concurrently do not contend to update them.
+ *
+ * Unlike the state of the monitor, the counters are not cleared when the
+ * monitor is reset (e.g. when the SUT is reloaded for the coverage
+ * analysis), so they cover the whole run. This includes the final execution
+ * of the resulting test suite done by
+ * {@link org.evosuite.statistics.StatisticsSender#executedAndThenSendIndividualToMaster}
+ * right before the counters are reported.
+ */
+public abstract class EPAMonitorStatistics {
+
+	/**
+	 * Exclusive upper bounds (in nanoseconds) of the buckets of the query time
+	 * histogram: 1us, 10us, 100us, 1ms, 10ms and 100ms. The last bucket counts
+	 * the longer evaluations.
+	 */
+	private static final long[] QUERY_TIME_BUCKET_BOUNDS = { 1000L, 10000L, 100000L, 1000000L, 10000000L,
+			100000000L };
+
+	private static final LongAdder actionCalls = new LongAdder();
+
+	private static final LongAdder stateQueryEvaluations = new LongAdder();
+
+	private static final LongAdder queryInvocations = new LongAdder();
+
+	private static final LongAdder stateQueryCacheHits = new LongAdder();
+
+	private static final LongAdder invalidObjectStates = new LongAdder();
+
+	private static final LongAdder queryTimeNanos = new LongAdder();
+
+	private static final AtomicLong maxQueryTimeNanos = new AtomicLong(0);
+
+	private static final LongAdder[] queryTimeHistogram = newHistogram();
+
+	private static LongAdder[] newHistogram() {
+		final LongAdder[] histogram = new LongAdder[QUERY_TIME_BUCKET_BOUNDS.length + 1];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = new LongAdder();
+		}
+		return histogram;
+	}
+
+	/**
+	 * An EPA action was entered
+	 */
+	static void actionCalled() {
+		actionCalls.increment();
+	}
+
+	/**
+	 * The EPA state of an object was reused instead of evaluating its queries
+	 */
+	static void stateQueryCacheHit() {
+		stateQueryCacheHits.increment();
+	}
+
+	/**
+	 * The state (or precondition) queries of an object were evaluated
+	 *
+	 * @param queryCount
+	 *            the number of queries evaluated
+	 * @param nanos
+	 *            the time spent evaluating them
+	 * @param invalidObjectState
+	 *            true if the object was found in an invalid state
+	 */
+	static void stateQueriesEvaluated(int queryCount, long nanos, boolean invalidObjectState) {
+		stateQueryEvaluations.increment();
+		queryInvocations.add(queryCount);
+		queryTimeNanos.add(nanos);
+		queryTimeHistogram[getBucket(nanos)].increment();
+		if (invalidObjectState) {
+			invalidObjectStates.increment();
+		}
+		long max = maxQueryTimeNanos.get();
+		while (nanos > max && !maxQueryTimeNanos.compareAndSet(max, nanos)) {
+			max = maxQueryTimeNanos.get();
+		}
+	}
+
+	private static int getBucket(long nanos) {
+		int bucket = 0;
+		while (bucket < QUERY_TIME_BUCKET_BOUNDS.length && nanos >= QUERY_TIME_BUCKET_BOUNDS[bucket]) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Returns the number of calls to EPA actions
+	 */
+	public static long getActionCalls() {
+		return actionCalls.sum();
+	}
+
+	/**
+	 * Returns the number of times the queries of an object were evaluated to
+	 * compute its EPA state
+	 */
+	public static long getStateQueryEvaluations() {
+		return stateQueryEvaluations.sum();
+	}
+
+	/**
+	 * Returns the number of query methods invoked
+	 */
+	public static long getQueryInvocations() {
+		return queryInvocations.sum();
+	}
+
+	/**
+	 * Returns the number of EPA states reused without evaluating the queries
+	 */
+	public static long getStateQueryCacheHits() {
+		return stateQueryCacheHits.sum();
+	}
+
+	/**
+	 * Returns the number of evaluations that found an object in the
+	 * {@link EPAState#INVALID_OBJECT_STATE}
+	 */
+	public static long getInvalidObjectStates() {
+		return invalidObjectStates.sum();
+	}
+
+	/**
+	 * Returns the total time spent evaluating queries, in milliseconds
+	 */
+	public static long getQueryTimeMillis() {
+		return queryTimeNanos.sum() / 1000000L;
+	}
+
+	/**
+	 * Returns the longest time spent in a single evaluation of the queries of an
+	 * object, in microseconds
+	 */
+	public static long getMaxQueryTimeMicros() {
+		return maxQueryTimeNanos.get() / 1000L;
+	}
+
+	/**
+	 * Returns the number of evaluations that took less than 1us, 10us, 100us,
+	 * 1ms, 10ms, 100ms and longer, separated by semicolons
+	 */
+	public static String getQueryTimeHistogram() {
+		final StringBuilder histogram = new StringBuilder();
+		for (int i = 0; i < queryTimeHistogram.length; i++) {
+			if (i > 0) {
+				histogram.append(';');
+			}
+			histogram.append(queryTimeHistogram[i].sum());
+		}
+		return histogram.toString();
+	}
+
+	/**
+	 * Clears the counters. Only tests reset them, so that the reported counters
+	 * cover the whole run
+	 */
+	static void reset() {
+		actionCalls.reset();
+		stateQueryEvaluations.reset();
+		queryInvocations.reset();
+		stateQueryCacheHits.reset();
+		invalidObjectStates.reset();
+		queryTimeNanos.reset();
+		maxQueryTimeNanos.set(0);
+		for (LongAdder bucket : queryTimeHistogram) {
+			bucket.reset();
+		}
+	}
+}
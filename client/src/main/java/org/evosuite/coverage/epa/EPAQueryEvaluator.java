@@ -0,0 +1,142 @@
+package org.evosuite.coverage.epa;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.evosuite.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates an ordered list of boolean query methods (i.e. methods annotated
+ * with EpaState or EpaActionPrecondition) on a given object. The result of
+ * evaluating all queries is returned as a bitmask where bit <code>i</code> is
+ * set iff the <code>i</code>-th query returned <code>true</code>.
+ *
+ * Evaluators are cached per target class, so all monitors observing the same
+ * class share the same bound query methods.
+ */
+public abstract class EPAQueryEvaluator {
+
+	private static final Logger logger = LoggerFactory.getLogger(EPAQueryEvaluator.class);
+
+	/**
+	 * The maximum number of queries that can be evaluated in a single call to
+	 * <code>evaluateAll()</code>
+	 */
+	public static final int MAX_BITMASK_QUERIES = Long.SIZE;
+
+	private static final Map<Class<?>, Map<String, EPAQueryEvaluator>> evaluatorCache = new HashMap<>();
+
+	private final Method[] queries;
+
+	protected EPAQueryEvaluator(Method[] queries) {
+		this.queries = queries;
+	}
+
+	/**
+	 * Returns the number of queries of this evaluator
+	 *
+	 * @return
+	 */
+	public int getQueryCount() {
+		return queries.length;
+	}
+
+	public Method getQuery(int queryIndex) {
+		return queries[queryIndex];
+	}
+
+	/**
+	 * Evaluates the query at position <code>queryIndex</code>
+	 *
+	 * @param calleeObject
+	 *            the object where the query is evaluated
+	 * @param queryIndex
+	 *            the index of the query
+	 * @return the boolean value returned by the query
+	 * @throws InvocationTargetException
+	 *             if the query signalled an exception
+	 */
+	public abstract boolean evaluate(Object calleeObject, int queryIndex) throws InvocationTargetException;
+
+	/**
+	 * Evaluates all queries and returns the bitmask of results.
+	 *
+	 * @param calleeObject
+	 *            the object where the queries are evaluated
+	 * @return a bitmask where bit <code>i</code> is set iff query <code>i</code>
+	 *         returned <code>true</code>
+	 * @throws InvocationTargetException
+	 *             if any query signalled an exception
+	 */
+	public long evaluateAll(Object calleeObject) throws InvocationTargetException {
+		if (queries.length > MAX_BITMASK_QUERIES) {
+			throw new IllegalStateException("Cannot evaluate more than " + MAX_BITMASK_QUERIES
+					+ " queries in a single bitmask: " + queries.length);
+		}
+		long mask = 0L;
+		for (int i = 0; i < queries.length; i++) {
+			if (evaluate(calleeObject, i)) {
+				mask |= (1L << i);
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns an evaluator for the given (ordered) list of query methods of the
+	 * target class. Evaluators are cached per target class.
+	 *
+	 * @param targetClass
+	 * @param queries
+	 * @return
+	 */
+	public static synchronized EPAQueryEvaluator getEvaluator(Class<?> targetClass, List<Method> queries) {
+		final String key = buildCacheKey(queries);
+		Map<String, EPAQueryEvaluator> evaluatorsForClass = evaluatorCache.get(targetClass);
+		if (evaluatorsForClass == null) {
+			evaluatorsForClass = new HashMap<>();
+			evaluatorCache.put(targetClass, evaluatorsForClass);
+		}
+		EPAQueryEvaluator evaluator = evaluatorsForClass.get(key);
+		if (evaluator == null) {
+			evaluator = createEvaluator(queries.toArray(new Method[0]));
+			evaluatorsForClass.put(key, evaluator);
+		}
+		return evaluator;
+	}
+
+	private static EPAQueryEvaluator createEvaluator(Method[] queries) {
+		if (Properties.EPA_COMPILED_STATE_QUERIES) {
+			try {
+				return new MethodHandleEPAQueryEvaluator(queries);
+			} catch (IllegalAccessException | SecurityException e) {
+				logger.debug("Could not bind EPA queries using method handles, falling back to reflection: {}",
+						e.getMessage());
+			}
+		}
+		return new ReflectiveEPAQueryEvaluator(queries);
+	}
+
+	private static String buildCacheKey(List<Method> queries) {
+		StringBuilder sb = new StringBuilder();
+		for (Method query : queries) {
+			sb.append(query.getDeclaringClass().getName());
+			sb.append('.');
+			sb.append(query.getName());
+			sb.append(';');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Drops all cached evaluators (e.g. when the SUT classloader is replaced)
+	 */
+	public static synchronized void clearCache() {
+		evaluatorCache.clear();
+	}
+}
@@ -33,30 +33,37 @@ public class EPAState implements Serializable {
 
 	@Override
 	public String toString() {
-		return "EPAState{" + "name='" + name + '\'' + '}';
+		return "EPAState{" + "name='" + getName() + '\'' + '}';
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		final String name = getName();
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
 		return result;
 	}
 
+	/**
+	 * Two states are equal if they have the same name, regardless of how the
+	 * name is represented (see {@link InferredEPAState})
+	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
 		if (obj == null)
 			return false;
-		if (getClass() != obj.getClass())
+		if (!(obj instanceof EPAState))
 			return false;
 		EPAState other = (EPAState) obj;
+		final String name = getName();
+		final String otherName = other.getName();
 		if (name == null) {
-			if (other.name != null)
+			if (otherName != null)
 				return false;
-		} else if (!name.equals(other.name))
+		} else if (!name.equals(otherName))
 			return false;
 		return true;
 	}
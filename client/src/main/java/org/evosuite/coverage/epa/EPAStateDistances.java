@@ -0,0 +1,117 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shortest distances (in number of actions) between the states of an EPA. The
+ * EPA is unweighted, so the distances to a state are computed with a breadth
+ * first search over the reversed EPA, the first time they are needed, and
+ * cached. Once every state was queried as a target, the cache holds all pairs
+ * of distances.
+ */
+public class EPAStateDistances {
+
+	/**
+	 * Distance to a state that cannot be reached
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final EPA epa;
+
+	/**
+	 * Ids of the origin states of the incoming transitions of each state
+	 */
+	private final int[][] predecessors;
+
+	/**
+	 * Distances from every state to each target state, or null if they were not
+	 * computed yet
+	 */
+	private final AtomicReferenceArray<int[]> distancesTo;
+
+	public EPAStateDistances(EPA epa) {
+		this.epa = epa;
+		final int stateCount = epa.getStateCount();
+		final int[] incomingCount = new int[stateCount];
+		for (EPATransition transition : epa.getTransitions()) {
+			incomingCount[epa.getStateId(transition.getDestinationState())]++;
+		}
+		this.predecessors = new int[stateCount][];
+		for (int i = 0; i < stateCount; i++) {
+			predecessors[i] = new int[incomingCount[i]];
+		}
+		final int[] filled = new int[stateCount];
+		for (EPATransition transition : epa.getTransitions()) {
+			final int destination = epa.getStateId(transition.getDestinationState());
+			predecessors[destination][filled[destination]++] = epa.getStateId(transition.getOriginState());
+		}
+		this.distancesTo = new AtomicReferenceArray<>(stateCount);
+	}
+
+	/**
+	 * Returns the minimum number of actions needed to go from one state to the
+	 * other, or {@link #UNREACHABLE}
+	 *
+	 * @param originStateId
+	 * @param targetStateId
+	 * @return
+	 */
+	public int getDistance(int originStateId, int targetStateId) {
+		return getDistancesTo(targetStateId)[originStateId];
+	}
+
+	/**
+	 * Returns the minimum number of actions needed to go from one state to the
+	 * other, or {@link #UNREACHABLE} (also if a state does not belong to the EPA)
+	 *
+	 * @param originState
+	 * @param targetState
+	 * @return
+	 */
+	public int getDistance(EPAState originState, EPAState targetState) {
+		final int originStateId = epa.getStateId(originState);
+		final int targetStateId = epa.getStateId(targetState);
+		if (originStateId < 0 || targetStateId < 0) {
+			return UNREACHABLE;
+		}
+		return getDistance(originStateId, targetStateId);
+	}
+
+	/**
+	 * Returns the distances from every state (indexed by state id) to the target
+	 * state. The returned array must not be modified.
+	 *
+	 * @param targetStateId
+	 * @return
+	 */
+	public int[] getDistancesTo(int targetStateId) {
+		int[] distances = distancesTo.get(targetStateId);
+		if (distances == null) {
+			// racing threads compute the same distances
+			distances = computeDistancesTo(targetStateId);
+			distancesTo.set(targetStateId, distances);
+		}
+		return distances;
+	}
+
+	private int[] computeDistancesTo(int targetStateId) {
+		final int[] distances = new int[predecessors.length];
+		Arrays.fill(distances, UNREACHABLE);
+		final int[] queue = new int[predecessors.length];
+		int head = 0;
+		int tail = 0;
+		distances[targetStateId] = 0;
+		queue[tail++] = targetStateId;
+		while (head < tail) {
+			final int state = queue[head++];
+			for (int predecessor : predecessors[state]) {
+				if (distances[predecessor] == UNREACHABLE) {
+					distances[predecessor] = distances[state] + 1;
+					queue[tail++] = predecessor;
+				}
+			}
+		}
+		return distances;
+	}
+}
@@ -1,6 +1,7 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -27,6 +28,8 @@ public abstract class EPASuiteFitness extends TestSuiteFitnessFunction {
 
 	private final Map<String, EPATransitionCoverageTestFitness> coverageGoalMap;
 
+	private final EPATransitionGoalIndex<EPATransitionCoverageTestFitness> goalIndex;
+
 	public EPASuiteFitness(String epaXMLFilename) {
 		if (epaXMLFilename == null) {
 			throw new IllegalArgumentException("epa XML Filename cannot be null");
@@ -38,6 +41,7 @@ public abstract class EPASuiteFitness extends TestSuiteFitnessFunction {
 
 			this.epa = target_epa;
 			this.coverageGoalMap = buildCoverageGoalMap(getGoalFactory(this.epa));
+			this.goalIndex = buildGoalIndex(this.coverageGoalMap.values());
 
 		} catch (ParserConfigurationException | SAXException | IOException e) {
 			throw new EvosuiteError(e);
@@ -62,6 +66,15 @@ public abstract class EPASuiteFitness extends TestSuiteFitnessFunction {
 		return coverageGoalMap;
 	}
 
+	private static EPATransitionGoalIndex<EPATransitionCoverageTestFitness> buildGoalIndex(
+			Collection<EPATransitionCoverageTestFitness> goals) {
+		EPATransitionGoalIndex<EPATransitionCoverageTestFitness> goalIndex = new EPATransitionGoalIndex<>();
+		for (EPATransitionCoverageTestFitness goal : goals) {
+			goalIndex.addGoal(goal.getEPATransition(), goal);
+		}
+		return goalIndex;
+	}
+
 	protected static void checkEPAStates(EPA epa, String className) {
 		try {
 			for (EPAState epaState : epa.getStates()) {
@@ -98,14 +111,10 @@ public abstract class EPASuiteFitness extends TestSuiteFitnessFunction {
 	@Override
 	public final double getFitness(AbstractTestSuiteChromosome<? extends ExecutableChromosome> suiteChromosome) {
 
-		long coveredGoalsCount = 0;
 		final List<ExecutionResult> executionResults = runTestSuite(suiteChromosome);
+		final BitSet coveredGoals = goalIndex.getCoveredGoals(executionResults);
+		final long coveredGoalsCount = coveredGoals.cardinality();
 		final Collection<EPATransitionCoverageTestFitness> goals = getCoverageGoalMap().values();
-		for (EPATransitionCoverageTestFitness goal : goals) {
-			if (goal.isCoveredByResults(executionResults)) {
-				coveredGoalsCount++;
-			}
-		}
 		final double fitness = goals.size() - coveredGoalsCount;
 		updateIndividual(this, suiteChromosome, fitness);
 		final double coverage = (goals.size() > 0) ? (coveredGoalsCount / (double) goals.size()) : 0;
@@ -20,6 +20,21 @@ public class EPATrace {
 		return epaTransitions;
 	}
 
+	/**
+	 * Returns the id (see {@link EPATransitionDictionary}) of the transition at
+	 * the given position. Traces recorded during execution already store ids, so
+	 * no lookup is needed.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public int getEpaTransitionId(int index) {
+		if (epaTransitions instanceof EPATraceBuffer.TransitionListView) {
+			return ((EPATraceBuffer.TransitionListView) epaTransitions).getTransitionId(index);
+		}
+		return EPATransitionDictionary.getInstance().getId(epaTransitions.get(index));
+	}
+
 	public EPAState getFirstState() {
 		if (this.epaTransitions.isEmpty()) {
 			throw new IllegalStateException("Trace is empty!");
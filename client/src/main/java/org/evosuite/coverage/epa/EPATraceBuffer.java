@@ -0,0 +1,135 @@
+package org.evosuite.coverage.epa;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Append-only storage for the EPA transitions observed on each distinct object
+ * of the target class (objects are compared by identity). Each trace is kept
+ * as an int array of transition ids (see {@link EPATransitionDictionary}).
+ *
+ * The set of traces returned by {@link #getEPATraces()} is built lazily and
+ * cached until a new transition is appended. The transition lists of those
+ * traces are read-only views over the id arrays, so no transitions are copied.
+ */
+public class EPATraceBuffer {
+
+	private static final int INITIAL_TRACE_CAPACITY = 8;
+
+	private final EPATransitionDictionary dictionary = EPATransitionDictionary.getInstance();
+
+	private final Map<Object, TransitionIds> traces = new IdentityHashMap<>();
+
+	private Set<EPATrace> cachedEPATraces = null;
+
+	private static class TransitionIds {
+
+		private int[] ids;
+
+		private int size;
+
+		TransitionIds(int[] ids, int size) {
+			this.ids = ids;
+			this.size = size;
+		}
+
+		void add(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, ids.length * 2);
+			}
+			ids[size++] = id;
+		}
+	}
+
+	/**
+	 * Read-only view over the first <code>size</code> ids of an array. Since ids
+	 * are only appended (and a full array is replaced instead of being modified),
+	 * the view does not change after it was created.
+	 */
+	static class TransitionListView extends AbstractList<EPATransition> implements RandomAccess {
+
+		private final EPATransitionDictionary dictionary;
+
+		private final int[] ids;
+
+		private final int size;
+
+		TransitionListView(EPATransitionDictionary dictionary, int[] ids, int size) {
+			this.dictionary = dictionary;
+			this.ids = ids;
+			this.size = size;
+		}
+
+		@Override
+		public EPATransition get(int index) {
+			return dictionary.getTransition(getTransitionId(index));
+		}
+
+		int getTransitionId(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return ids[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	public void append(Object object, EPATransition transition) {
+		TransitionIds trace = traces.get(object);
+		if (trace == null) {
+			trace = new TransitionIds(new int[INITIAL_TRACE_CAPACITY], 0);
+			traces.put(object, trace);
+		}
+		trace.add(dictionary.getId(transition));
+		cachedEPATraces = null;
+	}
+
+	/**
+	 * Returns an unmodifiable set with the (distinct) traces observed so far
+	 *
+	 * @return
+	 */
+	public Set<EPATrace> getEPATraces() {
+		if (cachedEPATraces == null) {
+			final Set<EPATrace> epaTraces = new LinkedHashSet<>();
+			for (TransitionIds trace : traces.values()) {
+				final List<EPATransition> transitions = new TransitionListView(dictionary, trace.ids, trace.size);
+				epaTraces.add(new EPATrace(transitions));
+			}
+			cachedEPATraces = Collections.unmodifiableSet(epaTraces);
+		}
+		return cachedEPATraces;
+	}
+
+	public boolean isEmpty() {
+		return traces.isEmpty();
+	}
+
+	public void clear() {
+		traces.clear();
+		cachedEPATraces = null;
+	}
+
+	/**
+	 * Returns a deep copy of this buffer
+	 */
+	public EPATraceBuffer copy() {
+		final EPATraceBuffer copy = new EPATraceBuffer();
+		for (Map.Entry<Object, TransitionIds> entry : traces.entrySet()) {
+			final TransitionIds trace = entry.getValue();
+			copy.traces.put(entry.getKey(), new TransitionIds(Arrays.copyOf(trace.ids, trace.ids.length), trace.size));
+		}
+		return copy;
+	}
+}
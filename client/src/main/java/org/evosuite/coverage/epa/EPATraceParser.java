@@ -0,0 +1,107 @@
+package org.evosuite.coverage.epa;
+
+/**
+ * Builds the EPA transitions of a trace of method calls one call at a time.
+ *
+ * A transition is reported by the sequence of calls
+ * <code>reportState&lt;State&gt;()</code>, <code>reportState()V</code>,
+ * <code>&lt;action&gt;</code>: the destination state is taken from the call
+ * before <code>reportState()V</code>, and the action is the call after it.
+ * The parser only keeps the current state and the last call, so a trace is
+ * parsed in a single pass and in constant memory, no matter how long it is.
+ */
+public class EPATraceParser {
+
+	public static final String REPORT_STATE_METHOD_NAME = "reportState()V";
+
+	private static final String REPORT_STATE_PREFIX = "reportState";
+
+	/**
+	 * Execution of reportState() was interrupted by EvoSuite
+	 */
+	private static final String TOO_MANY_RESOURCES_STATE_NAME = "TooManyResourcesException";
+
+	private final EPA epa;
+
+	private EPAState currentOriginState;
+
+	/**
+	 * The last call since the last transition, or null if there is none
+	 */
+	private String lastCall = null;
+
+	/**
+	 * The destination of the transition whose action is the next call, or null
+	 * if the next call is not an action
+	 */
+	private EPAState pendingDestinationState = null;
+
+	private boolean finished = false;
+
+	public EPATraceParser(EPA epa) {
+		this.epa = epa;
+		this.currentOriginState = epa.getInitialState();
+	}
+
+	/**
+	 * Consumes the next call of the trace
+	 *
+	 * @param call
+	 * @return the transition completed by the call, or null if the call does not
+	 *         complete a transition
+	 * @throws MalformedEPATraceException
+	 *             if the call reports a state that does not belong to the EPA
+	 */
+	public EPATransition accept(String call) throws MalformedEPATraceException {
+		if (finished) {
+			return null;
+		}
+		if (pendingDestinationState != null) {
+			final EPATransition transition = new EPANormalTransition(currentOriginState, call,
+					pendingDestinationState);
+			currentOriginState = pendingDestinationState;
+			pendingDestinationState = null;
+			// the action cannot report the next state
+			lastCall = null;
+			return transition;
+		}
+		if (!call.equals(REPORT_STATE_METHOD_NAME)) {
+			lastCall = call;
+			return null;
+		}
+		if (lastCall == null) {
+			throw new MalformedEPATraceException("Call to " + REPORT_STATE_METHOD_NAME + " without a reported state");
+		}
+		final String destinationStateName = getStateNameFromReportStateMethodName(lastCall);
+		if (destinationStateName.equals(TOO_MANY_RESOURCES_STATE_NAME)) {
+			// We cannot consider the last transition
+			finished = true;
+			return null;
+		}
+		final EPAState destinationState = epa.getStateByName(destinationStateName);
+		if (destinationState == null) {
+			throw new MalformedEPATraceException("State \"" + destinationStateName + "\" does not belong to EPA");
+		}
+		pendingDestinationState = destinationState;
+		return null;
+	}
+
+	/**
+	 * Returns true if the rest of the trace cannot report transitions
+	 *
+	 * @return
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	private static String getStateNameFromReportStateMethodName(final String methodName) {
+		int end = methodName.indexOf('(');
+		if (end < 0) {
+			end = methodName.length();
+		}
+		final String name = methodName.substring(0, end);
+		return name.startsWith(REPORT_STATE_PREFIX) ? name.substring(REPORT_STATE_PREFIX.length())
+				: name.replaceFirst(REPORT_STATE_PREFIX, "");
+	}
+}
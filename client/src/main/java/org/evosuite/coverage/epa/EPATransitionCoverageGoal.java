@@ -3,6 +3,7 @@ package org.evosuite.coverage.epa;
 import java.io.IOException;
 import java.io.Serializable;
 
+import org.evosuite.Properties;
 import org.evosuite.testcase.execution.ExecutionResult;
 
 public class EPATransitionCoverageGoal implements Serializable, Comparable<EPATransitionCoverageGoal> {
@@ -65,10 +66,24 @@ public class EPATransitionCoverageGoal implements Serializable, Comparable<EPATr
 	 * the execution trace has a INVALID_OBJECT_STATE, the rest of the trace is
 	 * discarded.
 	 * 
+	 * If {@link Properties#EPA_TRANSITION_GRAPH_DISTANCE} is enabled, an execution
+	 * trace that does not cover the transition but reaches a state from which
+	 * the origin of the transition can be reached gets a value in [0.5, 1.0),
+	 * the closer the state the lower the value.
+	 * 
 	 * @param result
 	 * @return
 	 */
 	public double getDistance(ExecutionResult result) {
+		final boolean graphDistance = Properties.EPA_TRANSITION_GRAPH_DISTANCE && epa != null;
+		int[] distancesToOrigin = null;
+		int minDistance = EPAStateDistances.UNREACHABLE;
+		if (graphDistance) {
+			final int originStateId = epa.getStateId(transition.getOriginState());
+			if (originStateId >= 0) {
+				distancesToOrigin = epa.getStateDistances().getDistancesTo(originStateId);
+			}
+		}
 		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
 			for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
 				if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
@@ -78,9 +93,24 @@ public class EPATransitionCoverageGoal implements Serializable, Comparable<EPATr
 				if (this.transition.equals(epa_transition)) {
 					return 0.0;
 				}
+				if (distancesToOrigin != null) {
+					minDistance = Math.min(minDistance, getDistance(distancesToOrigin, epa_transition.getOriginState()));
+					minDistance = Math.min(minDistance,
+							getDistance(distancesToOrigin, epa_transition.getDestinationState()));
+				}
 			}
 		}
-		return 1.0;
+		if (minDistance == EPAStateDistances.UNREACHABLE) {
+			return 1.0;
+		}
+		// normalized number of actions needed to reach the origin and take the transition
+		final double actions = minDistance + 1;
+		return actions / (actions + 1.0);
+	}
+
+	private int getDistance(int[] distancesToOrigin, EPAState state) {
+		final int stateId = epa.getStateId(state);
+		return stateId < 0 ? EPAStateDistances.UNREACHABLE : distancesToOrigin[stateId];
 	}
 
 	private void writeObject(java.io.ObjectOutputStream out) throws IOException {
@@ -1,9 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -19,7 +18,9 @@ import org.xml.sax.SAXException;
 /**
  * This fitness function counts the degree of covered normal transitions in the
  * EPA automata. It is a minimization function (less is better). The value 0.0
- * means all transitions were covered.
+ * means all transitions were covered. If
+ * {@link Properties#EPA_TRANSITION_GRAPH_DISTANCE} is enabled, each uncovered
+ * transition adds the distance of the closest test to it instead of 1.
  * 
  * @author galeotti
  *
@@ -28,6 +29,7 @@ public class EPATransitionCoverageSuiteFitness extends TestSuiteFitnessFunction
 
 	private static final long serialVersionUID = -130694090671398370L;
 	private final List<EPATransitionCoverageTestFitness> goals;
+	private final EPATransitionGoalIndex<EPATransitionCoverageTestFitness> goalIndex;
 	private final EPA epa;
 
 	public EPATransitionCoverageSuiteFitness(String epaXMLFilename) {
@@ -41,6 +43,10 @@ public class EPATransitionCoverageSuiteFitness extends TestSuiteFitnessFunction
 		}
 		EPATransitionCoverageFactory goalFactory = new EPATransitionCoverageFactory(target_epa);
 		this.goals = goalFactory.getCoverageGoals();
+		this.goalIndex = new EPATransitionGoalIndex<>();
+		for (EPATransitionCoverageTestFitness goal : this.goals) {
+			this.goalIndex.addGoal(goal.getEPATransition(), goal);
+		}
 		this.epa = target_epa;
  	}
 
@@ -48,9 +54,10 @@ public class EPATransitionCoverageSuiteFitness extends TestSuiteFitnessFunction
 	public double getFitness(AbstractTestSuiteChromosome<? extends ExecutableChromosome> suite) {
 		final List<ExecutionResult> executionResults = runTestSuite(suite);
 		
-		Set<EPATransitionCoverageTestFitness> goalsCoveredByResult = calculateEPATransitionInfo(executionResults, this);
+		final BitSet goalsCoveredByResult = goalIndex.getCoveredGoals(executionResults);
 		
 		if (Properties.TEST_ARCHIVE) {
+			updateArchive(executionResults, this);
 			// If we are using the archive, then fitness is by definition 0
 			// as all assertions already covered are in the archive
 			suite.setFitness(this, 0.0);
@@ -58,20 +65,39 @@ public class EPATransitionCoverageSuiteFitness extends TestSuiteFitnessFunction
 			return 0.0;
 		}
 		
-		long coveredGoalsCount = goalsCoveredByResult.size();
+		long coveredGoalsCount = goalsCoveredByResult.cardinality();
 		final double coverage = (this.goals.size() > 0) ? (coveredGoalsCount / (double) this.goals.size()) : 1;
-		final double fitness = (1 - coverage);
+		final double fitness;
+		if (Properties.EPA_TRANSITION_GRAPH_DISTANCE && this.goals.size() > 0) {
+			fitness = getUncoveredGoalsDistance(executionResults, goalsCoveredByResult) / this.goals.size();
+		} else {
+			fitness = (1 - coverage);
+		}
 		updateIndividual(this, suite, fitness);
 		suite.setCoverage(this, coverage);
 		suite.setNumOfCoveredGoals(this, (int) coveredGoalsCount);
 		suite.setNumOfNotCoveredGoals(this, (int) (this.goals.size() - coveredGoalsCount));
 		return fitness;
 	}
-	
-	
-	private Set<EPATransitionCoverageTestFitness> calculateEPATransitionInfo(List<ExecutionResult> results, EPATransitionCoverageSuiteFitness contextFitness) {
-		Set<EPATransitionCoverageTestFitness> goalsCoveredByResults = new HashSet<>();
-		
+
+	/**
+	 * Sums the distance of each uncovered goal to the closest result
+	 */
+	private double getUncoveredGoalsDistance(List<ExecutionResult> results, BitSet coveredGoals) {
+		double distance = 0.0;
+		for (int goalId = coveredGoals.nextClearBit(0); goalId < goalIndex.size(); goalId = coveredGoals
+				.nextClearBit(goalId + 1)) {
+			final EPATransitionCoverageTestFitness goal = goalIndex.getGoal(goalId);
+			double minDistance = 1.0;
+			for (ExecutionResult result : results) {
+				minDistance = Math.min(minDistance, goal.getDistance(result));
+			}
+			distance += minDistance;
+		}
+		return distance;
+	}
+
+	private void updateArchive(List<ExecutionResult> results, EPATransitionCoverageSuiteFitness contextFitness) {
 		for (ExecutionResult result : results) {
 			for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
 				for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
@@ -79,24 +105,20 @@ public class EPATransitionCoverageSuiteFitness extends TestSuiteFitnessFunction
 						// discard the rest of the trace if an invalid object state is reached
 						break;
 					}
-					
-					EPATransitionCoverageGoal g = new EPATransitionCoverageGoal(Properties.TARGET_CLASS, epa, epa_transition);
-					EPATransitionCoverageTestFitness goal = new EPATransitionCoverageTestFitness(g);
-					
-					if (this.goals.contains(goal)) {
-						goalsCoveredByResults.add(goal);
-					}
 
-					if (Properties.TEST_ARCHIVE && goal != null) {
-						TestsArchive.instance.addGoalToCover(contextFitness, goal);
-						TestsArchive.instance.putTest(contextFitness, goal, result);
+					final int goalId = goalIndex.getGoalId(epa_transition);
+					final EPATransitionCoverageTestFitness goal;
+					if (goalId >= 0) {
+						goal = goalIndex.getGoal(goalId);
+					} else {
+						EPATransitionCoverageGoal g = new EPATransitionCoverageGoal(Properties.TARGET_CLASS, epa, epa_transition);
+						goal = new EPATransitionCoverageTestFitness(g);
 					}
+					TestsArchive.instance.addGoalToCover(contextFitness, goal);
+					TestsArchive.instance.putTest(contextFitness, goal, result);
 				}
 			}
 		}
-		
-		return goalsCoveredByResults;
 	}
-	
 
-}
\ No newline at end of file
+}
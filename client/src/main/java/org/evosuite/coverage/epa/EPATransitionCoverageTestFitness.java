@@ -82,6 +82,18 @@ public class EPATransitionCoverageTestFitness extends TestFitnessFunction {
 		final EPATransition t = goal.getEPATransition();
 		return t.getTransitionName();
 	}
+
+	/**
+	 * Returns the distance of the result to the goal (see
+	 * {@link EPATransitionCoverageGoal#getDistance(ExecutionResult)})
+	 */
+	public double getDistance(ExecutionResult result) {
+		return goal.getDistance(result);
+	}
+
+	public EPATransition getEPATransition() {
+		return goal.getEPATransition();
+	}
 	
 	public boolean isGoalError() {
 		return goal.isError();
@@ -0,0 +1,73 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary that assigns a dense int id to each distinct EPA
+ * transition observed during execution. EPA traces store these ids instead of
+ * references to transitions. Ids are never reused, so traces recorded at any
+ * time can always be resolved back to their transitions.
+ */
+public class EPATransitionDictionary {
+
+	private static final EPATransitionDictionary instance = new EPATransitionDictionary();
+
+	private final ConcurrentHashMap<EPATransition, Integer> transitionIds = new ConcurrentHashMap<>();
+
+	private volatile EPATransition[] transitions = new EPATransition[64];
+
+	private int size = 0;
+
+	public static EPATransitionDictionary getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the id of the transition, assigning a new one if the transition was
+	 * not seen before
+	 *
+	 * @param transition
+	 * @return
+	 */
+	public int getId(EPATransition transition) {
+		final Integer id = transitionIds.get(transition);
+		if (id != null) {
+			return id;
+		}
+		return addTransition(transition);
+	}
+
+	private synchronized int addTransition(EPATransition transition) {
+		final Integer id = transitionIds.get(transition);
+		if (id != null) {
+			return id;
+		}
+		EPATransition[] array = transitions;
+		if (size == array.length) {
+			array = Arrays.copyOf(array, array.length * 2);
+		}
+		final int newId = size;
+		array[newId] = transition;
+		size++;
+		// publish the array before the id can be observed by other threads
+		transitions = array;
+		transitionIds.put(transition, newId);
+		return newId;
+	}
+
+	/**
+	 * Returns the transition with the given id
+	 *
+	 * @param id
+	 *            an id previously returned by {@link #getId(EPATransition)}
+	 * @return
+	 */
+	public EPATransition getTransition(int id) {
+		return transitions[id];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+}
@@ -0,0 +1,115 @@
+package org.evosuite.coverage.epa;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.evosuite.testcase.execution.ExecutionResult;
+
+/**
+ * Maps each goal transition to a dense goal id, so that the transitions covered
+ * by a set of execution results can be computed in a single pass over the EPA
+ * traces and accumulated in a bitset.
+ *
+ * @param <T>
+ *            the type of the coverage goals
+ */
+public class EPATransitionGoalIndex<T> {
+
+	private final Map<EPATransition, Integer> goalIds = new HashMap<>();
+
+	private final List<T> goals = new ArrayList<>();
+
+	/**
+	 * Adds a new goal for the transition and returns its goal id. If the
+	 * transition was already added, the existing goal id is returned.
+	 *
+	 * @param transition
+	 * @param goal
+	 * @return
+	 */
+	public int addGoal(EPATransition transition, T goal) {
+		final Integer goalId = goalIds.get(transition);
+		if (goalId != null) {
+			return goalId;
+		}
+		final int newGoalId = goals.size();
+		goalIds.put(transition, newGoalId);
+		goals.add(goal);
+		return newGoalId;
+	}
+
+	/**
+	 * Returns the goal id for the transition, or -1 if the transition is not a
+	 * goal
+	 *
+	 * @param transition
+	 * @return
+	 */
+	public int getGoalId(EPATransition transition) {
+		final Integer goalId = goalIds.get(transition);
+		return goalId == null ? -1 : goalId;
+	}
+
+	public T getGoal(int goalId) {
+		return goals.get(goalId);
+	}
+
+	public List<T> getGoals() {
+		return Collections.unmodifiableList(goals);
+	}
+
+	public int size() {
+		return goals.size();
+	}
+
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result (see
+	 * {@link #getCoveredGoals(ExecutionResult)}), so only the results of changed
+	 * tests need to be analysed.
+	 *
+	 * @param results
+	 * @return
+	 */
+	public BitSet getCoveredGoals(List<ExecutionResult> results) {
+		final BitSet coveredGoals = new BitSet(goals.size());
+		for (ExecutionResult result : results) {
+			coveredGoals.or(getCoveredGoals(result));
+		}
+		return coveredGoals;
+	}
+
+	/**
+	 * Returns the ids of the goals covered by the result. The rest of a trace is
+	 * discarded once an INVALID_OBJECT_STATE is reached. The returned bitset is
+	 * cached in the result and must not be modified.
+	 *
+	 * @param result
+	 * @return
+	 */
+	public BitSet getCoveredGoals(ExecutionResult result) {
+		BitSet coveredGoals = result.getCachedCoveredGoalIds(this);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet(goals.size());
+		for (EPATrace epaTrace : result.getTrace().getEPATraces()) {
+			for (EPATransition epaTransition : epaTrace.getEpaTransitions()) {
+				if (epaTransition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+					// discard the rest of the trace if an invalid object state is reached
+					break;
+				}
+				final int goalId = getGoalId(epaTransition);
+				if (goalId >= 0) {
+					coveredGoals.set(goalId);
+				}
+			}
+		}
+		result.cacheCoveredGoalIds(this, coveredGoals);
+		return coveredGoals;
+	}
+}
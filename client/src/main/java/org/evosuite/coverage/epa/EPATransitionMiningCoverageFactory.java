@@ -1,10 +1,8 @@
 package org.evosuite.coverage.epa;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.evosuite.Properties;
@@ -14,58 +12,106 @@ import org.evosuite.testsuite.AbstractFitnessFactory;
 
 public class EPATransitionMiningCoverageFactory extends AbstractFitnessFactory<EPAMiningCoverageTestFitness> {
 
-    private static Map<String, EPAMiningCoverageTestFitness> goals = new LinkedHashMap<>();
+    private static final EPAGoalRegistry<EPAMiningCoverageTestFitness> goals = new EPAGoalRegistry<>();
     
     public EPATransitionMiningCoverageFactory() {
     	EPAUtils.checkActionAndPreconditionsAnnotationsForMiningAndgetActionsSize();
+    	addKnownGoals();
 	}
 
-    public static Map<String, EPAMiningCoverageTestFitness> getGoals() {
-        return goals;
+	/**
+	 * Adds the normal transitions inferred by previous runs (if an inferred EPA
+	 * store is used) as goals
+	 */
+	private static void addKnownGoals() {
+		final InferredEPAStore store = InferredEPAStore.getInstance();
+		if (store == null) {
+			return;
+		}
+		for (EPATransition epa_transition : store.getTransitions()) {
+			if (epa_transition instanceof EPAExceptionalTransition) {
+				continue;
+			}
+			EPAMiningCoverageTestFitness goal = new EPAMiningCoverageTestFitness(Properties.TARGET_CLASS,
+					epa_transition.getOriginState(), epa_transition.getActionName(),
+					epa_transition.getDestinationState());
+			goals.addKnownGoal(goal.getKey(), goal);
+		}
+	}
+
+    public static List<EPAMiningCoverageTestFitness> getGoals() {
+        return goals.getGoals();
     }
 
     /** {@inheritDoc} */
 	@Override
 	public List<EPAMiningCoverageTestFitness> getCoverageGoals() {
-		return new ArrayList<EPAMiningCoverageTestFitness>(goals.values());
+		return new ArrayList<EPAMiningCoverageTestFitness>(goals.getGoals());
 	}
 	
 	public static Set<EPAMiningCoverageTestFitness> calculateEPAMiningInfo(List<ExecutionResult> results,
 			EPATransitionMiningCoverageSuiteFitness contextFitness) {
+		return goals.getGoals(getCoveredGoals(results, contextFitness));
+	}
 
-		Set<EPAMiningCoverageTestFitness> goalsCoveredByResults = new HashSet<EPAMiningCoverageTestFitness>();
-
+	/**
+	 * Returns the ids of the goals covered by the results. The goals covered by
+	 * each result are computed once and cached in the result, so only the results
+	 * of changed tests need to be analysed.
+	 * 
+	 * @param results
+	 * @param contextFitness
+	 * @return
+	 */
+	public static BitSet getCoveredGoals(List<ExecutionResult> results, EPATransitionMiningCoverageSuiteFitness contextFitness) {
+		final BitSet coveredGoals = new BitSet(goals.size());
 		for (ExecutionResult result : results) {
-			for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
-				for (EPATransition epa_transition : epa_trace.getEpaTransitions()) {
-					if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
-						break;
-					}
-					if (epa_transition instanceof EPAExceptionalTransition) {
-						break;
-					}
+			coveredGoals.or(getCoveredGoals(result, contextFitness));
+		}
+		return coveredGoals;
+	}
+
+	private static BitSet getCoveredGoals(ExecutionResult result, EPATransitionMiningCoverageSuiteFitness contextFitness) {
+		BitSet coveredGoals = goals.getCachedCoveredGoals(result);
+		if (coveredGoals != null) {
+			return coveredGoals;
+		}
+		coveredGoals = new BitSet();
+		for (EPATrace epa_trace : result.getTrace().getEPATraces()) {
+			final List<EPATransition> epa_transitions = epa_trace.getEpaTransitions();
+			for (int i = 0; i < epa_transitions.size(); i++) {
+				EPATransition epa_transition = epa_transitions.get(i);
+				if (epa_transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+					break;
+				}
+				if (epa_transition instanceof EPAExceptionalTransition) {
+					break;
+				}
 
+				// the goal is only built the first time the transition is observed
+				final int transitionId = epa_trace.getEpaTransitionId(i);
+				int goalId = goals.getGoalId(transitionId);
+				if (goalId < 0) {
 					EPAMiningCoverageTestFitness goal = new EPAMiningCoverageTestFitness(Properties.TARGET_CLASS,
 							epa_transition.getOriginState(), epa_transition.getActionName(),
 							epa_transition.getDestinationState());
-
-					if (!goalsCoveredByResults.contains(goal)) {
-						goalsCoveredByResults.add(goal);
+					goalId = goals.addGoal(transitionId, goal.getKey(), goal);
+					// the registered goal differs if it was loaded from the store or added concurrently
+					final EPAMiningCoverageTestFitness registeredGoal = goals.getGoal(goalId);
+					final boolean isNewGoal = registeredGoal == goal;
+					if (isNewGoal) {
+						EPAUtils.addInferredTransition(epa_transition);
 					}
-
-					String key = goal.getKey();
-
-					if (!EPATransitionMiningCoverageFactory.getGoals().containsKey(key)) {
-						EPATransitionMiningCoverageFactory.getGoals().put(key, goal);
-						if (Properties.TEST_ARCHIVE && contextFitness != null) {
-							TestsArchive.instance.addGoalToCover(contextFitness, goal);
-							TestsArchive.instance.putTest(contextFitness, goal, result);
-						}
+					if ((isNewGoal || goals.claimKnownGoal(goalId)) && Properties.TEST_ARCHIVE
+							&& contextFitness != null) {
+						TestsArchive.instance.addGoalToCover(contextFitness, registeredGoal);
+						TestsArchive.instance.putTest(contextFitness, registeredGoal, result);
 					}
 				}
+				coveredGoals.set(goalId);
 			}
 		}
-
-		return goalsCoveredByResults;
+		goals.cacheCoveredGoals(result, coveredGoals);
+		return coveredGoals;
 	}
 }
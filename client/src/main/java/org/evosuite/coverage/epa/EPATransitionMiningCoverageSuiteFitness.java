@@ -19,8 +19,8 @@
  */
 package org.evosuite.coverage.epa;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import org.evosuite.Properties;
 import org.evosuite.testcase.ExecutableChromosome;
@@ -48,7 +48,7 @@ public class EPATransitionMiningCoverageSuiteFitness extends TestSuiteFitnessFun
 
 		List<ExecutionResult> results = runTestSuite(suite);
 		EPATransitionMiningCoverageSuiteFitness contextFitness = this;
-		Set<EPAMiningCoverageTestFitness> goalsCoveredByResult = EPATransitionMiningCoverageFactory.calculateEPAMiningInfo(results, contextFitness);
+		BitSet goalsCoveredByResult = EPATransitionMiningCoverageFactory.getCoveredGoals(results, contextFitness);
 
 		if (Properties.TEST_ARCHIVE) {
 			// If we are using the archive, then fitness is by definition 0
@@ -59,13 +59,9 @@ public class EPATransitionMiningCoverageSuiteFitness extends TestSuiteFitnessFun
 			return 0.0;
 		}
 
-		final int numCoveredGoals = goalsCoveredByResult.size();
-		int numUncoveredGoals = 0;
-		for (EPAMiningCoverageTestFitness knownCoverageGoal : EPATransitionMiningCoverageFactory.getGoals().values()) {
-			if (!goalsCoveredByResult.contains(knownCoverageGoal)) {
-				numUncoveredGoals++;
-			}
-		}
+		final int numCoveredGoals = goalsCoveredByResult.cardinality();
+		// every covered goal is a known goal
+		final int numUncoveredGoals = EPATransitionMiningCoverageFactory.getGoals().size() - numCoveredGoals;
 
 		if (numCoveredGoals > maxEPAMiningGoalsCovered) {
 			logger.info("(EPA Mining) Best individual covers " + numCoveredGoals + " transitions");
@@ -1,10 +1,19 @@
 package org.evosuite.coverage.epa;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -14,6 +23,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.evosuite.Properties;
 import org.evosuite.Properties.Criterion;
@@ -26,13 +36,17 @@ import org.evosuite.testcase.execution.ExecutionResult;
 import org.evosuite.testcase.execution.TestCaseExecutor;
 import org.evosuite.testsuite.TestSuiteChromosome;
 import org.evosuite.utils.ArrayUtil;
-import org.evosuite.utils.FileIOUtils;
+import org.evosuite.utils.LoggingUtils;
 
 /**
  * EPA-related utilities
  */
 public class EPAUtils {
 
+	public static final String GZIP_SUFFIX = ".gz";
+
+	private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+
 	public static boolean epaStateMethodExists(EPAState epaState, Class<?> objectClass) {
 		try {
 			getEpaStateMethod(epaState, objectClass);
@@ -309,7 +323,7 @@ public class EPAUtils {
 	{
 		//Debe generar el xml de la epa antes de llamar a analyzeCoverage porque pierde la instrumentación para
 		// tener los callbacks a EPAMonitor
-		if (pathToSaveEPA != null) {
+		if (pathToSaveEPA != null || Properties.INFERRED_EPA_STORE_PATH != null) {
 			Set<EPATrace> traces = new HashSet<EPATrace>();
 			for (TestChromosome test : testSuite.getTestChromosomes()) {
 				// delete all statements leading to security exceptions
@@ -326,7 +340,7 @@ public class EPAUtils {
 	
 	public static void saveInferredEPA(List<ExecutionResult> results, String pathToSaveEPA)
 	{
-		if (pathToSaveEPA != null /*&& !EPAUtils.currCriteriaRequireEPAXML()*/) {
+		if ((pathToSaveEPA != null || Properties.INFERRED_EPA_STORE_PATH != null) /*&& !EPAUtils.currCriteriaRequireEPAXML()*/) {
 			Set<EPATrace> traces = new HashSet<EPATrace>();
 			for (ExecutionResult result: results) {
 				Set<EPATrace> resultTraces = result.getTrace().getEPATraces();
@@ -336,24 +350,89 @@ public class EPAUtils {
 		}
 	}
 	
+	/**
+	 * Saves the EPA inferred from the traces. If an inferred EPA store is used,
+	 * the traces are merged into the store, and the saved EPA includes the
+	 * transitions inferred by previous runs.
+	 */
 	private static void saveInferredEPA(Set<EPATrace> traces, String pathToSaveEPA)
 	{
+		final InferredEPAStore store = InferredEPAStore.getInstance();
+		if (store != null) {
+			store.merge(traces);
+			try {
+				store.flush();
+			} catch (IOException e) {
+				LoggingUtils.getEvoLogger().warn("* Could not save inferred EPA store " + store.getPath() + ": " + e);
+			}
+		}
+		if (pathToSaveEPA == null) {
+			return;
+		}
 		try {
-			EPA inferredAutomata = EPAFactory.buildEPA(traces);
-			EPAXMLPrinter xmlPrinter = new EPAXMLPrinter();
-			String xmlFilename = pathToSaveEPA;
-			String epa_xml_str = xmlPrinter.toXML(inferredAutomata);
-			FileIOUtils.writeFile(epa_xml_str, xmlFilename);
-			EPADotPrinter printer = new EPADotPrinter();
-			String dot_str = printer.toDot(inferredAutomata);
-			FileIOUtils.writeFile(dot_str, xmlFilename.replace(".xml", ".dot"));
+			EPA inferredAutomata = store != null ? store.toEPA() : EPAFactory.buildEPA(traces);
+			String suffix = Properties.INFERRED_EPA_GZIP ? GZIP_SUFFIX : "";
+			String xmlFilename = pathToSaveEPA + suffix;
+			String dotFilename = pathToSaveEPA.replace(".xml", ".dot") + suffix;
+			try {
+				new EPAXMLPrinter().write(inferredAutomata, Paths.get(xmlFilename));
+				new EPADotPrinter().write(inferredAutomata, Paths.get(dotFilename));
+			} catch (IOException e) {
+				LoggingUtils.getEvoLogger().warn("* Could not save inferred EPA " + xmlFilename + ": " + e);
+			}
 		} catch (MalformedEPATraceException e) {
 			throw new EvosuiteError(e);
 		}
 		
 	}
 
+	/**
+	 * Opens a buffered writer on the file, compressing the output with gzip if
+	 * the file name ends with ".gz". Missing parent directories are created.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static Writer newBufferedWriter(Path path) throws IOException {
+		final Path directory = path.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		if (!path.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+			return Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+		}
+		final OutputStream out = Files.newOutputStream(path);
+		try {
+			return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(out, WRITER_BUFFER_SIZE),
+					StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Adds a transition discovered during the search to the inferred EPA store,
+	 * if one is used. The store is written by
+	 * {@link #saveInferredEPA(TestSuiteChromosome, String)}.
+	 *
+	 * @param transition
+	 */
+	public static void addInferredTransition(EPATransition transition) {
+		final InferredEPAStore store = InferredEPAStore.getInstance();
+		if (store != null && !transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+			store.addTransition(transition);
+		}
+	}
+
 	public static boolean isActionEnabledInInferredState(String actionName, EPAState currentEpaState) {
+		if (currentEpaState instanceof InferredEPAState) {
+			final InferredEPAState inferredState = (InferredEPAState) currentEpaState;
+			if (inferredState.getActionCount() == 0)
+				throw new EvosuiteError("EpaSate " + currentEpaState + " does not contains actions names. Only inferred states contains actions in epa states");
+			return inferredState.isActionEnabled(actionName);
+		}
 		List<String> actions = getActionNamesFromStateName(currentEpaState.getName());
 		if (actions.size() == 0)
 			throw new EvosuiteError("EpaSate " + currentEpaState + " does not contains actions names. Only inferred states contains actions in epa states");
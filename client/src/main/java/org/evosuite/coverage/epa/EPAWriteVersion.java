@@ -0,0 +1,93 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.evosuite.instrumentation.InstrumentingClassLoader;
+import org.evosuite.testcase.statements.ArrayStatement;
+import org.evosuite.testcase.statements.ConstructorStatement;
+import org.evosuite.testcase.statements.MethodStatement;
+import org.evosuite.testcase.statements.NullStatement;
+import org.evosuite.testcase.statements.PrimitiveStatement;
+import org.evosuite.testcase.statements.Statement;
+
+/**
+ * A process-wide version counter that changes whenever the state of an object
+ * may have changed. The classes instrumented by
+ * {@link org.evosuite.instrumentation.epa.EPAFieldWriteAdapter} increment it
+ * when they write a field or an array element, and before calling code that is
+ * not instrumented (e.g. a method of a JDK collection). The test runner
+ * increments it before executing a statement that could change an object
+ * without running instrumented code (e.g. an assignment to a field).
+ *
+ * The {@link EPAMonitor} reuses the last EPA state computed for an object
+ * while the version does not change, instead of evaluating the state queries
+ * again.
+ */
+public abstract class EPAWriteVersion {
+
+	private static final AtomicLong version = new AtomicLong(0);
+
+	/**
+	 * The classes whose writes increment the version
+	 */
+	private static final Set<String> writeTrackedClassNames = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Callback for the instrumented code: the state of some object may have
+	 * changed
+	 */
+	public static void written() {
+		version.incrementAndGet();
+	}
+
+	public static long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Records that the writes of the class are instrumented
+	 *
+	 * @param className
+	 *            the fully qualified name of the class (with dots)
+	 */
+	public static void addWriteTrackedClass(String className) {
+		writeTrackedClassNames.add(className);
+	}
+
+	/**
+	 * Returns true if the writes of the class increment the version
+	 *
+	 * @param clazz
+	 * @return
+	 */
+	public static boolean isWriteTracked(Class<?> clazz) {
+		return clazz.getClassLoader() instanceof InstrumentingClassLoader
+				&& writeTrackedClassNames.contains(clazz.getName());
+	}
+
+	/**
+	 * Increments the version unless the statement can only change objects by
+	 * running instrumented code: primitive, null and array declarations, and
+	 * calls to methods and constructors of write-tracked classes.
+	 *
+	 * @param statement
+	 *            the statement about to be executed
+	 */
+	public static void beforeStatement(Statement statement) {
+		if (statement instanceof PrimitiveStatement<?> || statement instanceof NullStatement
+				|| statement instanceof ArrayStatement) {
+			return;
+		}
+		if (statement instanceof MethodStatement
+				&& isWriteTracked(((MethodStatement) statement).getMethod().getDeclaringClass())) {
+			return;
+		}
+		if (statement instanceof ConstructorStatement
+				&& isWriteTracked(((ConstructorStatement) statement).getConstructor().getDeclaringClass())) {
+			return;
+		}
+		written();
+	}
+}
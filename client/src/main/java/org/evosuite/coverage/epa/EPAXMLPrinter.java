@@ -1,7 +1,14 @@
 package org.evosuite.coverage.epa;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -33,60 +40,90 @@ public class EPAXMLPrinter {
 		return dot;
 	}
 
+	/**
+	 * Returns the XML encoding of the EPA. Use {@link #write(EPA, Path)} for large
+	 * automata.
+	 *
+	 * @param automata
+	 * @return
+	 */
 	public String toXML(EPA automata) {
-		StringBuffer buff = new StringBuffer();
-		buff.append("<?xml version=\"1.0\" ?>");
-		buff.append("\n");
+		StringWriter writer = new StringWriter();
+		try {
+			write(automata, writer);
+		} catch (IOException e) {
+			// a StringWriter does not throw
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Writes the XML encoding of the EPA to the file, compressed with gzip if the
+	 * file name ends with ".gz"
+	 *
+	 * @param automata
+	 * @param path
+	 * @throws IOException
+	 */
+	public void write(EPA automata, Path path) throws IOException {
+		try (Writer writer = EPAUtils.newBufferedWriter(path)) {
+			write(automata, writer);
+		}
+	}
+
+	/**
+	 * Streams the XML encoding of the EPA to the writer. States, labels and
+	 * transitions are written in sorted order, and only the elements of one
+	 * state are kept in memory at a time.
+	 *
+	 * @param automata
+	 * @param writer
+	 * @throws IOException
+	 */
+	public void write(EPA automata, Writer writer) throws IOException {
+		writer.write("<?xml version=\"1.0\" ?>\n");
 		String initialStateId = automata.getInitialState().getName();
 		String automataName = automata.getName();
-		buff.append(String.format("<abstraction initial_state=\"%s\" name=\"%s\">", initialStateId, automataName));
-		buff.append("\n");
+		writer.write("<abstraction initial_state=\"" + initialStateId + "\" name=\"" + automataName + "\">\n");
 
 		SortedSet<String> sorted_action_ids = new TreeSet<String>(automata.getActions());
 		for (String actionId : sorted_action_ids) {
-			buff.append(String.format("  <label name=\"%s\" />", actionId));
-			buff.append("\n");
+			writer.write("  <label name=\"" + actionId + "\" />\n");
 		}
-		SortedSet<String> sorted_state_ids = new TreeSet<String>();
+		SortedMap<String, EPAState> sorted_states = new TreeMap<String, EPAState>();
 		for (EPAState state : automata.getStates()) {
-			String stateId = state.getName();
-			sorted_state_ids.add(stateId);
+			sorted_states.put(state.getName(), state);
 		}
-		for (String stateId : sorted_state_ids) {
-			buff.append(String.format("  <state name=\"%s\">", stateId));
-			buff.append("\n");
+		for (Map.Entry<String, EPAState> entry : sorted_states.entrySet()) {
+			writer.write("  <state name=\"" + entry.getKey() + "\">\n");
 
 			SortedSet<String> sorted_transition_elements = new TreeSet<String>();
 			SortedSet<String> sorted_enabled_action_elements = new TreeSet<String>();
-			EPAState state = automata.getStateByName(stateId);
-			for (EPATransition transition : automata.getTransitions(state)) {
+			for (EPATransition transition : automata.getTransitions(entry.getValue())) {
 				String destionationStateId = transition.getDestinationState().getName();
 				String actionId = transition.getActionName();
-				String enabled_action_element = String.format("<enabled_label name=\"%s\" />", actionId);
-				sorted_enabled_action_elements.add(enabled_action_element);
-
-				String transition_element = String.format("<transition destination=\"%s\" label=\"%s\" />",
-						destionationStateId, actionId);
-				sorted_transition_elements.add(transition_element);
+				sorted_enabled_action_elements.add("<enabled_label name=\"" + actionId + "\" />");
+				sorted_transition_elements
+						.add("<transition destination=\"" + destionationStateId + "\" label=\"" + actionId + "\" />");
 			}
 
 			for (String enabled_action_element : sorted_enabled_action_elements) {
-				buff.append("    " + enabled_action_element);
-				buff.append("\n");
+				writer.write("    ");
+				writer.write(enabled_action_element);
+				writer.write("\n");
 			}
 
 			for (String transition_element : sorted_transition_elements) {
-				buff.append("    " + transition_element);
-				buff.append("\n");
-
+				writer.write("    ");
+				writer.write(transition_element);
+				writer.write("\n");
 			}
 
-			buff.append("  </state>");
-			buff.append("\n");
+			writer.write("  </state>\n");
 		}
-		buff.append("</abstraction>");
-		buff.append("\n");
-		return buff.toString();
+		writer.write("</abstraction>\n");
+		writer.flush();
 	}
 
 }
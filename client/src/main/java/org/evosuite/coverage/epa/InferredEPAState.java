@@ -0,0 +1,124 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+
+/**
+ * An EPA state inferred while mining. Instead of keeping its name (e.g.
+ * <code>[a=true,b=false]</code>), the state keeps a bitmask over a fixed
+ * (sorted) list of action names. The human-readable name is only rendered when
+ * requested (i.e. when printing the EPA).
+ *
+ * Instances are interned by {@link InferredEPAStateTable}, so states built
+ * from the same table can be compared by identity.
+ */
+public class InferredEPAState extends EPAState {
+
+	private static final long serialVersionUID = -2519385810395357432L;
+
+	/**
+	 * Sorted action names (shared with the table that built this state)
+	 */
+	private final String[] actionNames;
+
+	/**
+	 * Bit <code>i</code> is set iff action <code>actionNames[i]</code> is enabled
+	 */
+	private final long enabledActions;
+
+	/**
+	 * Dense id assigned by the table that built this state
+	 */
+	private final int id;
+
+	private transient String name = null;
+
+	private transient int hashCode = 0;
+
+	InferredEPAState(int id, String[] actionNames, long enabledActions) {
+		super(null);
+		this.id = id;
+		this.actionNames = actionNames;
+		this.enabledActions = enabledActions;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public long getEnabledActions() {
+		return enabledActions;
+	}
+
+	/**
+	 * Returns true if the action is enabled in this state. Actions that are not
+	 * part of this state are considered disabled, except in states with a single
+	 * action (i.e. only a constructor).
+	 *
+	 * @param actionName
+	 * @return
+	 */
+	public boolean isActionEnabled(String actionName) {
+		if (actionNames.length == 1) {
+			// state with constructor only
+			return true;
+		}
+		final int index = Arrays.binarySearch(actionNames, actionName);
+		if (index < 0) {
+			return false;
+		}
+		return (enabledActions & (1L << index)) != 0;
+	}
+
+	public int getActionCount() {
+		return actionNames.length;
+	}
+
+	String[] getActionNames() {
+		return actionNames;
+	}
+
+	@Override
+	public String getName() {
+		if (name == null) {
+			name = renderName(actionNames, enabledActions);
+		}
+		return name;
+	}
+
+	private static String renderName(String[] actionNames, long enabledActions) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[");
+		for (int i = 0; i < actionNames.length; i++) {
+			if (i > 0) {
+				sb.append(",");
+			}
+			sb.append(actionNames[i]);
+			sb.append("=");
+			sb.append((enabledActions & (1L << i)) != 0);
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		if (hashCode == 0) {
+			hashCode = super.hashCode();
+		}
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj instanceof InferredEPAState) {
+			InferredEPAState other = (InferredEPAState) obj;
+			if (actionNames == other.actionNames || Arrays.equals(actionNames, other.actionNames)) {
+				return enabledActions == other.enabledActions;
+			}
+		}
+		return super.equals(obj);
+	}
+
+}
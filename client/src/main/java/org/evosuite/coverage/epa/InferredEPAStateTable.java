@@ -0,0 +1,141 @@
+package org.evosuite.coverage.epa;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Intern table for states and normal transitions observed while mining an EPA.
+ * States are keyed by the bitmask of enabled actions over a fixed, sorted list
+ * of actions, so the same object state always maps to the same
+ * {@link InferredEPAState} instance. Normal transitions between interned states
+ * are shared as well.
+ */
+public class InferredEPAStateTable {
+
+	/**
+	 * The maximum number of actions that can be encoded in a state bitmask
+	 */
+	public static final int MAX_ACTIONS = Long.SIZE;
+
+	private static final int INITIAL_STATE_ID = 0;
+
+	private static final int INVALID_OBJECT_STATE_ID = 1;
+
+	private static final int STATE_ID_BITS = 21;
+
+	private static final int ACTION_ID_BITS = 21;
+
+	private final String[] actionNames;
+
+	private final AtomicInteger nextStateId = new AtomicInteger(INVALID_OBJECT_STATE_ID + 1);
+
+	private final ConcurrentHashMap<Long, InferredEPAState> states = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<Long, EPANormalTransition> transitions = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new table for the given actions
+	 *
+	 * @param actionNames
+	 *            the action ids of the target class (at most
+	 *            <code>MAX_ACTIONS</code>)
+	 */
+	public InferredEPAStateTable(Collection<String> actionNames) {
+		if (actionNames.size() > MAX_ACTIONS) {
+			throw new IllegalArgumentException(
+					"Cannot encode more than " + MAX_ACTIONS + " actions in a state: " + actionNames.size());
+		}
+		this.actionNames = actionNames.toArray(new String[0]);
+		Arrays.sort(this.actionNames);
+	}
+
+	/**
+	 * Returns the position of the action in the state bitmask, or -1 if the action
+	 * does not belong to this table.
+	 *
+	 * @param actionName
+	 * @return
+	 */
+	public int getActionIndex(String actionName) {
+		final int index = Arrays.binarySearch(actionNames, actionName);
+		return index < 0 ? -1 : index;
+	}
+
+	public int getActionCount() {
+		return actionNames.length;
+	}
+
+	public int getStateCount() {
+		return states.size();
+	}
+
+	/**
+	 * Returns the (interned) state with the given enabled actions
+	 *
+	 * @param enabledActions
+	 *            bit <code>i</code> is set iff the <code>i</code>-th action is
+	 *            enabled
+	 * @return
+	 */
+	public InferredEPAState getState(long enabledActions) {
+		final Long key = enabledActions;
+		InferredEPAState state = states.get(key);
+		if (state == null) {
+			final InferredEPAState newState = new InferredEPAState(nextStateId.getAndIncrement(), actionNames,
+					enabledActions);
+			state = states.putIfAbsent(key, newState);
+			if (state == null) {
+				state = newState;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Returns a normal transition. If both states and the action are known to this
+	 * table, the transition is interned.
+	 *
+	 * @param originState
+	 * @param actionName
+	 * @param destinationState
+	 * @return
+	 */
+	public EPANormalTransition getNormalTransition(EPAState originState, String actionName,
+			EPAState destinationState) {
+		final int originId = getStateId(originState);
+		final int actionId = getActionIndex(actionName);
+		final int destinationId = getStateId(destinationState);
+		if (originId < 0 || actionId < 0 || destinationId < 0) {
+			return new EPANormalTransition(originState, actionName, destinationState);
+		}
+
+		final Long key = ((long) originId << (STATE_ID_BITS + ACTION_ID_BITS))
+				| ((long) actionId << STATE_ID_BITS) | destinationId;
+		EPANormalTransition transition = transitions.get(key);
+		if (transition == null) {
+			final EPANormalTransition newTransition = new EPANormalTransition(originState, actionName,
+					destinationState);
+			transition = transitions.putIfAbsent(key, newTransition);
+			if (transition == null) {
+				transition = newTransition;
+			}
+		}
+		return transition;
+	}
+
+	private int getStateId(EPAState state) {
+		if (state == EPAState.INITIAL_STATE) {
+			return INITIAL_STATE_ID;
+		} else if (state == EPAState.INVALID_OBJECT_STATE) {
+			return INVALID_OBJECT_STATE_ID;
+		} else if (state instanceof InferredEPAState && ((InferredEPAState) state).getActionNames() == actionNames) {
+			// built by this table
+			final int id = ((InferredEPAState) state).getId();
+			return id < (1 << STATE_ID_BITS) ? id : -1;
+		} else {
+			return -1;
+		}
+	}
+}
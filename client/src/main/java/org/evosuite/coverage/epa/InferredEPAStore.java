@@ -0,0 +1,249 @@
+package org.evosuite.coverage.epa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.evosuite.Properties;
+import org.evosuite.testcase.execution.EvosuiteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk store of the EPA transitions inferred for a class, accumulated across
+ * generation runs (e.g. runs with different seeds). The store is loaded once,
+ * new transitions are merged while the search discovers them, and it is
+ * written back with {@link #flush()}.
+ *
+ * The file is a binary EPA (see {@link EPABinaryFormat}) named after the
+ * class, so loading it is much cheaper than parsing the XML dump of the
+ * inferred EPA. A flush merges the
+ * transitions stored by other runs in the meantime, writes a temporary file
+ * and moves it over the store, so readers never see a partially written store.
+ */
+public class InferredEPAStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(InferredEPAStore.class);
+
+	private static InferredEPAStore instance = null;
+
+	private final Path path;
+
+	private final String className;
+
+	/**
+	 * The stored transitions, in the order they were added
+	 */
+	private final Set<EPATransition> transitions = new LinkedHashSet<>();
+
+	/**
+	 * True if transitions were added since the last flush
+	 */
+	private boolean dirty = false;
+
+	/**
+	 * Returns the store of the target class at {@link Properties#INFERRED_EPA_STORE_PATH},
+	 * loading it the first time, or null if no store is configured
+	 *
+	 * @return
+	 */
+	public static synchronized InferredEPAStore getInstance() {
+		final String storePath = Properties.INFERRED_EPA_STORE_PATH;
+		if (storePath == null) {
+			return null;
+		}
+		final Path path = Paths.get(storePath);
+		if (instance == null || !instance.path.equals(path) || !instance.className.equals(Properties.TARGET_CLASS)) {
+			try {
+				instance = load(path, Properties.TARGET_CLASS);
+			} catch (IOException e) {
+				throw new EvosuiteError(e);
+			}
+		}
+		return instance;
+	}
+
+	private InferredEPAStore(Path path, String className) {
+		this.path = path;
+		this.className = className;
+	}
+
+	/**
+	 * Loads the transitions stored for the class. A store that does not exist yet
+	 * is empty.
+	 *
+	 * @param path
+	 * @param className
+	 * @return
+	 * @throws IOException
+	 *             if the file is not a store, or if it belongs to another class
+	 */
+	public static InferredEPAStore load(Path path, String className) throws IOException {
+		final InferredEPAStore store = new InferredEPAStore(path, className);
+		store.transitions.addAll(store.read());
+		logger.debug("Loaded " + store.transitions.size() + " inferred EPA transitions from " + path);
+		return store;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * Adds a transition to the store
+	 *
+	 * @param transition
+	 * @return true if the transition was not stored before
+	 */
+	public synchronized boolean addTransition(EPATransition transition) {
+		if (transitions.add(transition)) {
+			dirty = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the transitions of the traces. As in
+	 * {@link EPAFactory#buildEPA(Collection)}, the rest of a trace is discarded
+	 * once an invalid object state is reached.
+	 *
+	 * @param traces
+	 * @return the number of transitions that were not stored before
+	 */
+	public synchronized int merge(Collection<EPATrace> traces) {
+		int added = 0;
+		for (EPATrace trace : traces) {
+			for (EPATransition transition : trace.getEpaTransitions()) {
+				if (transition.getDestinationState().equals(EPAState.INVALID_OBJECT_STATE)) {
+					break;
+				}
+				if (addTransition(transition)) {
+					added++;
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Returns a copy of the stored transitions
+	 */
+	public synchronized List<EPATransition> getTransitions() {
+		return new ArrayList<>(transitions);
+	}
+
+	public synchronized int size() {
+		return transitions.size();
+	}
+
+	/**
+	 * Builds the EPA with all the stored transitions
+	 *
+	 * @return
+	 */
+	public synchronized EPA toEPA() {
+		return buildEPA(null);
+	}
+
+	private EPA buildEPA(String name) {
+		final Map<EPAState, Set<EPATransition>> leadsToMap = new HashMap<>();
+		for (EPATransition transition : transitions) {
+			Set<EPATransition> outgoing = leadsToMap.get(transition.getOriginState());
+			if (outgoing == null) {
+				outgoing = new HashSet<>();
+				leadsToMap.put(transition.getOriginState(), outgoing);
+			}
+			outgoing.add(transition);
+		}
+		return new EPA(name, leadsToMap, EPAState.INITIAL_STATE);
+	}
+
+	/**
+	 * Writes the store if transitions were added since it was loaded (or last
+	 * flushed). The transitions written to the file by other runs in the
+	 * meantime are merged first, while holding a lock on the store.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void flush() throws IOException {
+		if (!dirty) {
+			return;
+		}
+		final Path directory = path.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		final Path lockPath = Paths.get(path.toString() + ".lock");
+		try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE); FileLock lock = lockChannel.lock()) {
+			transitions.addAll(read());
+
+			final Path tmpPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+			try {
+				try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.WRITE)) {
+					write(Channels.newOutputStream(channel));
+					channel.force(true);
+				}
+				try {
+					Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmpPath);
+			}
+		}
+		dirty = false;
+		logger.debug("Stored " + transitions.size() + " inferred EPA transitions in " + path);
+	}
+
+	/**
+	 * Reads the transitions currently in the file. The file is read into memory
+	 * rather than mapped, so that it can be replaced by the next flush.
+	 */
+	private List<EPATransition> read() throws IOException {
+		final byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(path);
+		} catch (NoSuchFileException e) {
+			return new ArrayList<>();
+		}
+		final EPA storedEPA;
+		try {
+			storedEPA = EPABinaryFormat.read(ByteBuffer.wrap(bytes));
+		} catch (IOException | RuntimeException e) {
+			throw new IOException(path + " is not an inferred EPA store", e);
+		}
+		if (!className.equals(storedEPA.getName())) {
+			throw new IOException(path + " stores the EPA of " + storedEPA.getName() + ", not of " + className);
+		}
+		return new ArrayList<>(storedEPA.getTransitions());
+	}
+
+	private void write(OutputStream out) throws IOException {
+		EPABinaryFormat.write(buildEPA(className), out);
+	}
+}
@@ -0,0 +1,56 @@
+package org.evosuite.coverage.epa;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Evaluates EPA queries using method handles bound once at creation time. This
+ * avoids the access checks, argument boxing and
+ * <code>setAccessible()</code> toggling of <code>Method.invoke()</code> on
+ * every query.
+ */
+public class MethodHandleEPAQueryEvaluator extends EPAQueryEvaluator {
+
+	private static final MethodType QUERY_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+	private final MethodHandle[] handles;
+
+	public MethodHandleEPAQueryEvaluator(Method[] queries) throws IllegalAccessException {
+		super(queries);
+		this.handles = new MethodHandle[queries.length];
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (int i = 0; i < queries.length; i++) {
+			this.handles[i] = bind(lookup, queries[i]);
+		}
+	}
+
+	private static MethodHandle bind(MethodHandles.Lookup lookup, Method query) throws IllegalAccessException {
+		final boolean isAccessible = query.isAccessible();
+		query.setAccessible(true);
+		MethodHandle handle;
+		try {
+			handle = lookup.unreflect(query);
+		} finally {
+			query.setAccessible(isAccessible);
+		}
+		if (Modifier.isStatic(query.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(QUERY_TYPE);
+	}
+
+	@Override
+	public boolean evaluate(Object calleeObject, int queryIndex) throws InvocationTargetException {
+		try {
+			return (boolean) handles[queryIndex].invokeExact(calleeObject);
+		} catch (Throwable t) {
+			// keep the same contract as Method.invoke()
+			throw new InvocationTargetException(t);
+		}
+	}
+
+}
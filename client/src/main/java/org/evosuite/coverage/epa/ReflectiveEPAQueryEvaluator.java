@@ -0,0 +1,32 @@
+package org.evosuite.coverage.epa;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.evosuite.testcase.execution.EvosuiteError;
+
+/**
+ * Evaluates EPA queries using <code>Method.invoke()</code>. This is the
+ * fallback used when the queries cannot be bound as method handles.
+ */
+public class ReflectiveEPAQueryEvaluator extends EPAQueryEvaluator {
+
+	public ReflectiveEPAQueryEvaluator(Method[] queries) {
+		super(queries);
+	}
+
+	@Override
+	public boolean evaluate(Object calleeObject, int queryIndex) throws InvocationTargetException {
+		final Method method = getQuery(queryIndex);
+		try {
+			boolean isAccessible = method.isAccessible();
+			method.setAccessible(true);
+			Boolean result = (Boolean) method.invoke(calleeObject);
+			method.setAccessible(isAccessible);
+			return result.booleanValue();
+		} catch (SecurityException | IllegalAccessException | IllegalArgumentException e) {
+			throw new EvosuiteError(e);
+		}
+	}
+
+}
@@ -214,7 +214,7 @@ public class BytecodeInstrumentation {
                     || ArrayUtil.contains(Properties.CRITERION, Criterion.LINE)
                     || ArrayUtil.contains(Properties.CRITERION, Criterion.BRANCH)
                     || ArrayUtil.contains(Properties.CRITERION, Criterion.EXCEPTION)) {
-            	cv = new EPAMonitorClassAdapter(cv, className);
+            	cv = new EPAMonitorClassAdapter(cv, className, reader);
             }
 
             cv = new ExecutionPathClassAdapter(cv, className);
@@ -0,0 +1,102 @@
+package org.evosuite.instrumentation.epa;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.evosuite.PackageInfo;
+import org.evosuite.coverage.epa.EPAWriteVersion;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Instruments a method so that it increments {@link EPAWriteVersion} after
+ * each field or array element written, and before each call that may run
+ * code that is not instrumented: calls to methods of other classes, and calls
+ * to methods that are not declared in the class itself (e.g. inherited from a
+ * JDK superclass). Calls to the EvoSuite runtime (other than its mocks) and to
+ * a few immutable JDK classes are not considered writes.
+ */
+public class EPAFieldWriteAdapter extends MethodVisitor {
+
+	private static final String EVOSUITE_PACKAGE = PackageInfo.getEvoSuitePackageWithSlash() + "/";
+
+	private static final String EVOSUITE_MOCK_PACKAGE = EVOSUITE_PACKAGE + "runtime/mock/";
+
+	private static final Set<String> IMMUTABLE_CLASSES = new HashSet<String>(Arrays.asList("java/lang/String",
+			"java/lang/Boolean", "java/lang/Byte", "java/lang/Character", "java/lang/Short", "java/lang/Integer",
+			"java/lang/Long", "java/lang/Float", "java/lang/Double", "java/lang/Math", "java/lang/StrictMath",
+			"java/util/Objects"));
+
+	private static final String WRITE_VERSION_CLASS = PackageInfo.getNameWithSlash(EPAWriteVersion.class);
+
+	private final String className;
+
+	/**
+	 * The names and descriptors of the methods declared in the class
+	 */
+	private final Set<String> declaredMethods;
+
+	/**
+	 * @param mv
+	 * @param className
+	 *            the name of the class (with slashes)
+	 * @param declaredMethods
+	 *            the names and descriptors of the methods declared in the class
+	 */
+	public EPAFieldWriteAdapter(MethodVisitor mv, String className, Set<String> declaredMethods) {
+		super(Opcodes.ASM5, mv);
+		this.className = className;
+		this.declaredMethods = declaredMethods;
+	}
+
+	@Override
+	public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+		super.visitFieldInsn(opcode, owner, name, desc);
+		if (opcode == Opcodes.PUTFIELD || opcode == Opcodes.PUTSTATIC) {
+			written();
+		}
+	}
+
+	@Override
+	public void visitInsn(int opcode) {
+		super.visitInsn(opcode);
+		switch (opcode) {
+		case Opcodes.IASTORE:
+		case Opcodes.LASTORE:
+		case Opcodes.FASTORE:
+		case Opcodes.DASTORE:
+		case Opcodes.AASTORE:
+		case Opcodes.BASTORE:
+		case Opcodes.CASTORE:
+		case Opcodes.SASTORE:
+			written();
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+		// before the call, in case it throws after changing an object
+		if (mayWrite(owner, name, desc)) {
+			written();
+		}
+		super.visitMethodInsn(opcode, owner, name, desc, itf);
+	}
+
+	private boolean mayWrite(String owner, String name, String desc) {
+		if (owner.equals(className)) {
+			return !declaredMethods.contains(name + desc);
+		}
+		if (owner.startsWith("[") || IMMUTABLE_CLASSES.contains(owner)) {
+			return false;
+		}
+		return !owner.startsWith(EVOSUITE_PACKAGE) || owner.startsWith(EVOSUITE_MOCK_PACKAGE);
+	}
+
+	private void written() {
+		super.visitMethodInsn(Opcodes.INVOKESTATIC, WRITE_VERSION_CLASS, "written", "()V", false);
+	}
+}
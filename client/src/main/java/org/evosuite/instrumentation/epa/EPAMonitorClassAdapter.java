@@ -19,12 +19,17 @@
  */
 package org.evosuite.instrumentation.epa;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.evosuite.Properties;
 import org.evosuite.Properties.Criterion;
 import org.evosuite.classpath.ResourceList;
+import org.evosuite.coverage.epa.EPAWriteVersion;
 import org.evosuite.runtime.classhandling.ClassResetter;
 import org.evosuite.setup.DependencyAnalysis;
 import org.evosuite.utils.ArrayUtil;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -40,6 +45,17 @@ public class EPAMonitorClassAdapter extends ClassVisitor {
 
 	private final String className;
 
+	/**
+	 * The names and descriptors of the methods declared in the class, or null
+	 * if field writes are not tracked (see {@link EPAFieldWriteAdapter})
+	 */
+	private final Set<String> declaredMethods;
+
+	/**
+	 * The internal name of the class (with slashes)
+	 */
+	private final String internalClassName;
+
 	private static Logger logger = LoggerFactory.getLogger(EPAMonitorClassAdapter.class);
 
 	/** Skip methods on enums - at least some */
@@ -54,10 +70,33 @@ public class EPAMonitorClassAdapter extends ClassVisitor {
 	 *            a {@link org.objectweb.asm.ClassVisitor} object.
 	 * @param className
 	 *            a {@link java.lang.String} object.
+	 * @param reader
+	 *            the reader of the class, used to find its declared methods
+	 *            when field writes are tracked
 	 */
-	public EPAMonitorClassAdapter(ClassVisitor visitor, String className) {
+	public EPAMonitorClassAdapter(ClassVisitor visitor, String className, ClassReader reader) {
 		super(Opcodes.ASM5, visitor);
 		this.className = ResourceList.getClassNameFromResourcePath(className);
+		this.internalClassName = reader.getClassName();
+		if (Properties.EPA_STATE_QUERY_CACHE) {
+			this.declaredMethods = getDeclaredMethods(reader);
+			EPAWriteVersion.addWriteTrackedClass(this.className);
+		} else {
+			this.declaredMethods = null;
+		}
+	}
+
+	private static Set<String> getDeclaredMethods(ClassReader reader) {
+		final Set<String> declaredMethods = new HashSet<String>();
+		reader.accept(new ClassVisitor(Opcodes.ASM5) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+					String[] exceptions) {
+				declaredMethods.add(name + desc);
+				return null;
+			}
+		}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return declaredMethods;
 	}
 
 	/*
@@ -86,6 +125,11 @@ public class EPAMonitorClassAdapter extends ClassVisitor {
 			String[] exceptions) {
 		MethodVisitor mv = super.visitMethod(methodAccess, name, descriptor, signature, exceptions);
 
+		if (declaredMethods != null) {
+			// every method may change the state of an object
+			mv = new EPAFieldWriteAdapter(mv, internalClassName, declaredMethods);
+		}
+
 		// Don't touch bridge and synthetic methods
 		if ((methodAccess & Opcodes.ACC_SYNTHETIC) > 0 || (methodAccess & Opcodes.ACC_BRIDGE) > 0) {
 			return mv;
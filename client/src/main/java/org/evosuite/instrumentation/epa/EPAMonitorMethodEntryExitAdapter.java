@@ -20,6 +20,7 @@
 package org.evosuite.instrumentation.epa;
 
 import org.evosuite.PackageInfo;
+import org.evosuite.coverage.epa.EPACallSites;
 import org.evosuite.coverage.epa.EPAMonitor;
 import org.evosuite.epa.EpaAction;
 import org.objectweb.asm.AnnotationVisitor;
@@ -47,6 +48,11 @@ public class EPAMonitorMethodEntryExitAdapter extends AdviceAdapter {
 	String fullMethodName;
 	int access;
 
+	/**
+	 * The id of this method in {@link EPACallSites} (-1 until it is assigned)
+	 */
+	private int callSiteId = -1;
+
 	/**
 	 * <p>
 	 * Constructor for MethodEntryAdapter.
@@ -83,15 +89,17 @@ public class EPAMonitorMethodEntryExitAdapter extends AdviceAdapter {
 			if (methodName.equals("<clinit>"))
 				return; // FIXXME: Should we call super.onMethodEnter() here?
 
-			mv.visitLdcInsn(className);
-			mv.visitLdcInsn(fullMethodName);
+			pushCallSiteId();
 			if ((access & Opcodes.ACC_STATIC) > 0) {
 				mv.visitInsn(Opcodes.ACONST_NULL);
 			} else {
 				mv.visitVarInsn(Opcodes.ALOAD, 0);
 			}
+			// "(ILjava/lang/Object;)V"
+			final String enteredMethodDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, Type.INT_TYPE,
+					Type.getType(Object.class));
 			mv.visitMethodInsn(Opcodes.INVOKESTATIC, PackageInfo.getNameWithSlash(EPAMonitor.class), "enteredMethod",
-					"(Ljava/lang/String;Ljava/lang/String;Ljava/lang/Object;)V", false);
+					enteredMethodDescriptor, false);
 
 		}
 		super.onMethodEnter();
@@ -116,8 +124,7 @@ public class EPAMonitorMethodEntryExitAdapter extends AdviceAdapter {
 				mv.visitInsn(Opcodes.ACONST_NULL);
 			}
 
-			mv.visitLdcInsn(className);
-			mv.visitLdcInsn(fullMethodName);
+			pushCallSiteId();
 			if ((access & Opcodes.ACC_STATIC) > 0) {
 				// load null constant because this is a static method
 				mv.visitInsn(Opcodes.ACONST_NULL);
@@ -126,15 +133,32 @@ public class EPAMonitorMethodEntryExitAdapter extends AdviceAdapter {
 				mv.visitVarInsn(Opcodes.ALOAD, 0);
 			}
 
-			// "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/Object;)V"
+			// "(Ljava/lang/Exception;ILjava/lang/Object;)V"
 			final String leftMethodDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Exception.class),
-					Type.getType(String.class), Type.getType(String.class), Type.getType(Object.class));
+					Type.INT_TYPE, Type.getType(Object.class));
 			mv.visitMethodInsn(Opcodes.INVOKESTATIC, PackageInfo.getNameWithSlash(EPAMonitor.class), "exitMethod",
 					leftMethodDescriptor, false);
 		}
 		super.onMethodExit(opcode);
 	}
 
+	/**
+	 * Pushes the id of this method (see {@link EPACallSites}). The id is assigned
+	 * once, when the method is instrumented.
+	 */
+	private void pushCallSiteId() {
+		if (callSiteId < 0) {
+			callSiteId = EPACallSites.getCallSiteId(className, fullMethodName);
+		}
+		if (callSiteId <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.BIPUSH, callSiteId);
+		} else if (callSiteId <= Short.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.SIPUSH, callSiteId);
+		} else {
+			mv.visitLdcInsn(callSiteId);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
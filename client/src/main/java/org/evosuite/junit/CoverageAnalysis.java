@@ -497,27 +497,27 @@ public class CoverageAnalysis {
 			{
 				case EPAEXCEPTION:
 					EPAExceptionCoverageFactory.calculateEPAExceptionInfo(executionResults, null);
-					goals = new ArrayList<EPAExceptionCoverageTestFitness>(EPAExceptionCoverageFactory.getGoals().values());
+					goals = new ArrayList<EPAExceptionCoverageTestFitness>(EPAExceptionCoverageFactory.getGoals());
 					totalGoals += EPAExceptionCoverageFactory.UPPER_BOUND_OF_GOALS;
 					break;
 				case EPAADJACENTEDGES:
 					EPAAdjacentEdgesCoverageFactory.calculateEPAAdjacentEdgesInfo(executionResults, null);
-					goals = new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(EPAAdjacentEdgesCoverageFactory.getGoals().values());
+					goals = new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(EPAAdjacentEdgesCoverageFactory.getGoals());
 					totalGoals += EPAAdjacentEdgesCoverageFactory.UPPER_BOUND_OF_GOALS;
 					break;
 				case EPATRANSITIONMINING:
 					EPATransitionMiningCoverageFactory.calculateEPAMiningInfo(executionResults, null);
-					goals = new ArrayList<EPAMiningCoverageTestFitness>(EPATransitionMiningCoverageFactory.getGoals().values());
+					goals = new ArrayList<EPAMiningCoverageTestFitness>(EPATransitionMiningCoverageFactory.getGoals());
 					totalGoals += EPATransitionMiningCoverageFactory.getGoals().size();
 					break;
 				case EPAEXCEPTIONMINING:
 					EPAExceptionMiningCoverageFactory.calculateEPAExceptionMiningInfo(executionResults, null);
-					goals = new ArrayList<EPAExceptionMiningCoverageTestFitness>(EPAExceptionMiningCoverageFactory.getGoals().values());
+					goals = new ArrayList<EPAExceptionMiningCoverageTestFitness>(EPAExceptionMiningCoverageFactory.getGoals());
 					totalGoals += EPAExceptionMiningCoverageFactory.getGoals().size();
 					break;
 				case EPAADJACENTEDGESMINING:
 					EPAAdjacentEdgesMiningCoverageFactory.calculateEPAAdjacentEdgesMiningInfo(executionResults, null);
-					goals = new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(EPAAdjacentEdgesMiningCoverageFactory.getGoals().values());
+					goals = new ArrayList<EPAAdjacentEdgesCoverageTestFitness>(EPAAdjacentEdgesMiningCoverageFactory.getGoals());
 					totalGoals += EPAAdjacentEdgesMiningCoverageFactory.getGoals().size();
 					break;
 				default:
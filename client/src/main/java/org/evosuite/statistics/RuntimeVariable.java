@@ -383,6 +383,24 @@ public enum RuntimeVariable {
 	EpaAdjacentEdgesMiningCoverage,
 	/** The coverage of adjacent edges of the EPA */
 	EpaAdjacentEdgesCoverage,
+	/** The number of calls to EPA actions observed by the EPA monitor */
+	EpaActionCalls,
+	/** The number of times the EPA monitor evaluated the queries of an object to obtain its state */
+	EpaStateQueryEvaluations,
+	/** The number of EPA state (or precondition) query methods invoked */
+	EpaQueryInvocations,
+	/** The number of EPA states reused without evaluating the queries */
+	EpaStateQueryCacheHits,
+	/** The total time (in ms) spent evaluating EPA queries */
+	EpaQueryTime,
+	/** The longest time (in microseconds) spent in a single evaluation of the EPA queries of an object */
+	EpaMaxQueryTime,
+	/** The number of evaluations of EPA queries that took less than 1us, 10us, 100us, 1ms, 10ms, 100ms and longer */
+	EpaQueryTimeHistogram,
+	/** The number of times an object was found in an invalid EPA state */
+	EpaInvalidObjectStates,
+	/** The maximum number of objects whose EPA state was tracked within a test */
+	EpaMaxTrackedObjects,
 
 	/* -------------------------------------------------------------------- */
 	/** The number of SAT answers to Solver queries */ 
@@ -30,6 +30,8 @@ import org.evosuite.Properties;
 import org.evosuite.TestGenerationContext;
 import org.evosuite.coverage.branch.Branch;
 import org.evosuite.coverage.branch.BranchPool;
+import org.evosuite.coverage.epa.EPAMonitor;
+import org.evosuite.coverage.epa.EPAMonitorStatistics;
 import org.evosuite.coverage.exception.ExceptionCoverageSuiteFitness;
 import org.evosuite.ga.Chromosome;
 import org.evosuite.rmi.ClientServices;
@@ -95,6 +97,7 @@ public class StatisticsSender {
 
 		sendCoveredInfo(testSuite);
 		sendExceptionInfo(testSuite);
+		sendEPAMonitorInfo();
 		sendIndividualToMaster(testSuite);		
 	}
 
@@ -132,7 +135,32 @@ public class StatisticsSender {
 		 */
 	}
 
-	
+	/**
+	 * The counters cover the whole run, including the execution of the suite
+	 * right before they are sent. The maximum number of tracked objects is the
+	 * one since the EPA monitor was last reset (i.e. the SUT was last reloaded).
+	 */
+	private static void sendEPAMonitorInfo() {
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaActionCalls, EPAMonitorStatistics.getActionCalls());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaStateQueryEvaluations, EPAMonitorStatistics.getStateQueryEvaluations());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaQueryInvocations, EPAMonitorStatistics.getQueryInvocations());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaStateQueryCacheHits, EPAMonitorStatistics.getStateQueryCacheHits());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaQueryTime, EPAMonitorStatistics.getQueryTimeMillis());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaMaxQueryTime, EPAMonitorStatistics.getMaxQueryTimeMicros());
+		// semicolon separated, since the CSV backend does not quote values
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaQueryTimeHistogram, EPAMonitorStatistics.getQueryTimeHistogram());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaInvalidObjectStates, EPAMonitorStatistics.getInvalidObjectStates());
+		ClientServices.getInstance().getClientNode().trackOutputVariable(
+				RuntimeVariable.EpaMaxTrackedObjects, EPAMonitor.getMaxTrackedObjectCount());
+	}
 
 	private static void sendCoveredInfo(TestSuiteChromosome testSuite){
 
@@ -0,0 +1,544 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * The distances and execution counts of the branches passed during an
+ * execution, kept in primitive arrays.
+ * </p>
+ *
+ * <p>
+ * Each passed branch gets a slot (in the order branches are first passed),
+ * and while the table is written a dense index maps branch ids (as assigned
+ * by the {@link org.evosuite.coverage.branch.BranchPool}) to slots. The index
+ * is sized to the number of branches registered so far and is not allocated
+ * per table: each thread keeps one, which is handed over to the table that
+ * thread is writing. Once the execution is finished, {@link #trim()} gives
+ * the index back and replaces it by the passed branch ids in sorted order, so
+ * that the traces kept in the execution results only hold the passed
+ * branches.
+ * </p>
+ *
+ * <p>
+ * The table is not synchronized: the {@link ExecutionTracer} only reports the
+ * branches passed by the thread executing the test.
+ * </p>
+ */
+public class BranchDistanceTable {
+
+	private static final int INITIAL_SLOTS = 16;
+
+	/**
+	 * Upper bound of the branch ids registered so far, used to size the index
+	 */
+	private static volatile int branchIdBound = 64;
+
+	/**
+	 * Dense index from branch ids to slots, reused by the tables written by a
+	 * thread. An entry belongs to the current owner only if it is stamped with
+	 * the epoch at which the owner took the index, so the index never has to be
+	 * cleared, and a table that is dropped without being trimmed does not keep
+	 * it.
+	 */
+	private static final class SlotIndex {
+
+		private final Thread thread = Thread.currentThread();
+
+		private int[] stamps = new int[0];
+
+		private int[] slots = new int[0];
+
+		private int epoch = 0;
+
+		private BranchDistanceTable owner = null;
+
+		private void ensureCapacity(int length) {
+			if (length > stamps.length) {
+				length = Math.max(length, stamps.length * 2);
+				stamps = Arrays.copyOf(stamps, length);
+				slots = Arrays.copyOf(slots, length);
+			}
+		}
+	}
+
+	private static final ThreadLocal<SlotIndex> SLOT_INDEX = new ThreadLocal<SlotIndex>() {
+		@Override
+		protected SlotIndex initialValue() {
+			return new SlotIndex();
+		}
+	};
+
+	/**
+	 * The index of the thread writing the table, or <code>null</code> if the
+	 * table does not hold one
+	 */
+	private SlotIndex slotIndex = null;
+
+	/**
+	 * The passed branch ids in increasing order and their slots, used instead
+	 * of the index once the table is trimmed
+	 */
+	private int[] sortedBranchIds = null;
+
+	private int[] sortedSlots = null;
+
+	private int slotCount = 0;
+
+	private int[] branchIds;
+
+	private double[] minTrueDistances;
+
+	private double[] minFalseDistances;
+
+	private double[] trueDistanceSums;
+
+	private double[] falseDistanceSums;
+
+	private int[] predicateCounts;
+
+	private int[] trueCounts;
+
+	private int[] falseCounts;
+
+	/**
+	 * Number of slots with a positive predicate execution count
+	 */
+	private int countedSlotCount = 0;
+
+	public BranchDistanceTable() {
+		this(INITIAL_SLOTS);
+	}
+
+	private BranchDistanceTable(int slots) {
+		branchIds = new int[slots];
+		minTrueDistances = new double[slots];
+		minFalseDistances = new double[slots];
+		trueDistanceSums = new double[slots];
+		falseDistanceSums = new double[slots];
+		predicateCounts = new int[slots];
+		trueCounts = new int[slots];
+		falseCounts = new int[slots];
+	}
+
+	/**
+	 * Called when a branch is registered, so that the index of new tables can
+	 * hold every branch id without growing
+	 *
+	 * @param branchId
+	 */
+	public static void branchRegistered(int branchId) {
+		if (branchId >= branchIdBound) {
+			synchronized (BranchDistanceTable.class) {
+				if (branchId >= branchIdBound) {
+					branchIdBound = branchId + 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records a pass through the given branch
+	 *
+	 * @param branchId
+	 * @param trueDistance
+	 * @param falseDistance
+	 * @param countCoverage
+	 *            whether the execution counts are updated too
+	 */
+	public void branchPassed(int branchId, double trueDistance, double falseDistance, boolean countCoverage) {
+		final SlotIndex index = acquireSlotIndex();
+		sortedBranchIds = null;
+		sortedSlots = null;
+		int slot = getSlot(index, branchId);
+		if (slot < 0) {
+			slot = addSlot(index, branchId);
+			minTrueDistances[slot] = trueDistance;
+			minFalseDistances[slot] = falseDistance;
+		} else {
+			minTrueDistances[slot] = Math.min(minTrueDistances[slot], trueDistance);
+			minFalseDistances[slot] = Math.min(minFalseDistances[slot], falseDistance);
+		}
+		trueDistanceSums[slot] += trueDistance;
+		falseDistanceSums[slot] += falseDistance;
+
+		if (countCoverage) {
+			if (predicateCounts[slot] == 0) {
+				countedSlotCount++;
+			}
+			predicateCounts[slot]++;
+			if (trueDistance == 0.0) {
+				trueCounts[slot]++;
+			}
+			if (falseDistance == 0.0) {
+				falseCounts[slot]++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of the given branch, or -1 if it was not passed
+	 */
+	private int getSlot(int branchId) {
+		if (sortedBranchIds != null) {
+			final int position = Arrays.binarySearch(sortedBranchIds, branchId);
+			return position < 0 ? -1 : sortedSlots[position];
+		}
+		return getSlot(acquireSlotIndex(), branchId);
+	}
+
+	private static int getSlot(SlotIndex index, int branchId) {
+		if (branchId < 0 || branchId >= index.stamps.length || index.stamps[branchId] != index.epoch) {
+			return -1;
+		}
+		return index.slots[branchId];
+	}
+
+	/**
+	 * Returns the index of the current thread, taking it over (and adding the
+	 * slots of this table) if it is not held by this table
+	 */
+	private SlotIndex acquireSlotIndex() {
+		SlotIndex index = slotIndex;
+		if (index != null && index.owner == this && index.thread == Thread.currentThread()) {
+			return index;
+		}
+		index = SLOT_INDEX.get();
+		if (index.owner != null) {
+			index.owner.slotIndex = null;
+		}
+		index.owner = this;
+		if (++index.epoch == 0) {
+			// the stamps wrapped around
+			Arrays.fill(index.stamps, 0);
+			index.epoch = 1;
+		}
+		int length = branchIdBound;
+		for (int slot = 0; slot < slotCount; slot++) {
+			length = Math.max(length, branchIds[slot] + 1);
+		}
+		index.ensureCapacity(length);
+		for (int slot = 0; slot < slotCount; slot++) {
+			index.stamps[branchIds[slot]] = index.epoch;
+			index.slots[branchIds[slot]] = slot;
+		}
+		slotIndex = index;
+		return index;
+	}
+
+	private void releaseSlotIndex() {
+		if (slotIndex != null && slotIndex.owner == this) {
+			slotIndex.owner = null;
+		}
+		slotIndex = null;
+	}
+
+	private int addSlot(SlotIndex index, int branchId) {
+		if (branchId < 0) {
+			throw new IllegalArgumentException("Invalid branch id " + branchId);
+		}
+		if (branchId >= index.stamps.length) {
+			branchRegistered(branchId);
+			index.ensureCapacity(branchId + 1);
+		}
+		if (slotCount == branchIds.length) {
+			resize(Math.max(INITIAL_SLOTS, slotCount * 2));
+		}
+		final int slot = slotCount++;
+		branchIds[slot] = branchId;
+		index.stamps[branchId] = index.epoch;
+		index.slots[branchId] = slot;
+		return slot;
+	}
+
+	private void resize(int slots) {
+		branchIds = Arrays.copyOf(branchIds, slots);
+		minTrueDistances = Arrays.copyOf(minTrueDistances, slots);
+		minFalseDistances = Arrays.copyOf(minFalseDistances, slots);
+		trueDistanceSums = Arrays.copyOf(trueDistanceSums, slots);
+		falseDistanceSums = Arrays.copyOf(falseDistanceSums, slots);
+		predicateCounts = Arrays.copyOf(predicateCounts, slots);
+		trueCounts = Arrays.copyOf(trueCounts, slots);
+		falseCounts = Arrays.copyOf(falseCounts, slots);
+	}
+
+	/**
+	 * Gives back the index and drops the unused slots. The index is taken again
+	 * if the table is written again.
+	 */
+	public void trim() {
+		if (slotCount < branchIds.length) {
+			resize(slotCount);
+		}
+		buildSortedBranchIds();
+		releaseSlotIndex();
+	}
+
+	private void buildSortedBranchIds() {
+		final long[] idsAndSlots = new long[slotCount];
+		for (int slot = 0; slot < slotCount; slot++) {
+			idsAndSlots[slot] = ((long) branchIds[slot] << 32) | slot;
+		}
+		Arrays.sort(idsAndSlots);
+		sortedBranchIds = new int[slotCount];
+		sortedSlots = new int[slotCount];
+		for (int i = 0; i < slotCount; i++) {
+			sortedBranchIds[i] = (int) (idsAndSlots[i] >>> 32);
+			sortedSlots[i] = (int) idsAndSlots[i];
+		}
+	}
+
+	/**
+	 * Returns a trimmed copy of this table
+	 */
+	public BranchDistanceTable copy() {
+		final BranchDistanceTable copy = new BranchDistanceTable(slotCount);
+		System.arraycopy(branchIds, 0, copy.branchIds, 0, slotCount);
+		System.arraycopy(minTrueDistances, 0, copy.minTrueDistances, 0, slotCount);
+		System.arraycopy(minFalseDistances, 0, copy.minFalseDistances, 0, slotCount);
+		System.arraycopy(trueDistanceSums, 0, copy.trueDistanceSums, 0, slotCount);
+		System.arraycopy(falseDistanceSums, 0, copy.falseDistanceSums, 0, slotCount);
+		System.arraycopy(predicateCounts, 0, copy.predicateCounts, 0, slotCount);
+		System.arraycopy(trueCounts, 0, copy.trueCounts, 0, slotCount);
+		System.arraycopy(falseCounts, 0, copy.falseCounts, 0, slotCount);
+		copy.slotCount = slotCount;
+		copy.countedSlotCount = countedSlotCount;
+		if (sortedBranchIds != null) {
+			copy.sortedBranchIds = sortedBranchIds;
+			copy.sortedSlots = sortedSlots;
+		} else {
+			copy.buildSortedBranchIds();
+		}
+		return copy;
+	}
+
+	public boolean wasPassed(int branchId) {
+		return getSlot(branchId) >= 0;
+	}
+
+	/**
+	 * Returns true if the branch was counted as covered in its true direction
+	 */
+	public boolean isCoveredTrue(int branchId) {
+		final int slot = getSlot(branchId);
+		return slot >= 0 && trueCounts[slot] > 0;
+	}
+
+	/**
+	 * Returns true if the branch was counted as covered in its false direction
+	 */
+	public boolean isCoveredFalse(int branchId) {
+		final int slot = getSlot(branchId);
+		return slot >= 0 && falseCounts[slot] > 0;
+	}
+
+	/**
+	 * Returns the passed branches whose minimum true (or false) distance is
+	 * zero
+	 */
+	public Set<Integer> getBranchesWithZeroDistance(boolean trueDistance) {
+		final double[] distances = trueDistance ? minTrueDistances : minFalseDistances;
+		final Set<Integer> branches = new HashSet<Integer>();
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (distances[slot] == 0.0) {
+				branches.add(branchIds[slot]);
+			}
+		}
+		return branches;
+	}
+
+	/**
+	 * The minimum true distance of each passed branch
+	 */
+	public Map<Integer, Double> minTrueDistances() {
+		return new DistanceMap() {
+			@Override
+			double distance(int slot) {
+				return minTrueDistances[slot];
+			}
+		};
+	}
+
+	/**
+	 * The minimum false distance of each passed branch
+	 */
+	public Map<Integer, Double> minFalseDistances() {
+		return new DistanceMap() {
+			@Override
+			double distance(int slot) {
+				return minFalseDistances[slot];
+			}
+		};
+	}
+
+	/**
+	 * The sum of the true distances of each passed branch
+	 */
+	public Map<Integer, Double> trueDistanceSums() {
+		return new DistanceMap() {
+			@Override
+			double distance(int slot) {
+				return trueDistanceSums[slot];
+			}
+		};
+	}
+
+	/**
+	 * The sum of the false distances of each passed branch
+	 */
+	public Map<Integer, Double> falseDistanceSums() {
+		return new DistanceMap() {
+			@Override
+			double distance(int slot) {
+				return falseDistanceSums[slot];
+			}
+		};
+	}
+
+	/**
+	 * The number of times each branch was executed while coverage was traced
+	 */
+	public Map<Integer, Integer> predicateExecutionCounts() {
+		return new PredicateCountMap();
+	}
+
+	/**
+	 * Read-only map view over the slots of the table, in the order the branches
+	 * were first passed
+	 */
+	private abstract class SlotMap<V> extends AbstractMap<Integer, V> {
+
+		abstract boolean isPresent(int slot);
+
+		abstract V value(int slot);
+
+		abstract int count();
+
+		private int slotOf(Object key) {
+			if (!(key instanceof Integer)) {
+				return -1;
+			}
+			final int slot = getSlot((Integer) key);
+			return slot >= 0 && isPresent(slot) ? slot : -1;
+		}
+
+		@Override
+		public int size() {
+			return count();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return slotOf(key) >= 0;
+		}
+
+		@Override
+		public V get(Object key) {
+			final int slot = slotOf(key);
+			return slot >= 0 ? value(slot) : null;
+		}
+
+		@Override
+		public Set<Map.Entry<Integer, V>> entrySet() {
+			return new AbstractSet<Map.Entry<Integer, V>>() {
+				@Override
+				public int size() {
+					return count();
+				}
+
+				@Override
+				public Iterator<Map.Entry<Integer, V>> iterator() {
+					return new Iterator<Map.Entry<Integer, V>>() {
+						private int nextSlot = advance(0);
+
+						private int advance(int slot) {
+							while (slot < slotCount && !isPresent(slot)) {
+								slot++;
+							}
+							return slot;
+						}
+
+						@Override
+						public boolean hasNext() {
+							return nextSlot < slotCount;
+						}
+
+						@Override
+						public Map.Entry<Integer, V> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							final int slot = nextSlot;
+							nextSlot = advance(slot + 1);
+							return new SimpleImmutableEntry<Integer, V>(branchIds[slot], value(slot));
+						}
+					};
+				}
+			};
+		}
+	}
+
+	private abstract class DistanceMap extends SlotMap<Double> {
+
+		abstract double distance(int slot);
+
+		@Override
+		boolean isPresent(int slot) {
+			return true;
+		}
+
+		@Override
+		Double value(int slot) {
+			return distance(slot);
+		}
+
+		@Override
+		int count() {
+			return slotCount;
+		}
+	}
+
+	private class PredicateCountMap extends SlotMap<Integer> {
+
+		@Override
+		boolean isPresent(int slot) {
+			return predicateCounts[slot] > 0;
+		}
+
+		@Override
+		Integer value(int slot) {
+			return predicateCounts[slot];
+		}
+
+		@Override
+		int count() {
+			return countedSlotCount;
+		}
+	}
+}
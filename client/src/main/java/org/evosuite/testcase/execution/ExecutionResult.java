@@ -45,11 +45,11 @@ public class ExecutionResult implements Cloneable {
 
 	/**
 	 * Record for each exception if it was explicitly thrown
-	 * 
+	 *
 	 * <p>
 	 * FIXME: internal data structures should never be null...
 	 */
-	public Map<Integer, Boolean> explicitExceptions = new HashMap<Integer, Boolean>();
+	private Map<Integer, Boolean> explicitExceptions = new HashMap<Integer, Boolean>();
 
 	/** Trace recorded during execution */
 	protected ExecutionTrace trace;
@@ -96,12 +96,25 @@ public class ExecutionResult implements Cloneable {
 	}
 
 	/** Output traces produced by observers */
-	protected final Map<Class<?>, OutputTrace<?>> traces = new HashMap<Class<?>, OutputTrace<?>>();
+	protected Map<Class<?>, OutputTrace<?>> traces = new HashMap<Class<?>, OutputTrace<?>>();
 
 	private Map<Integer, Set<InputCoverageGoal>> inputGoals = new LinkedHashMap<>();
 
 	private Map<Integer, Set<OutputCoverageGoal>> outputGoals = new LinkedHashMap<>();
 
+	/**
+	 * Ids of the goals covered by this result, cached by the goal index that
+	 * computed them. Since a changed test is executed again (yielding a new
+	 * result), the cached ids remain valid as long as this result is kept.
+	 */
+	private Map<Object, BitSet> coveredGoalIds = null;
+
+	/**
+	 * True if the collections of this result may be shared with a clone, in
+	 * which case they are copied before they are modified
+	 */
+	private boolean shared = false;
+
 	// experiment .. tried to remember intermediately calculated
 	// ControlFlowDistances .. no real speed up
 	// public Map<Branch, ControlFlowDistance> intermediateDistances;
@@ -128,6 +141,7 @@ public class ExecutionResult implements Cloneable {
 	 *            sequence position toward thrown exception
 	 */
 	public void setThrownExceptions(Map<Integer, Throwable> data) {
+		copyOnWrite();
 		exceptions.clear();
 		for (Integer position : data.keySet()) {
 			reportNewThrownException(position, data.get(position));
@@ -162,9 +176,31 @@ public class ExecutionResult implements Cloneable {
 	 *            a {@link java.lang.Throwable} object.
 	 */
 	public void reportNewThrownException(Integer position, Throwable t) {
+		copyOnWrite();
 		exceptions.put(position, t);
 	}
 
+	/**
+	 * Records whether the exception thrown at the given position was explicitly
+	 * thrown
+	 *
+	 * @param position
+	 * @param explicit
+	 */
+	public void setExplicitException(Integer position, boolean explicit) {
+		copyOnWrite();
+		explicitExceptions.put(position, explicit);
+	}
+
+	/**
+	 * Returns for each exception whether it was explicitly thrown
+	 *
+	 * @return an unmodifiable map
+	 */
+	public Map<Integer, Boolean> getExplicitExceptions() {
+		return Collections.unmodifiableMap(explicitExceptions);
+	}
+
 	/**
 	 * <p>
 	 * getPositionsWhereExceptionsWereThrown
@@ -173,7 +209,7 @@ public class ExecutionResult implements Cloneable {
 	 * @return a {@link java.util.Set} object.
 	 */
 	public Set<Integer> getPositionsWhereExceptionsWereThrown() {
-		return exceptions.keySet();
+		return Collections.unmodifiableSet(exceptions.keySet());
 	}
 
 	/**
@@ -184,7 +220,7 @@ public class ExecutionResult implements Cloneable {
 	 * @return a {@link java.util.Collection} object.
 	 */
 	public Collection<Throwable> getAllThrownExceptions() {
-		return exceptions.values();
+		return Collections.unmodifiableCollection(exceptions.values());
 	}
 
 	/**
@@ -242,7 +278,7 @@ public class ExecutionResult implements Cloneable {
 	 */
 	@Deprecated
 	public Map<Integer, Throwable> exposeExceptionMapping() {
-		return exceptions;
+		return Collections.unmodifiableMap(exceptions);
 	}
 
 	/**
@@ -290,6 +326,7 @@ public class ExecutionResult implements Cloneable {
 			throw new IllegalArgumentException("Trace cannot be null");
 		}
 		this.trace = trace;
+		this.coveredGoalIds = null;
 	}
 
 	/**
@@ -301,6 +338,7 @@ public class ExecutionResult implements Cloneable {
 	 *            a {@link java.lang.Class} object.
 	 */
 	public void setTrace(OutputTrace<?> trace, Class<?> clazz) {
+		copyOnWrite();
 		traces.put(clazz, trace);
 	}
 
@@ -321,7 +359,7 @@ public class ExecutionResult implements Cloneable {
 	 * @return a {@link java.util.Collection} object.
 	 */
 	public Collection<OutputTrace<?>> getTraces() {
-		return traces.values();
+		return Collections.unmodifiableCollection(traces.values());
 	}
 
 	/**
@@ -434,26 +472,55 @@ public class ExecutionResult implements Cloneable {
 		this.executionTime = executionTime;
 	}
 
-	/** {@inheritDoc} */
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The copy shares the collections of this result, which are only copied
+	 * once either result is modified, and are only handed out as unmodifiable
+	 * views. The execution trace is cloned lazily, and the output traces are
+	 * frozen and shared.
+	 */
 	@Override
 	public ExecutionResult clone() {
 		ExecutionResult copy = new ExecutionResult(test, mutation);
-		copy.exceptions.putAll(exceptions);
+		copy.exceptions = exceptions;
 		copy.trace = trace.lazyClone();
-		copy.explicitExceptions.putAll(explicitExceptions);
+		copy.explicitExceptions = explicitExceptions;
 		copy.executionTime = executionTime;
 		copy.regressionObjectDistance = regressionObjectDistance;
-		copy.inputGoals = new LinkedHashMap<>(inputGoals);
-		copy.outputGoals = new LinkedHashMap<>(outputGoals);
-		for (Class<?> clazz : traces.keySet()) {
-			copy.traces.put(clazz, traces.get(clazz).clone());
+		copy.inputGoals = inputGoals;
+		copy.outputGoals = outputGoals;
+		copy.coveredGoalIds = coveredGoalIds;
+		copy.traces = traces;
+		copy.readProperties = readProperties;
+		copy.wasAnyPropertyWritten = wasAnyPropertyWritten;
+		copy.shared = true;
+		shared = true;
+		for (OutputTrace<?> outputTrace : traces.values()) {
+			outputTrace.freeze();
 		}
+		return copy;
+	}
+
+	/**
+	 * Copies the collections shared with a clone before they are modified
+	 */
+	private void copyOnWrite() {
+		if (!shared) {
+			return;
+		}
+		exceptions = new HashMap<Integer, Throwable>(exceptions);
+		explicitExceptions = new HashMap<Integer, Boolean>(explicitExceptions);
+		inputGoals = new LinkedHashMap<>(inputGoals);
+		outputGoals = new LinkedHashMap<>(outputGoals);
+		if (coveredGoalIds != null) {
+			coveredGoalIds = new IdentityHashMap<>(coveredGoalIds);
+		}
+		traces = new HashMap<Class<?>, OutputTrace<?>>(traces);
 		if (readProperties != null) {
-			copy.readProperties = new LinkedHashSet<String>();
-			copy.readProperties.addAll(readProperties);
+			readProperties = new LinkedHashSet<String>(readProperties);
 		}
-		copy.wasAnyPropertyWritten = wasAnyPropertyWritten;
-		return copy;
+		shared = false;
 	}
 
 	/** {@inheritDoc} */
@@ -466,7 +533,7 @@ public class ExecutionResult implements Cloneable {
 	}
 
 	public Set<String> getReadProperties() {
-		return readProperties;
+		return readProperties == null ? null : Collections.unmodifiableSet(readProperties);
 	}
 
 	public void setReadProperties(Set<String> readProperties) {
@@ -486,19 +553,56 @@ public class ExecutionResult implements Cloneable {
 	}
 
 	public void setInputGoals(Map<Integer, Set<InputCoverageGoal>> coveredGoals) {
-		inputGoals.putAll(coveredGoals);
+		copyOnWrite();
+		for (Map.Entry<Integer, Set<InputCoverageGoal>> entry : coveredGoals.entrySet()) {
+			inputGoals.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+		}
 	}
 
 	public void setOutputGoals(Map<Integer, Set<OutputCoverageGoal>> coveredGoals) {
-		outputGoals.putAll(coveredGoals);
+		copyOnWrite();
+		for (Map.Entry<Integer, Set<OutputCoverageGoal>> entry : coveredGoals.entrySet()) {
+			outputGoals.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+		}
 	}
 
 	public Map<Integer, Set<InputCoverageGoal>> getInputGoals() {
-		return inputGoals;
+		return Collections.unmodifiableMap(inputGoals);
 	}
 
 	public Map<Integer, Set<OutputCoverageGoal>> getOutputGoals() {
-		return outputGoals;
+		return Collections.unmodifiableMap(outputGoals);
+	}
+
+	/**
+	 * Returns the ids of the goals covered by this result that were cached by
+	 * the given goal index, or null if they were not computed yet. The returned
+	 * bitset must not be modified.
+	 *
+	 * @param goalIndex
+	 * @return
+	 */
+	public BitSet getCachedCoveredGoalIds(Object goalIndex) {
+		if (coveredGoalIds == null) {
+			return null;
+		}
+		return coveredGoalIds.get(goalIndex);
+	}
+
+	/**
+	 * Caches the ids of the goals covered by this result
+	 *
+	 * @param goalIndex
+	 *            the goal index that assigned the ids
+	 * @param goalIds
+	 *            the covered goal ids (it must not be modified afterwards)
+	 */
+	public void cacheCoveredGoalIds(Object goalIndex, BitSet goalIds) {
+		copyOnWrite();
+		if (coveredGoalIds == null) {
+			coveredGoalIds = new IdentityHashMap<>();
+		}
+		coveredGoalIds.put(goalIndex, goalIds);
 	}
 
 }
@@ -546,6 +546,9 @@ public interface ExecutionTrace {
 	 * <p>
 	 * getFalseDistancesSum
 	 * </p>
+	 *
+	 * Sum of the false distances of each branch passed since the trace
+	 * was last cleared. Clones of the trace start with the same sums.
 	 * 
 	 * @return a {@link java.util.Map} object.
 	 */
@@ -555,6 +558,9 @@ public interface ExecutionTrace {
 	 * <p>
 	 * getTrueDistancesSum
 	 * </p>
+	 *
+	 * Sum of the true distances of each branch passed since the trace
+	 * was last cleared. Clones of the trace start with the same sums.
 	 * 
 	 * @return a {@link java.util.Map} object.
 	 */
@@ -23,7 +23,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +41,7 @@ import org.evosuite.coverage.dataflow.DefUsePool;
 import org.evosuite.coverage.dataflow.Definition;
 import org.evosuite.coverage.dataflow.Use;
 import org.evosuite.coverage.epa.EPATrace;
+import org.evosuite.coverage.epa.EPATraceBuffer;
 import org.evosuite.coverage.epa.EPATransition;
 import org.evosuite.setup.CallContext;
 import org.evosuite.statistics.RuntimeVariable;
@@ -207,15 +207,12 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	// Coverage information
 	public Map<String, Map<String, Map<Integer, Integer>>> coverage = Collections.synchronizedMap(new HashMap<String, Map<String, Map<Integer, Integer>>>());
 
-	public Map<Integer, Integer> coveredFalse = Collections.synchronizedMap(new HashMap<Integer, Integer>());
-
 	public Map<String, Integer> coveredMethods = Collections.synchronizedMap(new HashMap<String, Integer>());
 
     public Map<String, Integer> coveredBranchlessMethods = Collections.synchronizedMap(new HashMap<String, Integer>());
 
-	public Map<Integer, Integer> coveredPredicates = Collections.synchronizedMap(new HashMap<Integer, Integer>());
-
-	public Map<Integer, Integer> coveredTrue = Collections.synchronizedMap(new HashMap<Integer, Integer>());
+	// distances and execution counts of the passed branches
+	private BranchDistanceTable branchDistances = new BranchDistanceTable();
 
 	public Map<Integer, Integer> coveredDefs = Collections.synchronizedMap(new HashMap<Integer, Integer>());
 
@@ -232,8 +229,6 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	// The last explicitly thrown exception is kept here
 	private Throwable explicitException = null;
 
-	public Map<Integer, Double> falseDistances = Collections.synchronizedMap(new HashMap<Integer, Double>());
-	private final Map<Integer, Double> falseDistancesSum = Collections.synchronizedMap(new HashMap<Integer, Double>());
 	// finished_calls;
 	public List<MethodCall> finishedCalls = Collections.synchronizedList(new ArrayList<MethodCall>());
 	public Map<Integer, Object> knownCallerObjects = Collections.synchronizedMap(new HashMap<Integer, Object>());
@@ -259,10 +254,6 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 
 	public Set<Integer> touchedMutants = Collections.synchronizedSet(new HashSet<Integer>());
 
-	public Map<Integer, Double> trueDistances = Collections.synchronizedMap(new HashMap<Integer, Double>());
-
-	private final Map<Integer, Double> trueDistancesSum = Collections.synchronizedMap(new HashMap<Integer, Double>());
-	
 	public static Set<Integer> gradientBranches = Collections.synchronizedSet(new HashSet<Integer>());
 	
 	public static Set<Integer> gradientBranchesCoveredTrue = Collections.synchronizedSet(new HashSet<Integer>());
@@ -321,33 +312,13 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 				gradientBranches.add(branch);
 		}
 
-		if (traceCoverage) {
-			if (!coveredPredicates.containsKey(branch))
-				coveredPredicates.put(branch, 1);
-			else
-				coveredPredicates.put(branch, coveredPredicates.get(branch) + 1);
-
-			if (true_distance == 0.0) {
-				if (!coveredTrue.containsKey(branch))
-					coveredTrue.put(branch, 1);
-				else
-					coveredTrue.put(branch, coveredTrue.get(branch) + 1);
-
-			}
-
-			if (false_distance == 0.0) {
-				if (!coveredFalse.containsKey(branch))
-					coveredFalse.put(branch, 1);
-				else
-					coveredFalse.put(branch, coveredFalse.get(branch) + 1);
-			}
-		}
+		branchDistances.branchPassed(branch, true_distance, false_distance, traceCoverage);
 		
 		if(Properties.TRACK_COVERED_GRADIENT_BRANCHES){
 			if(gradientBranches.contains(branch)){
-				if((coveredTrue.containsKey(branch)))
+				if(branchDistances.isCoveredTrue(branch))
 					gradientBranchesCoveredTrue.add(branch);
-				if((coveredFalse.containsKey(branch)))
+				if(branchDistances.isCoveredFalse(branch))
 					gradientBranchesCoveredFalse.add(branch);
 			}
 		}
@@ -357,8 +328,8 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 			int previousOpcode = -2;
 			if(BranchPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getBranch(branch).getInstruction().getASMNode().getPrevious()!=null)
 				previousOpcode = BranchPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getBranch(branch).getInstruction().getASMNode().getPrevious().getOpcode();
-			boolean cTrue = coveredTrue.containsKey(branch);
-			boolean cFalse = coveredFalse.containsKey(branch);
+			boolean cTrue = branchDistances.isCoveredTrue(branch);
+			boolean cFalse = branchDistances.isCoveredFalse(branch);
 			switch (previousOpcode) {
 				case Opcodes.LCMP:
 					trackBranchOpcode(bytecodeInstructionReached, RuntimeVariable.Reached_lcmp, branch);
@@ -445,27 +416,6 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 			}
 		}
 
-		if (!trueDistances.containsKey(branch))
-			trueDistances.put(branch, true_distance);
-		else
-			trueDistances.put(branch, Math.min(trueDistances.get(branch), true_distance));
-
-		if (!falseDistances.containsKey(branch))
-			falseDistances.put(branch, false_distance);
-		else
-			falseDistances.put(branch,
-			                   Math.min(falseDistances.get(branch), false_distance));
-
-		if (!trueDistancesSum.containsKey(branch))
-			trueDistancesSum.put(branch, true_distance);
-		else
-			trueDistancesSum.put(branch, trueDistancesSum.get(branch) + true_distance);
-
-		if (!falseDistancesSum.containsKey(branch))
-			falseDistancesSum.put(branch, false_distance);
-		else
-			falseDistancesSum.put(branch, falseDistancesSum.get(branch) + false_distance);
-
 		if (!disableContext&&(Properties.INSTRUMENT_CONTEXT
 				|| Properties.INSTRUMENT_METHOD_CALLS
 				|| ArrayUtil.contains(Properties.CRITERION, Criterion.IBRANCH)
@@ -543,15 +493,11 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 		duCounter = 0;
 		objectCounter = 0;
 		knownCallerObjects = new HashMap<Integer, Object>();
-		trueDistances = new HashMap<Integer, Double>();
-		falseDistances = new HashMap<Integer, Double>();
+		branchDistances = new BranchDistanceTable();
 		mutantDistances = new HashMap<Integer, Double>();
 		touchedMutants = new HashSet<Integer>();
 		coveredMethods = new HashMap<String, Integer>();
         coveredBranchlessMethods = new HashMap<String, Integer>();
-		coveredPredicates = new HashMap<Integer, Integer>();
-		coveredTrue = new HashMap<Integer, Integer>();
-		coveredFalse = new HashMap<Integer, Integer>();
 		coveredDefs = new HashMap<Integer, Integer>();
 		passedDefinitions = new HashMap<String, HashMap<Integer, HashMap<Integer, Integer>>>();
 		passedUses = new HashMap<String, HashMap<Integer, HashMap<Integer, Integer>>>();
@@ -561,6 +507,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 		coveredTrueContext = new HashMap<Integer, Map<CallContext, Double>>();
 		coveredFalseContext = new HashMap<Integer, Map<CallContext, Double>>();
 		coveredPredicateContext = new HashMap<Integer, Map<CallContext, Integer>>();
+		epaTraces = new EPATraceBuffer();
 	}
 
 	/**
@@ -588,13 +535,9 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 		 * logger.info("Copying main method");
 		 * copy.finished_calls.add(stack.peek()); }
 		 */
-		copy.trueDistances.putAll(trueDistances);
-		copy.falseDistances.putAll(falseDistances);
+		copy.branchDistances = branchDistances.copy();
 		copy.coveredMethods.putAll(coveredMethods);
         copy.coveredBranchlessMethods.putAll(coveredBranchlessMethods);
-		copy.coveredPredicates.putAll(coveredPredicates);
-		copy.coveredTrue.putAll(coveredTrue);
-		copy.coveredFalse.putAll(coveredFalse);
 		copy.coveredDefs.putAll(coveredDefs);
 		copy.touchedMutants.addAll(touchedMutants);
 		copy.mutantDistances.putAll(mutantDistances);
@@ -612,6 +555,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 		copy.duCounter = duCounter;
 		copy.objectCounter = objectCounter;
 		copy.knownCallerObjects.putAll(knownCallerObjects);
+		copy.epaTraces = epaTraces.copy();
 		copy.proxyCount = 1;
 		return copy;
 	}
@@ -824,6 +768,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 		while (!stack.isEmpty()) {
 			finishedCalls.add(stack.pop());
 		}
+		branchDistances.trim();
 	}
 
 	/** {@inheritDoc} */
@@ -847,13 +792,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Set<Integer> getCoveredFalseBranches() {
-		Set<Integer> covered = new HashSet<Integer>();
-		for (Entry<Integer, Double> entry : falseDistances.entrySet()) {
-			if (entry.getValue() == 0.0)
-				covered.add(entry.getKey());
-		}
-
-		return covered;
+		return branchDistances.getBranchesWithZeroDistance(false);
 	}
 
 	/* (non-Javadoc)
@@ -911,7 +850,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Set<Integer> getCoveredPredicates() {
-		return coveredPredicates.keySet();
+		return branchDistances.predicateExecutionCounts().keySet();
 	}
 
 	/* (non-Javadoc)
@@ -920,13 +859,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Set<Integer> getCoveredTrueBranches() {
-		Set<Integer> covered = new HashSet<Integer>();
-		for (Entry<Integer, Double> entry : trueDistances.entrySet()) {
-			if (entry.getValue() == 0.0)
-				covered.add(entry.getKey());
-		}
-
-		return covered;
+		return branchDistances.getBranchesWithZeroDistance(true);
 	}
 
 	/* (non-Javadoc)
@@ -970,7 +903,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public double getFalseDistance(int branchId) {
-		return falseDistances.get(branchId);
+		return branchDistances.minFalseDistances().get(branchId);
 	}
 
 	/* (non-Javadoc)
@@ -979,7 +912,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Map<Integer, Double> getFalseDistances() {
-		return falseDistances;
+		return branchDistances.minFalseDistances();
 	}
 
 	/* (non-Javadoc)
@@ -1043,7 +976,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Map<Integer, Integer> getPredicateExecutionCount() {
-		return coveredPredicates;
+		return branchDistances.predicateExecutionCounts();
 	}
 
 	/**
@@ -1213,7 +1146,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public double getTrueDistance(int branchId) {
-		return trueDistances.get(branchId);
+		return branchDistances.minTrueDistances().get(branchId);
 	}
 
 	/* (non-Javadoc)
@@ -1222,7 +1155,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Map<Integer, Double> getTrueDistances() {
-		return trueDistances;
+		return branchDistances.minTrueDistances();
 	}
 
 	/* (non-Javadoc)
@@ -1244,7 +1177,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public boolean hasFalseDistance(int predicateId) {
-		return falseDistances.containsKey(predicateId);
+		return branchDistances.wasPassed(predicateId);
 	}
 
 	/** {@inheritDoc} */
@@ -1266,7 +1199,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public boolean hasTrueDistance(int predicateId) {
-		return trueDistances.containsKey(predicateId);
+		return branchDistances.wasPassed(predicateId);
 	}
 
 	/* (non-Javadoc)
@@ -1519,15 +1452,15 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 			ret.append(entry.getKey() + ": " + entry.getValue() + ", ");
 		}
 		ret.append("\nCovered predicates: ");
-		for (Entry<Integer, Integer> entry : coveredPredicates.entrySet()) {
+		for (Entry<Integer, Integer> entry : getPredicateExecutionCount().entrySet()) {
 			ret.append(entry.getKey() + ": " + entry.getValue() + ", ");
 		}
 		ret.append("\nTrue distances: ");
-		for (Entry<Integer, Double> entry : trueDistances.entrySet()) {
+		for (Entry<Integer, Double> entry : getTrueDistances().entrySet()) {
 			ret.append(entry.getKey() + ": " + entry.getValue() + ", ");
 		}
 		ret.append("\nFalse distances: ");
-		for (Entry<Integer, Double> entry : falseDistances.entrySet()) {
+		for (Entry<Integer, Double> entry : getFalseDistances().entrySet()) {
 			ret.append(entry.getKey() + ": " + entry.getValue() + ", ");
 		}
 		return ret.toString();
@@ -1612,13 +1545,13 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 	/** {@inheritDoc} */
 	@Override
 	public Map<Integer, Double> getFalseDistancesSum() {
-		return falseDistancesSum;
+		return branchDistances.falseDistanceSums();
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public Map<Integer, Double> getTrueDistancesSum() {
-		return trueDistancesSum;
+		return branchDistances.trueDistanceSums();
 	}
 
 	/** {@inheritDoc} */
@@ -1709,27 +1642,18 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
 
 	/**
 	 * The observed epaTransitions for each distinct object of the target class so
-	 * far (at the test case level). We use identityHashCode to identify those
-	 * epaTransitions.
+	 * far (at the test case level). Objects are compared by identity.
 	 */
-	private final IdentityHashMap<Object, LinkedList<EPATransition>> epaTransitions = new IdentityHashMap<>();
+	private EPATraceBuffer epaTraces = new EPATraceBuffer();
 
 	@Override
 	public void appendNewEpaTransition(Object object, EPATransition transition) {
-		if (!this.epaTransitions.containsKey(object)) {
-			this.epaTransitions.put(object, new LinkedList<>());
-		}
-		this.epaTransitions.get(object).add(transition);		
+		this.epaTraces.append(object, transition);
 	}
 
 	@Override
 	public Set<EPATrace> getEPATraces() {
-		final HashSet<EPATrace> traces = new HashSet<EPATrace>();
-		for (LinkedList<EPATransition> epaTransitionList : this.epaTransitions.values()) {
-			EPATrace trace = new EPATrace(new LinkedList<>(epaTransitionList));
-			traces.add(trace);
-		}
-		return traces;
+		return this.epaTraces.getEPATraces();
 	}
 
 
@@ -607,6 +607,7 @@ public class ExecutionTraceProxy implements ExecutionTrace, Cloneable {
 
 	@Override
 	public void appendNewEpaTransition(Object object, EPATransition transition) {
+		copyOnWrite();
 		trace.appendNewEpaTransition(object, transition);
 	}
 
@@ -26,6 +26,7 @@ import org.evosuite.coverage.dataflow.DefUsePool;
 import org.evosuite.coverage.dataflow.Definition;
 import org.evosuite.coverage.dataflow.Use;
 import org.evosuite.instrumentation.testability.BooleanHelper;
+import org.evosuite.runtime.MonitorGuard;
 import org.evosuite.seeding.ConstantPoolManager;
 import org.objectweb.asm.Opcodes;
 import org.slf4j.Logger;
@@ -107,6 +108,15 @@ public class ExecutionTracer {
 		return !tracer.disabled;
 	}
 
+	/**
+	 * The callbacks are ignored while the tracer is disabled, or while the
+	 * current thread is inside a monitor (see {@link MonitorGuard}), which does
+	 * not affect the tracing of other threads.
+	 */
+	private boolean isDisabled() {
+		return disabled || MonitorGuard.isInside();
+	}
+
 	/**
 	 * <p>
 	 * Setter for the field <code>killSwitch</code>.
@@ -271,7 +281,7 @@ public class ExecutionTracer {
 			throws TestCaseExecutor.TimeoutExceeded {
 		ExecutionTracer tracer = getExecutionTracer();
 
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -295,7 +305,7 @@ public class ExecutionTracer {
 	 */
 	public static void returnValue(int value, String className, String methodName) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -316,10 +326,11 @@ public class ExecutionTracer {
 	 *            a {@link java.lang.String} object.
 	 */
 	public static void returnValue(Object value, String className, String methodName) {
-		if (isThreadNeqCurrentThread())
+		ExecutionTracer tracer = getExecutionTracer();
+		if (tracer.isDisabled())
 			return;
 
-		if (!ExecutionTracer.isEnabled())
+		if (isThreadNeqCurrentThread())
 			return;
 
 		if (value == null) {
@@ -370,7 +381,7 @@ public class ExecutionTracer {
 	 */
 	public static void leftMethod(String classname, String methodname) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -385,7 +396,7 @@ public class ExecutionTracer {
 	 */
 	public static void checkTimeout() {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (tracer.killSwitch) {
@@ -416,7 +427,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedLine(String className, String methodName, int line) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -441,7 +452,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedUnconditionalBranch(int opcode, int branch, int bytecode_id) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -468,7 +479,7 @@ public class ExecutionTracer {
 		ExecutionTracer tracer = getExecutionTracer();
 		// logger.info("passedBranch val="+val+", opcode="+opcode+",
 		// branch="+branch+", bytecode_id="+bytecode_id);
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -531,7 +542,7 @@ public class ExecutionTracer {
 
 	public static void passedPutStatic(String classNameWithDots, String fieldName) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -544,7 +555,7 @@ public class ExecutionTracer {
 
 	public static void passedGetStatic(String classNameWithDots, String fieldName) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -571,7 +582,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedBranch(int val1, int val2, int opcode, int branch, int bytecode_id) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -653,7 +664,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedBranch(Object val1, Object val2, int opcode, int branch, int bytecode_id) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -721,7 +732,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedBranch(Object val, int opcode, int branch, int bytecode_id) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -765,7 +776,7 @@ public class ExecutionTracer {
 			return;
 
 		ExecutionTracer tracer = getExecutionTracer();
-		if (!tracer.disabled)
+		if (!tracer.isDisabled())
 			tracer.trace.definitionPassed(object, caller, defID);
 	}
 
@@ -780,7 +791,7 @@ public class ExecutionTracer {
 	public static void passedUse(Object object, Object caller, int useID) {
 
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -801,7 +812,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedFieldMethodCall(Object callee, Object caller, int defuseId) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -830,7 +841,7 @@ public class ExecutionTracer {
 	 */
 	public static void passedMutation(double distance, int mutationId) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -855,7 +866,7 @@ public class ExecutionTracer {
 	 */
 	public static void exceptionThrown(Object exception, String className, String methodName) {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -874,7 +885,7 @@ public class ExecutionTracer {
 	 */
 	public static void statementExecuted() {
 		ExecutionTracer tracer = getExecutionTracer();
-		if (tracer.disabled)
+		if (tracer.isDisabled())
 			return;
 
 		if (isThreadNeqCurrentThread())
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Enforces the timeout of a test case executed on the calling thread, where
+ * the test cannot be abandoned as in {@link TimeoutHandler}.
+ * </p>
+ *
+ * <p>
+ * Once the timeout expires, the kill switch of the {@link ExecutionTracer} is
+ * activated, so that the instrumented code throws a
+ * {@link TestCaseExecutor.TimeoutExceeded}. If the test is still running after
+ * the shutdown timeout (e.g. because it is blocked in non-instrumented code),
+ * the thread is interrupted.
+ * </p>
+ *
+ * <p>
+ * The watched thread is the one running the search, so it is never stopped. A
+ * test that neither reaches instrumented code nor reacts to the interruption
+ * (e.g. one blocked in native code, or one that swallows the interruption in a
+ * loop) keeps running, and the search waits for it. This is a hard limit of
+ * executing tests on the calling thread.
+ * </p>
+ */
+public class ExecutionWatchdog {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExecutionWatchdog.class);
+
+	/**
+	 * Name of the timer thread. It starts as the test execution threads, so that
+	 * it is not stopped as a thread spawned by the SUT
+	 */
+	private static final String WATCHDOG_THREAD = TestCaseExecutor.TEST_EXECUTION_THREAD + "_WATCHDOG";
+
+	private static ScheduledExecutorService timer = null;
+
+	private final Thread thread;
+
+	private final ScheduledFuture<?> killTask;
+
+	private final ScheduledFuture<?> interruptTask;
+
+	private boolean finished = false;
+
+	private boolean killed = false;
+
+	private boolean interrupted = false;
+
+	private static synchronized ScheduledExecutorService getTimer() {
+		if (timer == null) {
+			timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread watchdogThread = new Thread(r, WATCHDOG_THREAD);
+					watchdogThread.setDaemon(true);
+					return watchdogThread;
+				}
+			});
+		}
+		return timer;
+	}
+
+	private ExecutionWatchdog(Thread thread, long timeout, long shutdownTimeout) {
+		this.thread = thread;
+		final ScheduledExecutorService timer = getTimer();
+		this.killTask = timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				kill();
+			}
+		}, timeout, TimeUnit.MILLISECONDS);
+		this.interruptTask = timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				interrupt();
+			}
+		}, timeout + shutdownTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Starts watching the given thread
+	 *
+	 * @param thread
+	 *            the thread executing the test
+	 * @param timeout
+	 *            milliseconds until the kill switch is activated
+	 * @param shutdownTimeout
+	 *            further milliseconds until the thread is interrupted
+	 * @return
+	 */
+	public static ExecutionWatchdog start(Thread thread, long timeout, long shutdownTimeout) {
+		return new ExecutionWatchdog(thread, timeout, shutdownTimeout);
+	}
+
+	private synchronized void kill() {
+		if (!finished) {
+			logger.info("Test timed out, activating kill switch");
+			killed = true;
+			ExecutionTracer.setKillSwitch(true);
+		}
+	}
+
+	private synchronized void interrupt() {
+		if (!finished) {
+			logger.info("Test still running after kill switch, interrupting " + thread.getName());
+			interrupted = true;
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Stops watching the thread, undoing the kill switch and the interruption.
+	 * Has to be called by the watched thread once the test is finished, even if
+	 * the watchdog fired just as the test finished.
+	 *
+	 * @return true if the test timed out
+	 */
+	public synchronized boolean stop() {
+		if (Thread.currentThread() != thread) {
+			throw new IllegalStateException("The watchdog has to be stopped by the watched thread");
+		}
+		finished = true;
+		killTask.cancel(false);
+		interruptTask.cancel(false);
+		if (killed) {
+			ExecutionTracer.setKillSwitch(false);
+		}
+		if (interrupted) {
+			// clears the interrupted status of the watched thread
+			Thread.interrupted();
+		}
+		return killed;
+	}
+}
@@ -38,6 +38,7 @@ import org.evosuite.Properties;
 import org.evosuite.TestGenerationContext;
 import org.evosuite.TimeController;
 import org.evosuite.assertion.CheapPurityAnalyzer;
+import org.evosuite.coverage.epa.EPAMonitor;
 import org.evosuite.ga.stoppingconditions.MaxStatementsStoppingCondition;
 import org.evosuite.ga.stoppingconditions.MaxTestsStoppingCondition;
 import org.evosuite.runtime.LoopCounter;
@@ -68,7 +69,18 @@ import org.slf4j.LoggerFactory;
  * WARNING: never give "privileged" rights in MSecurityManager to any of the
  * threads generated here
  * </p>
- * 
+ *
+ * <p>
+ * Tests are executed one at a time on a single executor thread: the
+ * {@link ExecutionTracer}, the sandbox, the mocked runtime (e.g.
+ * <code>System.in</code>, the virtual file system and the mocked time) and the
+ * redirected <code>System.out</code> are shared by the whole JVM, and the ids
+ * of the branches in the traces are only meaningful for the
+ * {@link org.evosuite.coverage.branch.BranchPool} of the class loader that
+ * loaded the SUT. To use more cores, run several EvoSuite processes (e.g. one
+ * per target class) instead.
+ * </p>
+ *
  * @author Gordon Fraser
  */
 public class TestCaseExecutor implements ThreadFactory {
@@ -104,6 +116,12 @@ public class TestCaseExecutor implements ThreadFactory {
 
 	private final Set<Thread> stalledThreads = new HashSet<Thread>();
 
+	/**
+	 * Set once a test timed out: from then on, tests are no longer executed on
+	 * the calling thread
+	 */
+	private boolean callingThreadExecutionDisabled = false;
+
 	/** Constant <code>timeExecuted=0</code> */
 	public static long timeExecuted = 0;
 
@@ -403,6 +421,12 @@ public class TestCaseExecutor implements ThreadFactory {
 		Scope scope = new Scope();
 		ExecutionResult result = execute(tc, scope, timeout);
 
+		if (Properties.SAME_THREAD_EXECUTION && result.hasTimeout()
+				&& !callingThreadExecutionDisabled) {
+			logger.info("Test timed out, no longer executing tests on the calling thread");
+			callingThreadExecutionDisabled = true;
+		}
+
 		if (Properties.RESET_STATIC_FIELDS) {
 			logger.debug("Resetting classes after execution");
 			resetClasses(tc, result);
@@ -422,6 +446,7 @@ public class TestCaseExecutor implements ThreadFactory {
 	@SuppressWarnings("deprecation")
 	private ExecutionResult execute(TestCase tc, Scope scope, int timeout) {
 		ExecutionTracer.getExecutionTracer().clear();
+		EPAMonitor.startNewTest();
 
 		// TODO: Re-insert!
 		resetObservers();
@@ -436,6 +461,8 @@ public class TestCaseExecutor implements ThreadFactory {
 		TestRunnable callable = new TestRunnable(tc, scope, observers);
 		callable.storeCurrentThreads();
 
+		final boolean onCallingThread = isExecutedOnCallingThread();
+
 		/*
 		 * FIXME: the sequence of "catch" with calls to "result.set" should be
 		 * re-factored, as these things should be (already) handled in
@@ -456,15 +483,21 @@ public class TestCaseExecutor implements ThreadFactory {
 			Sandbox.goingToExecuteSUTCode();
 			TestGenerationContext.getInstance().goingToExecuteSUTCode();
 			try {
-				result = handler.execute(callable, executor, timeout,
-						Properties.CPU_TIMEOUT);
+				if (onCallingThread) {
+					result = executeOnCallingThread(tc, callable, timeout);
+				} else {
+					result = handler.execute(callable, executor, timeout,
+							Properties.CPU_TIMEOUT);
+				}
 			} finally {
 				Sandbox.doneWithExecutingSUTCode();
 				TestGenerationContext.getInstance().doneWithExecutingSUTCode();
 			}
 
-			PermissionStatistics.getInstance().countThreads(
-					threadGroup.activeCount());
+			if (!onCallingThread) {
+				PermissionStatistics.getInstance().countThreads(
+						threadGroup.activeCount());
+			}
 			result.setSecurityException(PermissionStatistics.getInstance()
 					.getAndResetExceptionInfo());
 			/*
@@ -635,6 +668,67 @@ public class TestCaseExecutor implements ThreadFactory {
 		}
 	}
 
+	/**
+	 * Tests are executed on the calling thread only if requested, unless their
+	 * timeout is measured on CPU time or a test timed out before
+	 */
+	boolean isExecutedOnCallingThread() {
+		return Properties.SAME_THREAD_EXECUTION && !Properties.CPU_TIMEOUT
+				&& !callingThreadExecutionDisabled;
+	}
+
+	/**
+	 * Executes tests on the calling thread again (if requested) after a test
+	 * timed out. Only tests reset it.
+	 */
+	void resetCallingThreadExecution() {
+		callingThreadExecutionDisabled = false;
+	}
+
+	/**
+	 * Execute a test case on the current thread (inside the sandbox), which
+	 * avoids handing it over to the executor thread. The timeout is enforced
+	 * by an {@link ExecutionWatchdog} through the kill switch.
+	 */
+	private ExecutionResult executeOnCallingThread(TestCase tc,
+			TestRunnable callable, int timeout) {
+		final Thread thread = Thread.currentThread();
+		final ClassLoader contextClassLoader = thread.getContextClassLoader();
+		// a privileged thread has to be explicitly put in the sandbox
+		final boolean enterSandbox = Sandbox.isSecurityManagerInitialized()
+				&& !Sandbox.isSafeToExecuteSUTCode();
+		final ExecutionWatchdog watchdog = ExecutionWatchdog.start(thread,
+				timeout, Properties.SHUTDOWN_TIMEOUT);
+		thread.setContextClassLoader(TestGenerationContext.getInstance()
+				.getClassLoaderForSUT());
+		ExecutionTracer.setThread(thread);
+		if (enterSandbox) {
+			Sandbox.goingToExecuteUnsafeCodeOnSameThread();
+		}
+		ExecutionResult result;
+		boolean timedOut;
+		try {
+			result = callable.call();
+		} finally {
+			if (enterSandbox) {
+				Sandbox.doneWithExecutingUnsafeCodeOnSameThread();
+			}
+			timedOut = watchdog.stop();
+			// SUT code later called by this thread must not be traced
+			ExecutionTracer.disable();
+			if (currentThread != null) {
+				ExecutionTracer.setThread(currentThread);
+			}
+			thread.setContextClassLoader(contextClassLoader);
+		}
+		if (timedOut && !result.hasTimeout()) {
+			// the test was interrupted before the kill switch was noticed
+			result.reportNewThrownException(tc.size(),
+					new TestCaseExecutor.TimeoutExceeded());
+		}
+		return result;
+	}
+
 	private boolean isInStaticInit() {
 		for (StackTraceElement elem : currentThread.getStackTrace()) {
 			if (elem.getMethodName().equals("<clinit>"))
@@ -32,6 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.evosuite.PackageInfo;
 import org.evosuite.Properties;
+import org.evosuite.coverage.epa.EPAWriteVersion;
 import org.evosuite.runtime.Runtime;
 import org.evosuite.runtime.System.SystemExitException;
 import org.evosuite.runtime.jvm.ShutdownHookHandler;
@@ -298,6 +299,9 @@ public class TestRunnable implements InterfaceTestRunnable {
 			}
 
 			ExecutionTracer.statementExecuted();
+			if (Properties.EPA_STATE_QUERY_CACHE) {
+				EPAWriteVersion.beforeStatement(s);
+			}
 			informObservers_before(s);
 
 			/*
@@ -334,9 +338,9 @@ public class TestRunnable implements InterfaceTestRunnable {
 				// check if it was an explicit exception
 				// --------------------------------------------------------
 				if (ExecutionTracer.getExecutionTracer().getLastException() == exceptionThrown) {
-					result.explicitExceptions.put(num.get(), true);
+					result.setExplicitException(num.get(), true);
 				} else {
-					result.explicitExceptions.put(num.get(), false);
+					result.setExplicitException(num.get(), false);
 				}
 				// --------------------------------------------------------
 
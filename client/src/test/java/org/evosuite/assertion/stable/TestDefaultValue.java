@@ -61,7 +61,7 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 
 	@Test
@@ -76,7 +76,7 @@ public class TestDefaultValue {
 		System.out.println(tc.toCode());
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 	
 	@Test
@@ -90,7 +90,7 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 	
 	@Test
@@ -104,7 +104,7 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 	
 	@Test
@@ -118,7 +118,7 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 	
 	@Test
@@ -132,7 +132,7 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 	
 	@Test
@@ -146,6 +146,6 @@ public class TestDefaultValue {
 		DefaultTestCase tc = builder.getDefaultTestCase();
 		ExecutionResult ret_val = TestCaseExecutor.runTest(tc);
 		assertNotNull(ret_val);
-		assertFalse(ret_val.explicitExceptions.isEmpty());
+		assertFalse(ret_val.getExplicitExceptions().isEmpty());
 	}
 }
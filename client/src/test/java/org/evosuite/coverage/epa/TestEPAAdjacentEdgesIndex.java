@@ -0,0 +1,57 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestEPAAdjacentEdgesIndex {
+
+	private static final EPAState S0 = new EPAState("S0");
+	private static final EPAState S1 = new EPAState("S1");
+
+	private static final EPATransition CONSTRUCTOR = new EPANormalTransition(EPAState.INITIAL_STATE, "Stack()", S0);
+	private static final EPATransition PUSH = new EPANormalTransition(S0, "push()", S1);
+	private static final EPATransition POP = new EPANormalTransition(S1, "pop()", S0);
+	private static final EPATransition EMPTY_POP = new EPAExceptionalTransition(S0, "pop()", S0,
+			"java.util.EmptyStackException");
+	private static final EPATransition FAILED_POP = new EPAExceptionalTransition(S0, "pop()", S0,
+			"java.lang.IllegalStateException");
+
+	private final EPAAdjacentEdgesIndex index = new EPAAdjacentEdgesIndex(EPATransitionDictionary.getInstance());
+
+	private long getPairKey(EPATransition first, EPATransition second) {
+		return index.getPairKey(new EPATrace(Arrays.asList(first, second)), 0);
+	}
+
+	@Test
+	public void testAdjacentPairs() {
+		final long pairKey = getPairKey(CONSTRUCTOR, PUSH);
+		assertTrue(pairKey >= 0);
+		final EPATransitionDictionary dictionary = EPATransitionDictionary.getInstance();
+		assertEquals(CONSTRUCTOR, dictionary.getTransition(EPAAdjacentEdgesIndex.getFirstTransitionId(pairKey)));
+		assertEquals(PUSH, dictionary.getTransition(EPAAdjacentEdgesIndex.getSecondTransitionId(pairKey)));
+		assertNotEquals(pairKey, getPairKey(PUSH, POP));
+		assertEquals(pairKey, getPairKey(CONSTRUCTOR, PUSH));
+	}
+
+	@Test
+	public void testPairsThatEndTheTrace() {
+		// not adjacent
+		assertEquals(EPAAdjacentEdgesIndex.NO_PAIR, getPairKey(CONSTRUCTOR, POP));
+		// exceptional first transition
+		assertEquals(EPAAdjacentEdgesIndex.NO_PAIR, getPairKey(EMPTY_POP, PUSH));
+		// invalid object state
+		EPATransition invalid = new EPANormalTransition(S0, "push()", EPAState.INVALID_OBJECT_STATE);
+		assertEquals(EPAAdjacentEdgesIndex.NO_PAIR, getPairKey(CONSTRUCTOR, invalid));
+	}
+
+	@Test
+	public void testExceptionOfSecondTransitionIsIgnored() {
+		assertEquals(getPairKey(CONSTRUCTOR, EMPTY_POP), getPairKey(CONSTRUCTOR, FAILED_POP));
+		assertEquals(new EPAAdjacentEdgesPair(CONSTRUCTOR, EMPTY_POP), new EPAAdjacentEdgesPair(CONSTRUCTOR, FAILED_POP));
+	}
+}
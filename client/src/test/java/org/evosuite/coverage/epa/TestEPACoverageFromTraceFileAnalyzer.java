@@ -8,11 +8,19 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
@@ -278,4 +286,58 @@ public class TestEPACoverageFromTraceFileAnalyzer {
 		final float coverage4 = EPACoverageFromTraceFileAnalyzer.getCoverage(epa, idToTraceMap4.values());
 		assertEquals((float)2/69, coverage4, 0.001);
 	}
+
+	@Test
+	public void testStreamedEPACoverageFromSamples() throws IOException, SAXException, ParserConfigurationException {
+		final EPA epa = EPAFactory.buildEPA(Properties.EPA_XML_PATH);
+
+		assertEquals(2, getTracedEPATransitions(epa, SAMPLE1).size());
+		assertEquals(3, getTracedEPATransitions(epa, SAMPLE2).size());
+		assertEquals(4, getTracedEPATransitions(epa, SAMPLE3).size());
+		assertEquals(2, getTracedEPATransitions(epa, SAMPLE4).size());
+
+		// interleaving the calls of different objects does not change the traces
+		final String[] lines3 = SAMPLE3.split("\n");
+		final String[] lines4 = SAMPLE4.split("\n");
+		final StringBuilder interleaved = new StringBuilder();
+		for (int i = 0; i < Math.max(lines3.length, lines4.length); i++) {
+			if (i < lines3.length) {
+				interleaved.append(lines3[i]).append("\n");
+			}
+			if (i < lines4.length) {
+				interleaved.append(lines4[i]).append("\n");
+			}
+		}
+		final Set<EPATransition> expected = new HashSet<>(getTracedEPATransitions(epa, SAMPLE3));
+		expected.addAll(getTracedEPATransitions(epa, SAMPLE4));
+		assertEquals(expected, getTracedEPATransitions(epa, interleaved.toString()));
+	}
+
+	@Test
+	public void testEPACoverageFromTraceFiles() throws IOException, SAXException, ParserConfigurationException {
+		final EPA epa = EPAFactory.buildEPA(Properties.EPA_XML_PATH);
+
+		final List<Path> traceFiles = new ArrayList<>();
+		final Set<EPATransition> expected = new HashSet<>();
+		try {
+			for (String sample : Arrays.asList(SAMPLE1, SAMPLE2, SAMPLE3, SAMPLE4)) {
+				final Path traceFile = Files.createTempFile("epa-trace", ".txt");
+				traceFiles.add(traceFile);
+				Files.write(traceFile, sample.getBytes(StandardCharsets.UTF_8));
+				expected.addAll(getTracedEPATransitions(epa, sample));
+			}
+			assertEquals(expected, EPACoverageFromTraceFileAnalyzer.getTracedEPATransitions(epa, traceFiles));
+			assertEquals((float) expected.size() / 69,
+					EPACoverageFromTraceFileAnalyzer.getTraceFilesCoverage(epa, traceFiles), 0.001);
+		} finally {
+			for (Path traceFile : traceFiles) {
+				Files.deleteIfExists(traceFile);
+			}
+		}
+	}
+
+	private static Set<EPATransition> getTracedEPATransitions(EPA epa, String sample) throws IOException {
+		return EPACoverageFromTraceFileAnalyzer.getTracedEPATransitions(epa,
+				new BufferedReader(new StringReader(sample)));
+	}
 }
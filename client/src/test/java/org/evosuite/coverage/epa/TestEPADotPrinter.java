@@ -5,9 +5,16 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Assume;
 import org.junit.Test;
 import org.xml.sax.SAXException;
@@ -58,4 +65,24 @@ public class TestEPADotPrinter {
 		System.out.println(dot);
 	}
 
+	@Test
+	public void testWriteGzip() throws ParserConfigurationException, SAXException, IOException {
+		final String xmlFilename = String.join(File.separator, System.getProperty("user.dir"), "src", "test",
+				"resources", "epas", "ListItr.xml");
+		Assume.assumeTrue(new File(xmlFilename).exists());
+
+		EPA automata = EPAFactory.buildEPA(xmlFilename);
+		EPADotPrinter printer = new EPADotPrinter();
+		Path dotFile = Files.createTempFile("ListItr", ".dot" + EPAUtils.GZIP_SUFFIX);
+		try {
+			printer.write(automata, dotFile);
+			try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(dotFile)),
+					StandardCharsets.UTF_8)) {
+				assertEquals(printer.toDot(automata), IOUtils.toString(reader));
+			}
+		} finally {
+			Files.deleteIfExists(dotFile);
+		}
+	}
+
 }
@@ -1,6 +1,10 @@
 package org.evosuite.coverage.epa;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -45,6 +49,72 @@ public class TestEPAFactory {
 		int transitionCount = epa.getTransitions().size();
 		assertEquals(7, transitionCount);
 	}
-	
-	
+
+	@Test
+	public void testMyBoundedStackIndex() throws FileNotFoundException, ParserConfigurationException, SAXException, IOException {
+		final String xmlFilename = String.join(File.separator, System.getProperty("user.dir"), "src", "test", "resources",
+				"epas", "MyBoundedStack.xml");
+		final File epaXMLFile = new File(xmlFilename);
+		Assume.assumeTrue(epaXMLFile.exists());
+
+		EPA epa = EPAFactory.buildEPA(xmlFilename);
+
+		assertEquals(4, epa.getStateCount());
+		assertEquals(3, epa.getActionCount());
+		assertEquals(7, epa.getTransitionCount());
+
+		EPAState s2 = epa.getStateByName("S2");
+		assertEquals(s2, epa.getState(epa.getStateId(s2)));
+		assertEquals(4, epa.getTransitions(s2).size());
+		assertSame(epa.getTransitions(s2), epa.getTransitions(s2));
+		assertEquals(2, epa.getTransitions(s2, "push()").size());
+		assertEquals(0, epa.getTransitions(s2, "MyBoundedStack()").size());
+
+		for (EPATransition t : epa.getTransitions()) {
+			assertEquals(t, epa.getTransition(epa.getTransitionId(t)));
+		}
+		assertEquals(-1, epa.getTransitionId(new EPANormalTransition(s2, "MyBoundedStack()", s2)));
+		assertEquals(-1, epa.getActionId("peek()"));
+		assertTrue(epa.containsAction("pop()"));
+	}
+
+	@Test
+	public void testBinaryFormat() throws ParserConfigurationException, SAXException, IOException {
+		final String xmlFilename = String.join(File.separator, System.getProperty("user.dir"), "src", "test", "resources",
+				"epas", "ListItr.xml");
+		final File epaXMLFile = new File(xmlFilename);
+		Assume.assumeTrue(epaXMLFile.exists());
+
+		final File binaryFile = File.createTempFile("ListItr", ".epab");
+		binaryFile.deleteOnExit();
+		EPABinaryFormat.convert(xmlFilename, binaryFile.getPath());
+		assertTrue(EPABinaryFormat.isBinaryEPA(binaryFile.toPath()));
+		assertFalse(EPABinaryFormat.isBinaryEPA(epaXMLFile.toPath()));
+
+		EPA xmlEPA = EPAFactory.buildEPA(xmlFilename);
+		EPA binaryEPA = EPAFactory.buildEPA(binaryFile.getPath());
+		assertEquals(xmlEPA, binaryEPA);
+		assertEquals(xmlEPA.getTransitions(), binaryEPA.getTransitions());
+		assertEquals(xmlEPA.getInitialState(), binaryEPA.getInitialState());
+	}
+
+	@Test
+	public void testEPAIsCachedUntilModified() throws ParserConfigurationException, SAXException, IOException {
+		final String xmlFilename = String.join(File.separator, System.getProperty("user.dir"), "src", "test", "resources",
+				"epas", "MyBoundedStack.xml");
+		final File epaXMLFile = new File(xmlFilename);
+		Assume.assumeTrue(epaXMLFile.exists());
+
+		final File binaryFile = File.createTempFile("MyBoundedStack", ".epab");
+		binaryFile.deleteOnExit();
+		EPABinaryFormat.convert(xmlFilename, binaryFile.getPath());
+
+		EPA epa = EPAFactory.buildEPA(binaryFile.getPath());
+		assertSame(epa, EPAFactory.buildEPA(binaryFile.getPath()));
+
+		assertTrue(binaryFile.setLastModified(binaryFile.lastModified() - 10000));
+		EPA reloaded = EPAFactory.buildEPA(binaryFile.getPath());
+		assertNotSame(epa, reloaded);
+		assertEquals(epa, reloaded);
+	}
 }
@@ -0,0 +1,111 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.execution.ExecutionTraceImpl;
+import org.junit.Test;
+
+public class TestEPAGoalRegistry {
+
+	@Test
+	public void testGoalIdsFollowDiscoveryOrder() {
+		EPAGoalRegistry<String> registry = new EPAGoalRegistry<>();
+		assertEquals(-1, registry.getGoalId("b"));
+		assertEquals(0, registry.addGoal("b", "goal b"));
+		assertEquals(1, registry.addGoal("a", "goal a"));
+		assertEquals(0, registry.addGoal("b", "other goal b"));
+		assertEquals(2, registry.size());
+		assertEquals("goal b", registry.getGoal(0));
+		assertEquals("[goal b, goal a]", registry.getGoals().toString());
+
+		BitSet goalIds = new BitSet();
+		goalIds.set(1);
+		Set<String> goals = registry.getGoals(goalIds);
+		assertEquals(1, goals.size());
+		assertTrue(goals.contains("goal a"));
+	}
+
+	@Test
+	public void testProbesMapToGoalIds() {
+		EPAGoalRegistry<String> registry = new EPAGoalRegistry<>();
+		assertEquals(-1, registry.getGoalId(7L));
+		assertEquals(0, registry.addGoal(7L, "a", "goal a"));
+		// a different probe for an existing key is mapped to the existing goal
+		assertEquals(0, registry.addGoal(8L, "a", "other goal a"));
+		assertEquals(0, registry.getGoalId(8L));
+		assertEquals("goal a", registry.getGoal(0));
+
+		// probes are kept while the probe table grows
+		for (long probe = 100; probe < 1100; probe++) {
+			assertEquals(probe - 99, registry.addGoal(probe << 32, "key" + probe, "goal" + probe));
+		}
+		assertEquals(0, registry.getGoalId(7L));
+		for (long probe = 100; probe < 1100; probe++) {
+			assertEquals(probe - 99, registry.getGoalId(probe << 32));
+		}
+		assertEquals(1001, registry.size());
+	}
+
+	@Test
+	public void testSnapshotIsNotChangedByNewGoals() {
+		EPAGoalRegistry<String> registry = new EPAGoalRegistry<>();
+		registry.addGoal("a", "goal a");
+		List<String> snapshot = registry.getGoals();
+		assertSame(snapshot, registry.getGoals());
+		registry.addGoal("b", "goal b");
+		assertEquals(1, snapshot.size());
+		assertEquals(2, registry.getGoals().size());
+	}
+
+	@Test
+	public void testConcurrentInsertion() throws InterruptedException {
+		final EPAGoalRegistry<String> registry = new EPAGoalRegistry<>();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (long probe = 0; probe < 500; probe++) {
+					int goalId = registry.getGoalId(probe);
+					if (goalId < 0) {
+						goalId = registry.addGoal(probe, "key" + probe, "goal" + probe);
+					}
+					assertEquals("goal" + probe, registry.getGoal(goalId));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(500, registry.size());
+		assertEquals(500, new HashSet<>(registry.getGoals()).size());
+	}
+
+	@Test
+	public void testCoveredGoalsAreCachedPerResult() {
+		EPAGoalRegistry<String> registry = new EPAGoalRegistry<>();
+		ExecutionResult result = new ExecutionResult(new DefaultTestCase());
+		result.setTrace(new ExecutionTraceImpl());
+		assertNull(registry.getCachedCoveredGoals(result));
+
+		BitSet coveredGoals = new BitSet();
+		coveredGoals.set(registry.addGoal("a", "goal a"));
+		registry.cacheCoveredGoals(result, coveredGoals);
+		assertSame(coveredGoals, registry.getCachedCoveredGoals(result));
+		assertNull(new EPAGoalRegistry<String>().getCachedCoveredGoals(result));
+
+		// cached goals are kept by clones, and dropped when the trace changes
+		assertSame(coveredGoals, registry.getCachedCoveredGoals(result.clone()));
+		result.setTrace(new ExecutionTraceImpl());
+		assertNull(registry.getCachedCoveredGoals(result));
+	}
+}
@@ -0,0 +1,49 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+public class TestEPAMonitorContext {
+
+	private static final EPAState S0 = new EPAState("S0");
+
+	private static final int NEXT_CALL_SITE = 1;
+
+	private static final int HAS_NEXT_CALL_SITE = 2;
+
+	@Test
+	public void testActionExitedByPropagatedException() {
+		final EPAMonitorContext context = new EPAMonitorContext();
+		context.startTest(1);
+		final Object iterator = new Object();
+		context.pushCall(HAS_NEXT_CALL_SITE);
+		context.setPreviousEpaState(iterator, S0);
+		assertEquals(HAS_NEXT_CALL_SITE, context.popCall());
+
+		// the exception thrown by a callee skips the exit of the action
+		context.pushCall(NEXT_CALL_SITE);
+		context.setPreviousEpaState(iterator, S0);
+		assertEquals(1, context.getCallDepth());
+
+		context.startTest(2);
+		assertEquals(0, context.getCallDepth());
+		assertEquals(0, context.getTrackedObjectCount());
+		assertFalse(context.hasPreviousEpaState(iterator));
+		assertEquals(-1, context.popCall());
+	}
+
+	@Test
+	public void testSameTestKeepsTrackedObjects() {
+		final EPAMonitorContext context = new EPAMonitorContext();
+		context.startTest(1);
+		final Object iterator = new Object();
+		context.pushCall(NEXT_CALL_SITE);
+		context.setPreviousEpaState(iterator, S0);
+
+		context.startTest(1);
+		assertEquals(1, context.getCallDepth());
+		assertEquals(1, context.getTrackedObjectCount());
+	}
+}
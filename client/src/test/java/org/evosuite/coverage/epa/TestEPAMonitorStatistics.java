@@ -0,0 +1,56 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEPAMonitorStatistics {
+
+	@Before
+	public void setUp() {
+		EPAMonitorStatistics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		EPAMonitorStatistics.reset();
+	}
+
+	@Test
+	public void testQueryEvaluations() {
+		EPAMonitorStatistics.stateQueriesEvaluated(3, 500L, false);
+		EPAMonitorStatistics.stateQueriesEvaluated(3, 2500000L, true);
+		EPAMonitorStatistics.stateQueryCacheHit();
+
+		assertEquals(2, EPAMonitorStatistics.getStateQueryEvaluations());
+		assertEquals(6, EPAMonitorStatistics.getQueryInvocations());
+		assertEquals(1, EPAMonitorStatistics.getStateQueryCacheHits());
+		assertEquals(1, EPAMonitorStatistics.getInvalidObjectStates());
+		assertEquals(2, EPAMonitorStatistics.getQueryTimeMillis());
+		assertEquals(2500, EPAMonitorStatistics.getMaxQueryTimeMicros());
+	}
+
+	@Test
+	public void testQueryTimeHistogram() {
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 999L, false);
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 1000L, false);
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 50000L, false);
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 50000L, false);
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 1000000000L, false);
+
+		assertEquals("1;1;2;0;0;0;1", EPAMonitorStatistics.getQueryTimeHistogram());
+	}
+
+	@Test
+	public void testReset() {
+		EPAMonitorStatistics.actionCalled();
+		EPAMonitorStatistics.stateQueriesEvaluated(1, 5000L, false);
+
+		EPAMonitorStatistics.reset();
+		assertEquals(0, EPAMonitorStatistics.getActionCalls());
+		assertEquals(0, EPAMonitorStatistics.getStateQueryEvaluations());
+		assertEquals("0;0;0;0;0;0;0", EPAMonitorStatistics.getQueryTimeHistogram());
+	}
+}
@@ -0,0 +1,78 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TestEPAQueryEvaluator {
+
+	@SuppressWarnings("unused")
+	private static class Queries {
+		private boolean alwaysTrue() {
+			return true;
+		}
+
+		private boolean alwaysFalse() {
+			return false;
+		}
+
+		public Boolean boxedTrue() {
+			return Boolean.TRUE;
+		}
+
+		private boolean failing() {
+			throw new IllegalStateException();
+		}
+	}
+
+	private static List<Method> getQueries(String... names) throws NoSuchMethodException {
+		Method[] methods = new Method[names.length];
+		for (int i = 0; i < names.length; i++) {
+			methods[i] = Queries.class.getDeclaredMethod(names[i]);
+		}
+		return Arrays.asList(methods);
+	}
+
+	@After
+	public void tearDown() {
+		EPAQueryEvaluator.clearCache();
+	}
+
+	@Test
+	public void testBitmask() throws Exception {
+		List<Method> queries = getQueries("alwaysTrue", "alwaysFalse", "boxedTrue");
+		EPAQueryEvaluator evaluator = EPAQueryEvaluator.getEvaluator(Queries.class, queries);
+		assertEquals(0b101L, evaluator.evaluateAll(new Queries()));
+		assertTrue(evaluator.evaluate(new Queries(), 0));
+		assertFalse(evaluator.evaluate(new Queries(), 1));
+	}
+
+	@Test
+	public void testReflectiveAndMethodHandlesAgree() throws Exception {
+		Method[] queries = getQueries("alwaysFalse", "boxedTrue", "alwaysTrue").toArray(new Method[0]);
+		long reflective = new ReflectiveEPAQueryEvaluator(queries).evaluateAll(new Queries());
+		long compiled = new MethodHandleEPAQueryEvaluator(queries).evaluateAll(new Queries());
+		assertEquals(reflective, compiled);
+	}
+
+	@Test(expected = InvocationTargetException.class)
+	public void testFailingQuery() throws Exception {
+		List<Method> queries = getQueries("alwaysTrue", "failing");
+		EPAQueryEvaluator.getEvaluator(Queries.class, queries).evaluateAll(new Queries());
+	}
+
+	@Test
+	public void testEvaluatorIsCached() throws Exception {
+		EPAQueryEvaluator first = EPAQueryEvaluator.getEvaluator(Queries.class, getQueries("alwaysTrue"));
+		EPAQueryEvaluator second = EPAQueryEvaluator.getEvaluator(Queries.class, getQueries("alwaysTrue"));
+		assertTrue(first == second);
+	}
+}
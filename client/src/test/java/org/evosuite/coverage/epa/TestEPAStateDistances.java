@@ -0,0 +1,120 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.evosuite.Properties;
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.execution.ExecutionTraceImpl;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestEPAStateDistances {
+
+	private static final EPAState S0 = new EPAState("S0");
+	private static final EPAState S1 = new EPAState("S1");
+	private static final EPAState S2 = new EPAState("S2");
+	private static final EPAState S3 = new EPAState("S3");
+
+	private static final EPATransition CONSTRUCTOR = new EPANormalTransition(EPAState.INITIAL_STATE, "Stack()", S0);
+	private static final EPATransition PUSH_S0 = new EPANormalTransition(S0, "push()", S1);
+	private static final EPATransition PUSH_S1 = new EPANormalTransition(S1, "push()", S2);
+	private static final EPATransition POP_S2 = new EPANormalTransition(S2, "pop()", S1);
+	private static final EPATransition POP_S3 = new EPANormalTransition(S3, "pop()", S2);
+
+	private final boolean DEFAULT_GRAPH_DISTANCE = Properties.EPA_TRANSITION_GRAPH_DISTANCE;
+
+	@After
+	public void tearDown() {
+		Properties.EPA_TRANSITION_GRAPH_DISTANCE = DEFAULT_GRAPH_DISTANCE;
+	}
+
+	private static ExecutionResult buildResult(EPATransition... transitions) {
+		final ExecutionTraceImpl trace = new ExecutionTraceImpl();
+		final Object stack = new Object();
+		for (EPATransition transition : transitions) {
+			trace.appendNewEpaTransition(stack, transition);
+		}
+		final ExecutionResult result = new ExecutionResult(new DefaultTestCase());
+		result.setTrace(trace);
+		return result;
+	}
+
+	private static EPA buildEPA() {
+		final Map<EPAState, Set<EPATransition>> map = new HashMap<>();
+		map.put(EPAState.INITIAL_STATE, new LinkedHashSet<EPATransition>(
+				Arrays.asList(new EPANormalTransition(EPAState.INITIAL_STATE, "Stack()", S0))));
+		map.put(S0, new LinkedHashSet<EPATransition>(Arrays.asList(new EPANormalTransition(S0, "push()", S1),
+				new EPAExceptionalTransition(S0, "pop()", S0, "java.util.EmptyStackException"))));
+		map.put(S1, new LinkedHashSet<EPATransition>(Arrays.asList(new EPANormalTransition(S1, "push()", S2),
+				new EPANormalTransition(S1, "pop()", S0))));
+		map.put(S2, new LinkedHashSet<EPATransition>(Arrays.asList(new EPANormalTransition(S2, "pop()", S1))));
+		map.put(S3, new LinkedHashSet<EPATransition>(Arrays.asList(new EPANormalTransition(S3, "pop()", S2))));
+		return new EPA("Stack", map, EPAState.INITIAL_STATE);
+	}
+
+	@Test
+	public void testShortestDistances() {
+		final EPA epa = buildEPA();
+		final EPAStateDistances distances = epa.getStateDistances();
+		assertEquals(0, distances.getDistance(S1, S1));
+		assertEquals(1, distances.getDistance(S0, S1));
+		assertEquals(3, distances.getDistance(EPAState.INITIAL_STATE, S2));
+		assertEquals(2, distances.getDistance(S2, S0));
+		assertEquals(1, distances.getDistance(S3, S2));
+	}
+
+	@Test
+	public void testUnreachableStates() {
+		final EPA epa = buildEPA();
+		final EPAStateDistances distances = epa.getStateDistances();
+		assertEquals(EPAStateDistances.UNREACHABLE, distances.getDistance(S0, S3));
+		assertEquals(EPAStateDistances.UNREACHABLE, distances.getDistance(S0, EPAState.INITIAL_STATE));
+		assertEquals(EPAStateDistances.UNREACHABLE, distances.getDistance(S0, new EPAState("S4")));
+	}
+
+	@Test
+	public void testGoalDistance() {
+		Properties.EPA_TRANSITION_GRAPH_DISTANCE = true;
+		final EPA epa = buildEPA();
+		final EPATransitionCoverageGoal goal = new EPATransitionCoverageGoal("Stack", epa, POP_S2);
+
+		assertEquals(0.0, goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0, PUSH_S1, POP_S2)), 0.0);
+		assertEquals(1.0, goal.getDistance(buildResult()), 0.0);
+
+		final double[] distances = new double[] { goal.getDistance(buildResult(CONSTRUCTOR)),
+				goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0)),
+				goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0, PUSH_S1)) };
+		double previous = 1.0;
+		for (double distance : distances) {
+			assertTrue(distance >= 0.5);
+			assertTrue(distance < previous);
+			previous = distance;
+		}
+		assertEquals(0.5, previous, 0.0);
+	}
+
+	@Test
+	public void testGoalDistanceOfUnreachableOrigin() {
+		Properties.EPA_TRANSITION_GRAPH_DISTANCE = true;
+		final EPA epa = buildEPA();
+		final EPATransitionCoverageGoal goal = new EPATransitionCoverageGoal("Stack", epa, POP_S3);
+		assertEquals(1.0, goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0, PUSH_S1, POP_S2)), 0.0);
+	}
+
+	@Test
+	public void testBinaryGoalDistance() {
+		Properties.EPA_TRANSITION_GRAPH_DISTANCE = false;
+		final EPA epa = buildEPA();
+		final EPATransitionCoverageGoal goal = new EPATransitionCoverageGoal("Stack", epa, POP_S2);
+		assertEquals(0.0, goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0, PUSH_S1, POP_S2)), 0.0);
+		assertEquals(1.0, goal.getDistance(buildResult(CONSTRUCTOR, PUSH_S0, PUSH_S1)), 0.0);
+	}
+}
@@ -0,0 +1,83 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TestEPATraceBuffer {
+
+	private static final EPAState S0 = new EPAState("S0");
+	private static final EPAState S1 = new EPAState("S1");
+
+	private static final EPATransition CONSTRUCTOR = new EPANormalTransition(EPAState.INITIAL_STATE, "Stack()", S0);
+	private static final EPATransition PUSH = new EPANormalTransition(S0, "push()", S1);
+	private static final EPATransition POP = new EPANormalTransition(S1, "pop()", S0);
+
+	@Test
+	public void testTracesAreRecordedPerObject() {
+		EPATraceBuffer buffer = new EPATraceBuffer();
+		Object first = new Object();
+		Object second = new Object();
+		buffer.append(first, CONSTRUCTOR);
+		buffer.append(second, CONSTRUCTOR);
+		buffer.append(first, PUSH);
+		buffer.append(first, POP);
+
+		Set<EPATrace> traces = buffer.getEPATraces();
+		assertEquals(2, traces.size());
+		assertTrue(traces.contains(new EPATrace(Arrays.asList(CONSTRUCTOR, PUSH, POP))));
+		assertTrue(traces.contains(new EPATrace(Arrays.asList(CONSTRUCTOR))));
+	}
+
+	@Test
+	public void testEqualTracesAreMerged() {
+		EPATraceBuffer buffer = new EPATraceBuffer();
+		Object first = new Object();
+		Object second = new Object();
+		buffer.append(first, CONSTRUCTOR);
+		buffer.append(second, CONSTRUCTOR);
+		assertEquals(1, buffer.getEPATraces().size());
+	}
+
+	@Test
+	public void testViewIsCachedUntilNextAppend() {
+		EPATraceBuffer buffer = new EPATraceBuffer();
+		Object object = new Object();
+		buffer.append(object, CONSTRUCTOR);
+		Set<EPATrace> traces = buffer.getEPATraces();
+		assertSame(traces, buffer.getEPATraces());
+
+		// growing the trace does not change previously returned views
+		for (int i = 0; i < 20; i++) {
+			buffer.append(object, PUSH);
+		}
+		assertNotSame(traces, buffer.getEPATraces());
+		assertEquals(1, traces.iterator().next().getEpaTransitions().size());
+		assertEquals(21, buffer.getEPATraces().iterator().next().getEpaTransitions().size());
+		assertEquals(S1, buffer.getEPATraces().iterator().next().getLastState());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testViewIsUnmodifiable() {
+		EPATraceBuffer buffer = new EPATraceBuffer();
+		buffer.append(new Object(), CONSTRUCTOR);
+		buffer.getEPATraces().iterator().next().getEpaTransitions().add(PUSH);
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		EPATraceBuffer buffer = new EPATraceBuffer();
+		Object object = new Object();
+		buffer.append(object, CONSTRUCTOR);
+		EPATraceBuffer copy = buffer.copy();
+		copy.append(object, PUSH);
+		assertEquals(1, buffer.getEPATraces().iterator().next().getEpaTransitions().size());
+		assertEquals(2, copy.getEPATraces().iterator().next().getEpaTransitions().size());
+	}
+}
@@ -0,0 +1,57 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.statements.NullStatement;
+import org.evosuite.testcase.statements.numeric.IntPrimitiveStatement;
+import org.junit.Test;
+
+public class TestEPAWriteVersion {
+
+	private static final EPAState S0 = new EPAState("S0");
+
+	@Test
+	public void testCachedStateIsReusedUntilWritten() {
+		final EPAMonitorContext context = new EPAMonitorContext();
+		final Object object = new Object();
+		final long version = EPAWriteVersion.getVersion();
+		context.setCachedState(object, version, S0);
+		assertSame(S0, context.getCachedState(object, version));
+		assertNull(context.getCachedState(new Object(), version));
+
+		EPAWriteVersion.written();
+		assertNull(context.getCachedState(object, EPAWriteVersion.getVersion()));
+	}
+
+	@Test
+	public void testCachedStateIsDroppedByNewTest() {
+		final EPAMonitorContext context = new EPAMonitorContext();
+		final Object object = new Object();
+		final long version = EPAWriteVersion.getVersion();
+		context.setCachedState(object, version, S0);
+		context.startTest(1);
+		assertNull(context.getCachedState(object, version));
+	}
+
+	@Test
+	public void testStatementsWithoutSideEffects() {
+		final DefaultTestCase test = new DefaultTestCase();
+		final long version = EPAWriteVersion.getVersion();
+		EPAWriteVersion.beforeStatement(new IntPrimitiveStatement(test, 42));
+		EPAWriteVersion.beforeStatement(new NullStatement(test, Object.class));
+		assertEquals(version, EPAWriteVersion.getVersion());
+	}
+
+	@Test
+	public void testClassesNotInstrumentedAreNotWriteTracked() {
+		EPAWriteVersion.addWriteTrackedClass(ArrayList.class.getName());
+		// not loaded by the instrumenting class loader
+		assertFalse(EPAWriteVersion.isWriteTracked(ArrayList.class));
+	}
+}
@@ -0,0 +1,74 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestInferredEPAStateTable {
+
+	private static InferredEPAStateTable newTable() {
+		return new InferredEPAStateTable(Arrays.asList("push", "MyBoundedStack", "pop"));
+	}
+
+	@Test
+	public void testStateNameIsRenderedInActionOrder() {
+		InferredEPAStateTable table = newTable();
+		// actions are sorted: MyBoundedStack, pop, push
+		final int pushIndex = table.getActionIndex("push");
+		EPAState state = table.getState(1L << pushIndex);
+		assertEquals("[MyBoundedStack=false,pop=false,push=true]", state.getName());
+	}
+
+	@Test
+	public void testStatesAreInterned() {
+		InferredEPAStateTable table = newTable();
+		EPAState first = table.getState(0b110L);
+		EPAState second = table.getState(0b110L);
+		assertSame(first, second);
+		assertNotSame(first, table.getState(0b010L));
+		assertEquals(2, table.getStateCount());
+	}
+
+	@Test
+	public void testEqualsPlainStateWithSameName() {
+		InferredEPAStateTable table = newTable();
+		EPAState inferred = table.getState(0b010L);
+		EPAState plain = new EPAState("[MyBoundedStack=false,pop=true,push=false]");
+		assertEquals(plain, inferred);
+		assertEquals(inferred, plain);
+		assertEquals(plain.hashCode(), inferred.hashCode());
+	}
+
+	@Test
+	public void testIsActionEnabled() {
+		InferredEPAStateTable table = newTable();
+		EPAState state = table.getState(1L << table.getActionIndex("pop"));
+		assertTrue(EPAUtils.isActionEnabledInInferredState("pop", state));
+		assertFalse(EPAUtils.isActionEnabledInInferredState("push", state));
+		assertFalse(EPAUtils.isActionEnabledInInferredState("peek", state));
+
+		EPAState plain = new EPAState(state.getName());
+		assertTrue(EPAUtils.isActionEnabledInInferredState("pop", plain));
+		assertFalse(EPAUtils.isActionEnabledInInferredState("push", plain));
+	}
+
+	@Test
+	public void testTransitionsAreInterned() {
+		InferredEPAStateTable table = newTable();
+		EPAState s0 = table.getState(0b100L);
+		EPAState s1 = table.getState(0b110L);
+		EPATransition first = table.getNormalTransition(s0, "push", s1);
+		EPATransition second = table.getNormalTransition(s0, "push", s1);
+		assertSame(first, second);
+		assertEquals(new EPANormalTransition(s0, "push", s1), first);
+
+		EPATransition fromInitial = table.getNormalTransition(EPAState.INITIAL_STATE, "MyBoundedStack", s0);
+		assertSame(fromInitial, table.getNormalTransition(EPAState.INITIAL_STATE, "MyBoundedStack", s0));
+	}
+}
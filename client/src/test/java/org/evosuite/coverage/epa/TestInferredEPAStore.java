@@ -0,0 +1,98 @@
+package org.evosuite.coverage.epa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestInferredEPAStore {
+
+	private static final String CLASS_NAME = "com.example.Stack";
+
+	private static final EPAState S0 = new EPAState("S0");
+	private static final EPAState S1 = new EPAState("S1");
+
+	private static final EPATransition CONSTRUCTOR = new EPANormalTransition(EPAState.INITIAL_STATE, "Stack()", S0);
+	private static final EPATransition PUSH = new EPANormalTransition(S0, "push()", S1);
+	private static final EPATransition POP = new EPANormalTransition(S1, "pop()", S0);
+	private static final EPATransition FAILED_POP = new EPAExceptionalTransition(S0, "pop()", S0,
+			"java.util.EmptyStackException");
+
+	private Path directory;
+
+	private Path storePath;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("epa-store");
+		storePath = directory.resolve("Stack.epas");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(directory.toFile());
+	}
+
+	@Test
+	public void testMissingStoreIsEmpty() throws IOException {
+		InferredEPAStore store = InferredEPAStore.load(storePath, CLASS_NAME);
+		assertEquals(0, store.size());
+		store.flush();
+		assertFalse(Files.exists(storePath));
+	}
+
+	@Test
+	public void testTransitionsSurviveFlush() throws IOException {
+		InferredEPAStore store = InferredEPAStore.load(storePath, CLASS_NAME);
+		assertTrue(store.addTransition(CONSTRUCTOR));
+		assertTrue(store.addTransition(FAILED_POP));
+		assertFalse(store.addTransition(CONSTRUCTOR));
+		store.flush();
+
+		InferredEPAStore loaded = InferredEPAStore.load(storePath, CLASS_NAME);
+		assertEquals(Arrays.asList(CONSTRUCTOR, FAILED_POP), loaded.getTransitions());
+		assertEquals(EPAState.INITIAL_STATE, loaded.toEPA().getInitialState());
+	}
+
+	@Test
+	public void testMergeDiscardsTransitionsAfterInvalidState() throws IOException {
+		InferredEPAStore store = InferredEPAStore.load(storePath, CLASS_NAME);
+		EPATransition invalid = new EPANormalTransition(S0, "push()", EPAState.INVALID_OBJECT_STATE);
+		EPATrace trace = new EPATrace(Arrays.asList(CONSTRUCTOR, invalid, PUSH));
+		assertEquals(1, store.merge(Collections.singleton(trace)));
+		assertEquals(Arrays.asList(CONSTRUCTOR), store.getTransitions());
+	}
+
+	@Test
+	public void testFlushMergesTransitionsStoredByOtherRuns() throws IOException {
+		InferredEPAStore first = InferredEPAStore.load(storePath, CLASS_NAME);
+		InferredEPAStore second = InferredEPAStore.load(storePath, CLASS_NAME);
+		first.addTransition(CONSTRUCTOR);
+		first.addTransition(PUSH);
+		second.addTransition(POP);
+		first.flush();
+		second.flush();
+
+		InferredEPAStore loaded = InferredEPAStore.load(storePath, CLASS_NAME);
+		assertEquals(3, loaded.size());
+		assertTrue(loaded.getTransitions().containsAll(Arrays.asList(CONSTRUCTOR, PUSH, POP)));
+	}
+
+	@Test(expected = IOException.class)
+	public void testStoreOfOtherClassIsRejected() throws IOException {
+		InferredEPAStore store = InferredEPAStore.load(storePath, CLASS_NAME);
+		store.addTransition(CONSTRUCTOR);
+		store.flush();
+		InferredEPAStore.load(storePath, "com.example.Queue");
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BranchDistanceTableTest {
+
+	@Test
+	public void testDistancesAndCounts() {
+		BranchDistanceTable table = new BranchDistanceTable();
+		table.branchPassed(7, 2.0, 0.0, true);
+		table.branchPassed(7, 0.0, 1.0, true);
+		table.branchPassed(3, 1.0, 0.0, false);
+
+		Assert.assertEquals(2.0 + 0.0, table.trueDistanceSums().get(7), 0.0);
+		Assert.assertEquals(0.0, table.minTrueDistances().get(7), 0.0);
+		Assert.assertEquals(0.0, table.minFalseDistances().get(7), 0.0);
+		Assert.assertEquals(1.0, table.minTrueDistances().get(3), 0.0);
+		Assert.assertNull(table.minTrueDistances().get(5));
+
+		// branch 3 was passed while coverage was not traced
+		Assert.assertEquals(Collections.singletonMap(7, 2), table.predicateExecutionCounts());
+		Assert.assertTrue(table.isCoveredTrue(7));
+		Assert.assertFalse(table.isCoveredTrue(3));
+		Assert.assertEquals(Collections.singleton(7), table.getBranchesWithZeroDistance(true));
+		Assert.assertEquals(2, table.getBranchesWithZeroDistance(false).size());
+	}
+
+	@Test
+	public void testMapViewsMatchHashMaps() {
+		BranchDistanceTable table = new BranchDistanceTable();
+		Map<Integer, Double> expected = new HashMap<Integer, Double>();
+		for (int i = 0; i < 100; i++) {
+			int branchId = (i * 37) % 500 + 1;
+			double distance = i % 5;
+			table.branchPassed(branchId, distance, 0.0, true);
+			if (!expected.containsKey(branchId) || expected.get(branchId) > distance) {
+				expected.put(branchId, distance);
+			}
+		}
+		Assert.assertEquals(expected, table.minTrueDistances());
+		Assert.assertEquals(expected.keySet(), table.predicateExecutionCounts().keySet());
+	}
+
+	@Test
+	public void testTrimAndCopy() {
+		BranchDistanceTable table = new BranchDistanceTable();
+		for (int branchId = 200; branchId > 0; branchId -= 3) {
+			table.branchPassed(branchId, branchId, 0.0, true);
+		}
+		Map<Integer, Double> before = new HashMap<Integer, Double>(table.minTrueDistances());
+
+		table.trim();
+		Assert.assertEquals(before, table.minTrueDistances());
+		Assert.assertTrue(table.wasPassed(5));
+		Assert.assertFalse(table.wasPassed(6));
+
+		BranchDistanceTable copy = table.copy();
+		copy.branchPassed(5, 0.0, 1.0, true);
+		copy.branchPassed(1000, 1.0, 0.0, true);
+		Assert.assertEquals(0.0, copy.minTrueDistances().get(5), 0.0);
+		Assert.assertTrue(copy.wasPassed(1000));
+
+		// the original is not affected by writes to the copy
+		Assert.assertEquals(5.0, table.minTrueDistances().get(5), 0.0);
+		Assert.assertFalse(table.wasPassed(1000));
+	}
+
+	@Test
+	public void testTraceClone() {
+		ExecutionTraceImpl trace = new ExecutionTraceImpl();
+		trace.branchPassed(4, 0, 0.0, 3.0);
+		trace.finishCalls();
+
+		ExecutionTraceImpl clone = trace.clone();
+		clone.branchPassed(4, 0, 1.0, 0.0);
+		Assert.assertEquals(0.0, clone.getFalseDistance(4), 0.0);
+		Assert.assertEquals(3.0, trace.getFalseDistance(4), 0.0);
+		Assert.assertEquals(Collections.singleton(4), trace.getCoveredTrueBranches());
+	}
+
+	@Test
+	public void testInterleavedTables() {
+		// both tables share the index of the thread
+		BranchDistanceTable first = new BranchDistanceTable();
+		BranchDistanceTable second = new BranchDistanceTable();
+		first.branchPassed(1, 1.0, 0.0, true);
+		second.branchPassed(2, 2.0, 0.0, true);
+		first.branchPassed(2, 3.0, 0.0, true);
+		second.branchPassed(1, 4.0, 0.0, true);
+		first.branchPassed(1, 0.5, 0.0, true);
+
+		Assert.assertEquals(0.5, first.minTrueDistances().get(1), 0.0);
+		Assert.assertEquals(3.0, first.minTrueDistances().get(2), 0.0);
+		Assert.assertEquals(4.0, second.minTrueDistances().get(1), 0.0);
+		Assert.assertEquals(2.0, second.minTrueDistances().get(2), 0.0);
+		Assert.assertEquals(2, (int) first.predicateExecutionCounts().get(1));
+		Assert.assertEquals(1, (int) second.predicateExecutionCounts().get(1));
+	}
+
+	@Test
+	public void testDistanceSumsOfClearedAndClonedTraces() {
+		ExecutionTraceImpl trace = new ExecutionTraceImpl();
+		trace.branchPassed(4, 0, 1.0, 3.0);
+		trace.branchPassed(4, 0, 2.0, 0.0);
+		trace.finishCalls();
+		Assert.assertEquals(3.0, trace.getTrueDistancesSum().get(4), 0.0);
+		Assert.assertEquals(3.0, trace.getFalseDistancesSum().get(4), 0.0);
+
+		ExecutionTraceImpl clone = trace.clone();
+		Assert.assertEquals(trace.getTrueDistancesSum(), clone.getTrueDistancesSum());
+
+		trace.clear();
+		Assert.assertTrue(trace.getTrueDistancesSum().isEmpty());
+		Assert.assertEquals(3.0, clone.getFalseDistancesSum().get(4), 0.0);
+	}
+}
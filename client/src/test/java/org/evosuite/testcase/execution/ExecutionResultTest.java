@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import java.util.Collections;
+
+import org.evosuite.assertion.OutputTrace;
+import org.evosuite.assertion.PrimitiveTraceEntry;
+import org.evosuite.testcase.DefaultTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutionResultTest {
+
+	private static ExecutionResult createResult() {
+		ExecutionResult result = new ExecutionResult(new DefaultTestCase());
+		result.setTrace(new ExecutionTraceProxy());
+		result.reportNewThrownException(0, new IllegalStateException());
+		return result;
+	}
+
+	@Test
+	public void testCloneIsNotAffectedByWrites() {
+		ExecutionResult result = createResult();
+		ExecutionResult copy = result.clone();
+
+		copy.reportNewThrownException(1, new IllegalArgumentException());
+		Assert.assertEquals(2, copy.getNumberOfThrownExceptions());
+		Assert.assertEquals(1, result.getNumberOfThrownExceptions());
+
+		result.setThrownExceptions(Collections.<Integer, Throwable> emptyMap());
+		Assert.assertTrue(result.noThrownExceptions());
+		Assert.assertEquals(2, copy.getNumberOfThrownExceptions());
+	}
+
+	@Test
+	public void testOutputTracesAreShared() {
+		ExecutionResult result = createResult();
+		OutputTrace<PrimitiveTraceEntry> outputTrace = new OutputTrace<PrimitiveTraceEntry>();
+		result.setTrace(outputTrace, PrimitiveTraceEntry.class);
+
+		ExecutionResult copy = result.clone();
+		Assert.assertSame(outputTrace, copy.getTrace(PrimitiveTraceEntry.class));
+
+		copy.setTrace(new OutputTrace<PrimitiveTraceEntry>(), PrimitiveTraceEntry.class);
+		Assert.assertSame(outputTrace, result.getTrace(PrimitiveTraceEntry.class));
+		Assert.assertNotSame(outputTrace, copy.getTrace(PrimitiveTraceEntry.class));
+	}
+
+	@Test
+	public void testSharedOutputTracesAreFrozen() {
+		ExecutionResult result = createResult();
+		OutputTrace<PrimitiveTraceEntry> outputTrace = new OutputTrace<PrimitiveTraceEntry>();
+		result.setTrace(outputTrace, PrimitiveTraceEntry.class);
+		Assert.assertFalse(outputTrace.isFrozen());
+
+		result.clone();
+		Assert.assertTrue(outputTrace.isFrozen());
+		Assert.assertFalse(outputTrace.clone().isFrozen());
+		try {
+			outputTrace.clear();
+			Assert.fail("A shared output trace cannot be modified");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testExplicitExceptionsAreCopiedOnWrite() {
+		ExecutionResult result = createResult();
+		result.setExplicitException(0, true);
+		ExecutionResult copy = result.clone();
+
+		copy.setExplicitException(0, false);
+		Assert.assertTrue(result.getExplicitExceptions().get(0));
+		Assert.assertFalse(copy.getExplicitExceptions().get(0));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testExceptionPositionsAreReadOnly() {
+		ExecutionResult result = createResult();
+		result.clone().getPositionsWhereExceptionsWereThrown().clear();
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.evosuite.Properties;
+import org.evosuite.symbolic.TestCaseBuilder;
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.variable.VariableReference;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutionWatchdogTest {
+
+	private static final long WAIT_LIMIT = 10000;
+
+	private final boolean DEFAULT_SANDBOX = Properties.SANDBOX;
+
+	private final boolean DEFAULT_SAME_THREAD_EXECUTION = Properties.SAME_THREAD_EXECUTION;
+
+	private final int DEFAULT_SHUTDOWN_TIMEOUT = Properties.SHUTDOWN_TIMEOUT;
+
+	@Before
+	public void setUp() {
+		Properties.SANDBOX = false;
+		ExecutionTracer.enable();
+	}
+
+	@After
+	public void tearDown() {
+		Properties.SANDBOX = DEFAULT_SANDBOX;
+		Properties.SAME_THREAD_EXECUTION = DEFAULT_SAME_THREAD_EXECUTION;
+		Properties.SHUTDOWN_TIMEOUT = DEFAULT_SHUTDOWN_TIMEOUT;
+		TestCaseExecutor.getInstance().resetCallingThreadExecution();
+		ExecutionTracer.setKillSwitch(false);
+		ExecutionTracer.disable();
+		Thread.interrupted();
+	}
+
+	@Test
+	public void testKillSwitch() {
+		ExecutionWatchdog watchdog = ExecutionWatchdog.start(Thread.currentThread(), 10, WAIT_LIMIT);
+		final long end = System.currentTimeMillis() + WAIT_LIMIT;
+		try {
+			while (System.currentTimeMillis() < end) {
+				ExecutionTracer.checkTimeout();
+			}
+			Assert.fail("Kill switch was not activated");
+		} catch (TestCaseExecutor.TimeoutExceeded e) {
+			// expected
+		}
+		Assert.assertTrue(watchdog.stop());
+
+		// the kill switch no longer affects the next test
+		ExecutionTracer.checkTimeout();
+	}
+
+	@Test
+	public void testInterrupt() {
+		ExecutionWatchdog watchdog = ExecutionWatchdog.start(Thread.currentThread(), 10, 10);
+		try {
+			Thread.sleep(WAIT_LIMIT);
+			Assert.fail("Thread was not interrupted");
+		} catch (InterruptedException e) {
+			// expected
+		}
+		Assert.assertTrue(watchdog.stop());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+		ExecutionTracer.checkTimeout();
+	}
+
+	@Test
+	public void testWatchdogFiresAsTestFinishes() {
+		ExecutionWatchdog watchdog = ExecutionWatchdog.start(Thread.currentThread(), 10, 10);
+		// a test that neither checks the kill switch nor the interrupt
+		final long end = System.currentTimeMillis() + WAIT_LIMIT;
+		while (!Thread.currentThread().isInterrupted() && System.currentTimeMillis() < end) {
+			Thread.yield();
+		}
+		Assert.assertTrue(watchdog.stop());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+		ExecutionTracer.checkTimeout();
+
+		// the next test is not affected
+		watchdog = ExecutionWatchdog.start(Thread.currentThread(), WAIT_LIMIT, WAIT_LIMIT);
+		ExecutionTracer.checkTimeout();
+		Assert.assertFalse(watchdog.stop());
+	}
+
+	@Test
+	public void testNoTimeout() {
+		ExecutionWatchdog watchdog = ExecutionWatchdog.start(Thread.currentThread(), WAIT_LIMIT, WAIT_LIMIT);
+		ExecutionTracer.checkTimeout();
+		Assert.assertFalse(watchdog.stop());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testStopByOtherThread() {
+		ExecutionWatchdog watchdog = ExecutionWatchdog.start(new Thread(), WAIT_LIMIT, WAIT_LIMIT);
+		watchdog.stop();
+	}
+
+	@Test
+	public void testEscalationAfterTimeout() throws NoSuchMethodException {
+		Properties.SAME_THREAD_EXECUTION = true;
+		Properties.SHUTDOWN_TIMEOUT = 10;
+		TestCaseExecutor executor = TestCaseExecutor.getInstance();
+		executor.resetCallingThreadExecution();
+		Assert.assertTrue(executor.isExecutedOnCallingThread());
+
+		TestCaseBuilder builder = new TestCaseBuilder();
+		VariableReference millis = builder.appendLongPrimitive(WAIT_LIMIT);
+		builder.appendMethod(null, Thread.class.getMethod("sleep", long.class), millis);
+		DefaultTestCase tc = builder.getDefaultTestCase();
+
+		ExecutionResult result = executor.execute(tc, 10);
+		Assert.assertTrue(result.hasTimeout());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+		Assert.assertFalse(executor.isExecutedOnCallingThread());
+	}
+}
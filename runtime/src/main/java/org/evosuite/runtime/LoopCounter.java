@@ -90,7 +90,7 @@ public class LoopCounter {
             throw new IllegalArgumentException("Loop index cannot be negative");
         }
         
-        if(!activated)
+        if(!activated || MonitorGuard.isInside())
         	return;
 
         if(RuntimeSettings.maxNumberOfIterationsPerLoop < 0){
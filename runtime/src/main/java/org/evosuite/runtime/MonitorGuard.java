@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2010-2016 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.runtime;
+
+/**
+ * Thread-local reentrancy guard for code executed on behalf of a monitor
+ * (e.g. the EPA monitor querying the state of the CUT). While a thread is
+ * inside a monitor, the instrumentation callbacks of that thread (execution
+ * tracing, loop counting) are ignored, without changing any global flag, so
+ * other threads are not affected and nested callbacks restore nothing.
+ *
+ * <p>
+ * The common case (no thread inside a monitor) only reads a volatile counter.
+ */
+public final class MonitorGuard {
+
+    /**
+     * Number of threads currently inside a monitor
+     */
+    private static volatile int threadsInside = 0;
+
+    private static final Object lock = new Object();
+
+    private static final ThreadLocal<int[]> depth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private MonitorGuard() {
+    }
+
+    /**
+     * The current thread enters a monitor. Calls can be nested, and each one
+     * must be matched by a call to {@link #exit()}
+     */
+    public static void enter() {
+        final int[] d = depth.get();
+        if (d[0]++ == 0) {
+            synchronized (lock) {
+                threadsInside++;
+            }
+        }
+    }
+
+    /**
+     * The current thread leaves the monitor entered by the last call to
+     * {@link #enter()}
+     */
+    public static void exit() {
+        final int[] d = depth.get();
+        if (d[0] == 0) {
+            throw new IllegalStateException("Exiting a monitor that was not entered");
+        }
+        if (--d[0] == 0) {
+            synchronized (lock) {
+                threadsInside--;
+            }
+        }
+    }
+
+    /**
+     * @return true if the current thread is inside a monitor, in which case
+     *         instrumentation callbacks should be ignored
+     */
+    public static boolean isInside() {
+        if (threadsInside == 0) {
+            return false;
+        }
+        return depth.get()[0] > 0;
+    }
+}
@@ -69,4 +69,33 @@ public class LoopCounterTest {
 		LoopCounter.getInstance().checkLoop(5);
 		LoopCounter.getInstance().checkLoop(6);
     }
+
+    @Test
+    public void testIgnoredInsideMonitor() throws Exception {
+        Assert.assertTrue(RuntimeSettings.maxNumberOfIterationsPerLoop > 0);
+
+        int index = LoopCounter.getInstance().getNewIndex();
+        MonitorGuard.enter();
+        try {
+            Assert.assertTrue(MonitorGuard.isInside());
+            for (long i = 0; i <= RuntimeSettings.maxNumberOfIterationsPerLoop; i++) {
+                LoopCounter.getInstance().checkLoop(index);
+            }
+        } finally {
+            MonitorGuard.exit();
+        }
+        Assert.assertFalse(MonitorGuard.isInside());
+        Assert.assertTrue(LoopCounter.getInstance().isActivated());
+
+        final boolean[] insideOtherThread = new boolean[1];
+        MonitorGuard.enter();
+        try {
+            Thread other = new Thread(() -> insideOtherThread[0] = MonitorGuard.isInside());
+            other.start();
+            other.join();
+        } finally {
+            MonitorGuard.exit();
+        }
+        Assert.assertFalse(insideOtherThread[0]);
+    }
 }